@@ -0,0 +1,56 @@
+package cn.springboot.starter.api_rate_limiter.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 限流器专用异步执行器
+ * 异步检查通过后的业务方法、等待许可后的延迟放行以及非 Lettuce 驱动下的阻塞脚本调用都在这里执行，
+ * 线程数与队列长度都有上限，与公共 ForkJoinPool 和应用自身的执行器隔离。队列已满时新任务被拒绝，
+ * 对应的 Future 以 RejectedExecutionException 失败。该类本身不是 Executor，不会影响 Spring Boot 默认执行器的创建；
+ * 线程池随容器关闭而销毁
+ *
+ * @author Yuan Shenjian
+ */
+public class RateLimiterAsyncExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 构造函数
+     *
+     * @param async 异步限流检查配置
+     */
+    public RateLimiterAsyncExecutor(RateLimiterProperties.Async async) {
+        Assert.isTrue(async.getThreads() > 0, "rate-limiter.async.threads 必须大于 0");
+        Assert.isTrue(async.getQueueCapacity() > 0, "rate-limiter.async.queue-capacity 必须大于 0");
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(async.getThreads(), async.getThreads(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(async.getQueueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "rate-limiter-async-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 获取执行器
+     *
+     * @return 有界线程池
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
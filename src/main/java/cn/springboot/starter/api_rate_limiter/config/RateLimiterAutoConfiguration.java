@@ -1,30 +1,87 @@
 package cn.springboot.starter.api_rate_limiter.config;
 
+import cn.springboot.starter.api_rate_limiter.core.RateLimitAlgorithm;
+import cn.springboot.starter.api_rate_limiter.core.RateLimiterClient;
+import cn.springboot.starter.api_rate_limiter.core.RateLimiterWarmUp;
+import cn.springboot.starter.api_rate_limiter.core.adaptive.AdaptiveLimitController;
+import cn.springboot.starter.api_rate_limiter.core.adaptive.SaturationSignal;
+import cn.springboot.starter.api_rate_limiter.core.adaptive.TomcatThreadPoolSaturationSignal;
+import cn.springboot.starter.api_rate_limiter.core.handler.RateLimitExceptionHandler;
+import cn.springboot.starter.api_rate_limiter.core.hotkey.HotKeyTracker;
+import cn.springboot.starter.api_rate_limiter.core.interceptor.RateLimitPlanResolver;
+import cn.springboot.starter.api_rate_limiter.core.interceptor.RateLimitRulesRefresher;
+import cn.springboot.starter.api_rate_limiter.core.key.web.HeaderKeyResolver;
+import cn.springboot.starter.api_rate_limiter.core.key.web.PrincipalKeyResolver;
+import cn.springboot.starter.api_rate_limiter.core.key.web.RemoteAddressKeyResolver;
+import cn.springboot.starter.api_rate_limiter.core.interceptor.RateLimiterAdvisor;
+import cn.springboot.starter.api_rate_limiter.core.interceptor.RateLimiterInterceptor;
+import cn.springboot.starter.api_rate_limiter.core.outbound.OutboundRateLimiter;
+import cn.springboot.starter.api_rate_limiter.core.override.RateLimitOverrides;
+import cn.springboot.starter.api_rate_limiter.core.penalty.RateLimitPenaltyBox;
+import cn.springboot.starter.api_rate_limiter.core.outbound.RateLimitingClientHttpRequestInterceptor;
+import cn.springboot.starter.api_rate_limiter.core.outbound.RateLimitingExchangeFilterFunction;
+import cn.springboot.starter.api_rate_limiter.core.snapshot.LocalStateSnapshotter;
 import cn.springboot.starter.api_rate_limiter.core.storage.script.*;
+import cn.springboot.starter.api_rate_limiter.core.sync.LocalSyncScheduler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * API限流器的自动配置
- * 该类为限流功能提供自动配置
+ * 该类为限流功能提供自动配置，所有组件均通过显式的条件化 Bean 注册，不进行类路径扫描
  *
  * @author Yuan Shenjian
  */
-@Configuration
+@AutoConfiguration(after = RedisAutoConfiguration.class)
+@ConditionalOnClass(RedisOperations.class)
 @ConditionalOnProperty(prefix = "rate-limiter", name = "enabled", havingValue = "true", matchIfMissing = true)
 @EnableConfigurationProperties(RateLimiterProperties.class)
-@ComponentScan(basePackages = "cn.springboot.starter.api_rate_limiter")
+@ImportRuntimeHints(RateLimiterRuntimeHints.class)
 public class RateLimiterAutoConfiguration {
 
+    /**
+     * 限流覆盖值与惩罚封禁共享的监听容器的 Bean 名称
+     */
+    public static final String LISTENER_CONTAINER_BEAN_NAME = "rateLimiterListenerContainer";
+
     /**
      * 为固定窗口计数器算法创建ScriptFactory
      *
      * @return 固定窗口计数器的ScriptFactory
      */
     @Bean
+    @ConditionalOnMissingBean
     public FixedWindowCounterScriptFactory fixedWindowCounterScriptFactory() {
         return new FixedWindowCounterScriptFactory();
     }
@@ -35,6 +92,7 @@ public class RateLimiterAutoConfiguration {
      * @return 令牌桶的ScriptFactory
      */
     @Bean
+    @ConditionalOnMissingBean
     public TokenBucketScriptFactory tokenBucketScriptFactory() {
         return new TokenBucketScriptFactory();
     }
@@ -45,6 +103,7 @@ public class RateLimiterAutoConfiguration {
      * @return 漏桶的ScriptFactory
      */
     @Bean
+    @ConditionalOnMissingBean
     public LeakyBucketScriptFactory leakyBucketScriptFactory() {
         return new LeakyBucketScriptFactory();
     }
@@ -55,6 +114,7 @@ public class RateLimiterAutoConfiguration {
      * @return 滑动窗口日志的ScriptFactory
      */
     @Bean
+    @ConditionalOnMissingBean
     public SlidingWindowLogScriptFactory slidingWindowLogScriptFactory() {
         return new SlidingWindowLogScriptFactory();
     }
@@ -65,7 +125,498 @@ public class RateLimiterAutoConfiguration {
      * @return 滑动窗口计数器的ScriptFactory
      */
     @Bean
+    @ConditionalOnMissingBean
     public SlidingWindowCounterScriptFactory slidingWindowCounterScriptFactory() {
         return new SlidingWindowCounterScriptFactory();
     }
-}
\ No newline at end of file
+
+    /**
+     * 为加权滑动窗口算法创建ScriptFactory
+     *
+     * @return 加权滑动窗口的ScriptFactory
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public WeightedSlidingWindowScriptFactory weightedSlidingWindowScriptFactory() {
+        return new WeightedSlidingWindowScriptFactory();
+    }
+
+    /**
+     * 为计数草图算法创建ScriptFactory
+     *
+     * @return 计数草图的ScriptFactory
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public CountMinSketchScriptFactory countMinSketchScriptFactory() {
+        return new CountMinSketchScriptFactory();
+    }
+
+    /**
+     * 为并发限流创建ScriptFactory
+     *
+     * @return 并发限流的ScriptFactory
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ConcurrencyScriptFactory concurrencyScriptFactory() {
+        return new ConcurrencyScriptFactory();
+    }
+
+    /**
+     * 创建限流器专用 Redis 连接（未配置 rate-limiter.redis.host 与分组时不创建任何连接）
+     *
+     * @param properties 限流器配置属性
+     * @return 限流器专用 Redis 连接
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RateLimiterRedisConnections rateLimiterRedisConnections(RateLimiterProperties properties) {
+        return new RateLimiterRedisConnections(properties.getRedis());
+    }
+
+    /**
+     * 创建限流器专用异步执行器
+     *
+     * @param properties 限流器配置属性
+     * @return 限流器专用异步执行器
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RateLimiterAsyncExecutor rateLimiterAsyncExecutor(RateLimiterProperties properties) {
+        return new RateLimiterAsyncExecutor(properties.getAsync());
+    }
+
+    /**
+     * 创建编程式限流客户端
+     * 配置了 rate-limiter.redis.host 时使用专用连接，否则使用应用共享的 Redis 模板
+     *
+     * @param redisTemplate Redis模板（可能不存在）
+     * @param redisConnections 限流器专用 Redis 连接
+     * @param asyncExecutor 限流器专用异步执行器
+     * @param properties 限流器配置属性
+     * @param fixedWindowCounterScriptFactory 固定窗口计数器的ScriptFactory
+     * @param tokenBucketScriptFactory 令牌桶的ScriptFactory
+     * @param leakyBucketScriptFactory 漏桶的ScriptFactory
+     * @param slidingWindowLogScriptFactory 滑动窗口日志的ScriptFactory
+     * @param slidingWindowCounterScriptFactory 滑动窗口计数器的ScriptFactory
+     * @param weightedSlidingWindowScriptFactory 加权滑动窗口的ScriptFactory
+     * @param countMinSketchScriptFactory 计数草图的ScriptFactory
+     * @param concurrencyScriptFactory 并发限流的ScriptFactory
+     * @return 编程式限流客户端
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RateLimiterClient rateLimiterClient(ObjectProvider<StringRedisTemplate> redisTemplate,
+                                               RateLimiterRedisConnections redisConnections,
+                                               RateLimiterAsyncExecutor asyncExecutor,
+                                               RateLimiterProperties properties,
+                                               FixedWindowCounterScriptFactory fixedWindowCounterScriptFactory,
+                                               TokenBucketScriptFactory tokenBucketScriptFactory,
+                                               LeakyBucketScriptFactory leakyBucketScriptFactory,
+                                               SlidingWindowLogScriptFactory slidingWindowLogScriptFactory,
+                                               SlidingWindowCounterScriptFactory slidingWindowCounterScriptFactory,
+                                               WeightedSlidingWindowScriptFactory weightedSlidingWindowScriptFactory,
+                                               CountMinSketchScriptFactory countMinSketchScriptFactory,
+                                               ConcurrencyScriptFactory concurrencyScriptFactory) {
+        Map<RateLimitAlgorithm, RateLimitScriptFactory> scriptFactories = new EnumMap<>(RateLimitAlgorithm.class);
+        scriptFactories.put(RateLimitAlgorithm.FIXED_WINDOW, fixedWindowCounterScriptFactory);
+        scriptFactories.put(RateLimitAlgorithm.TOKEN_BUCKET, tokenBucketScriptFactory);
+        scriptFactories.put(RateLimitAlgorithm.LEAKY_BUCKET, leakyBucketScriptFactory);
+        scriptFactories.put(RateLimitAlgorithm.SLIDING_WINDOW_LOG, slidingWindowLogScriptFactory);
+        scriptFactories.put(RateLimitAlgorithm.SLIDING_WINDOW_COUNTER, slidingWindowCounterScriptFactory);
+        scriptFactories.put(RateLimitAlgorithm.WEIGHTED_SLIDING_WINDOW, weightedSlidingWindowScriptFactory);
+        scriptFactories.put(RateLimitAlgorithm.COUNT_MIN_SKETCH, countMinSketchScriptFactory);
+        scriptFactories.put(RateLimitAlgorithm.CONCURRENCY, concurrencyScriptFactory);
+        StringRedisTemplate defaultTemplate = redisConnections.getDefaultTemplate() != null
+                ? redisConnections.getDefaultTemplate() : redisTemplate.getIfAvailable();
+        return new RateLimiterClient(defaultTemplate, redisConnections.getGroupTemplates(), scriptFactories,
+                asyncExecutor.getExecutor(), properties.getScriptMode(), properties.getAsync().getMaxInFlight());
+    }
+
+    /**
+     * 创建本地计数同步调度器，只有使用了本地计数同步模式的键才会产生同步流量
+     *
+     * @param rateLimiterClient 编程式限流客户端
+     * @param properties 限流器配置属性
+     * @return 本地计数同步调度器
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public LocalSyncScheduler rateLimiterLocalSyncScheduler(RateLimiterClient rateLimiterClient, RateLimiterProperties properties) {
+        return new LocalSyncScheduler(rateLimiterClient, properties.getLocalSync().getInterval());
+    }
+
+    /**
+     * 创建本地限流状态快照调度器
+     *
+     * @param rateLimiterClient 编程式限流客户端
+     * @param properties 限流器配置属性
+     * @return 本地限流状态快照调度器
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "rate-limiter.snapshot", name = "enabled", havingValue = "true")
+    public LocalStateSnapshotter rateLimiterLocalStateSnapshotter(RateLimiterClient rateLimiterClient, RateLimiterProperties properties) {
+        RateLimiterProperties.Snapshot snapshot = properties.getSnapshot();
+        return new LocalStateSnapshotter(rateLimiterClient, Path.of(snapshot.getPath()), snapshot.getInterval());
+    }
+
+    /**
+     * 创建限流计划解析器
+     *
+     * @param properties 限流器配置属性
+     * @return 限流计划解析器
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public RateLimitPlanResolver rateLimitPlanResolver(RateLimiterProperties properties) {
+        return new RateLimitPlanResolver(properties.getRules());
+    }
+
+    /**
+     * 创建命名限流规则刷新器，环境变更时重新绑定规则并替换限流计划
+     *
+     * @param planResolver 限流计划解析器
+     * @param environment 应用环境
+     * @return 命名限流规则刷新器
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RateLimitRulesRefresher rateLimitRulesRefresher(RateLimitPlanResolver planResolver, Environment environment) {
+        return new RateLimitRulesRefresher(planResolver, environment);
+    }
+
+    /**
+     * 创建热点键跟踪器
+     *
+     * @param properties 限流器配置属性
+     * @return 热点键跟踪器
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(prefix = "rate-limiter.hot-keys", name = "enabled", havingValue = "true")
+    public HotKeyTracker rateLimiterHotKeyTracker(RateLimiterProperties properties) {
+        RateLimiterProperties.HotKeys hotKeys = properties.getHotKeys();
+        return new HotKeyTracker(hotKeys.getCapacity(), hotKeys.getTopSize(), hotKeys.getDecayInterval().toMillis());
+    }
+
+    /**
+     * 创建自适应限流控制器
+     *
+     * @param properties 限流器配置属性
+     * @param saturationSignals 饱和度信号
+     * @return 自适应限流控制器
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(prefix = "rate-limiter.adaptive", name = "enabled", havingValue = "true")
+    public AdaptiveLimitController rateLimiterAdaptiveLimitController(RateLimiterProperties properties,
+                                                                      ObjectProvider<SaturationSignal> saturationSignals) {
+        return new AdaptiveLimitController(properties.getAdaptive(), saturationSignals.orderedStream().toList());
+    }
+
+    /**
+     * 创建限流覆盖值与惩罚封禁共享的 Redis 发布订阅监听容器，与限流客户端的默认分组使用同一个 Redis。
+     * 只在启用了其中一个功能时创建；不作为默认注入候选，避免与应用自己的监听容器冲突。
+     * 容器不随上下文自动启动，由注册监听器的组件启动，Redis 暂时不可用时不会阻止应用启动
+     *
+     * @param redisTemplate Redis模板
+     * @param redisConnections 限流器专用 Redis 连接
+     * @return 监听容器
+     */
+    @Bean(defaultCandidate = false)
+    @ConditionalOnMissingBean(name = LISTENER_CONTAINER_BEAN_NAME)
+    @ConditionalOnBean(StringRedisTemplate.class)
+    @Conditional(OnRedisNotificationsCondition.class)
+    public RedisMessageListenerContainer rateLimiterListenerContainer(ObjectProvider<StringRedisTemplate> redisTemplate,
+                                                                      RateLimiterRedisConnections redisConnections) {
+        StringRedisTemplate template = redisConnections.getDefaultTemplate() != null
+                ? redisConnections.getDefaultTemplate() : redisTemplate.getObject();
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            public boolean isAutoStartup() {
+                return false;
+            }
+        };
+        container.setConnectionFactory(template.getRequiredConnectionFactory());
+        return container;
+    }
+
+    /**
+     * 创建按限流键覆盖限制数量的缓存，与限流客户端的默认分组使用同一个 Redis
+     *
+     * @param redisTemplate Redis模板（可能不存在）
+     * @param redisConnections 限流器专用 Redis 连接
+     * @param listenerContainer 共享的监听容器（可能不存在）
+     * @param properties 限流器配置属性
+     * @return 限流覆盖值
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "rate-limiter.overrides", name = "enabled", havingValue = "true")
+    public RateLimitOverrides rateLimitOverrides(ObjectProvider<StringRedisTemplate> redisTemplate,
+                                                 RateLimiterRedisConnections redisConnections,
+                                                 @Qualifier(LISTENER_CONTAINER_BEAN_NAME)
+                                                 ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+                                                 RateLimiterProperties properties) {
+        RateLimiterProperties.Overrides overrides = properties.getOverrides();
+        StringRedisTemplate template = null;
+        if (overrides.isRedis()) {
+            template = redisConnections.getDefaultTemplate() != null
+                    ? redisConnections.getDefaultTemplate() : redisTemplate.getIfAvailable();
+        }
+        return new RateLimitOverrides(template, overrides.getLimits(), overrides.getHashKey(),
+                overrides.getChannel(), overrides.getRefreshInterval(),
+                template != null ? listenerContainer.getIfAvailable() : null);
+    }
+
+    /**
+     * 创建惩罚封禁，与限流客户端的默认分组使用同一个 Redis
+     *
+     * @param redisTemplate Redis模板（可能不存在）
+     * @param redisConnections 限流器专用 Redis 连接
+     * @param listenerContainer 共享的监听容器（可能不存在）
+     * @param properties 限流器配置属性
+     * @return 惩罚封禁
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "rate-limiter.penalty", name = "enabled", havingValue = "true")
+    public RateLimitPenaltyBox rateLimitPenaltyBox(ObjectProvider<StringRedisTemplate> redisTemplate,
+                                                   RateLimiterRedisConnections redisConnections,
+                                                   @Qualifier(LISTENER_CONTAINER_BEAN_NAME)
+                                                   ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+                                                   RateLimiterProperties properties) {
+        StringRedisTemplate template = redisConnections.getDefaultTemplate() != null
+                ? redisConnections.getDefaultTemplate() : redisTemplate.getIfAvailable();
+        return new RateLimitPenaltyBox(template, properties.getPenalty(), listenerContainer.getIfAvailable());
+    }
+
+    /**
+     * 创建统一限流 Advisor，替代按算法划分的多个切面
+     *
+     * @param planResolver 限流计划解析器
+     * @param rateLimiterClient 限流客户端（延迟获取）
+     * @param hotKeyTracker 热点键跟踪器（延迟获取，可能不存在）
+     * @param adaptiveLimitController 自适应限流控制器（延迟获取，可能不存在）
+     * @param limitOverrides 限流覆盖值（延迟获取，可能不存在）
+     * @param penaltyBox 惩罚封禁（延迟获取，可能不存在）
+     * @param properties 限流器配置属性
+     * @return 限流 Advisor
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public RateLimiterAdvisor rateLimiterAdvisor(RateLimitPlanResolver planResolver,
+                                                 ObjectProvider<RateLimiterClient> rateLimiterClient,
+                                                 ObjectProvider<HotKeyTracker> hotKeyTracker,
+                                                 ObjectProvider<AdaptiveLimitController> adaptiveLimitController,
+                                                 ObjectProvider<RateLimitOverrides> limitOverrides,
+                                                 ObjectProvider<RateLimitPenaltyBox> penaltyBox,
+                                                 RateLimiterProperties properties) {
+        RateLimiterInterceptor interceptor = RateLimiterInterceptor.builder(planResolver,
+                        SingletonSupplier.of(rateLimiterClient::getObject), properties)
+                .hotKeyTracker(lazyIfAvailable(hotKeyTracker))
+                .adaptiveLimitController(lazyIfAvailable(adaptiveLimitController))
+                .limitOverrides(lazyIfAvailable(limitOverrides))
+                .penaltyBox(lazyIfAvailable(penaltyBox))
+                .build();
+        return new RateLimiterAdvisor(interceptor);
+    }
+
+    /**
+     * 延迟获取可能不存在的 Bean，首次调用时解析并缓存结果（包括不存在时的 null）
+     *
+     * @param provider Bean 提供者
+     * @return 延迟获取 Bean 的 Supplier
+     */
+    private static <T> Supplier<T> lazyIfAvailable(ObjectProvider<T> provider) {
+        Supplier<Optional<T>> resolved = SingletonSupplier.of(() -> Optional.ofNullable(provider.getIfAvailable()));
+        return () -> resolved.get().orElse(null);
+    }
+
+    /**
+     * 创建启动预热监听器
+     *
+     * @param planResolver 限流计划解析器
+     * @param rateLimiterClient 限流客户端
+     * @return 启动预热监听器
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "rate-limiter.warm-up", name = "enabled", havingValue = "true")
+    public RateLimiterWarmUp rateLimiterWarmUp(RateLimitPlanResolver planResolver, RateLimiterClient rateLimiterClient) {
+        return new RateLimiterWarmUp(planResolver, rateLimiterClient);
+    }
+
+    /**
+     * 创建出站调用限流器
+     *
+     * @param rateLimiterClient 编程式限流客户端
+     * @param properties 限流器配置属性
+     * @return 出站调用限流器
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public OutboundRateLimiter rateLimiterOutboundRateLimiter(RateLimiterClient rateLimiterClient, RateLimiterProperties properties) {
+        return new OutboundRateLimiter(rateLimiterClient, properties.getOutbound());
+    }
+
+    /**
+     * RestTemplate / RestClient 出站限流配置，只有配置了出站限流规则时才会添加拦截器
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(RestClient.class)
+    static class OutboundRestClientConfiguration {
+
+        /**
+         * 为 RestTemplateBuilder 创建的 RestTemplate 添加出站限流拦截器
+         *
+         * @param outboundRateLimiter 出站调用限流器
+         * @return RestTemplate 定制器
+         */
+        @Bean
+        public RestTemplateCustomizer rateLimiterRestTemplateCustomizer(OutboundRateLimiter outboundRateLimiter) {
+            return restTemplate -> {
+                if (!outboundRateLimiter.isEmpty()) {
+                    restTemplate.getInterceptors().add(new RateLimitingClientHttpRequestInterceptor(outboundRateLimiter));
+                }
+            };
+        }
+
+        /**
+         * 为 RestClient.Builder 创建的 RestClient 添加出站限流拦截器
+         *
+         * @param outboundRateLimiter 出站调用限流器
+         * @return RestClient 定制器
+         */
+        @Bean
+        public RestClientCustomizer rateLimiterRestClientCustomizer(OutboundRateLimiter outboundRateLimiter) {
+            return builder -> {
+                if (!outboundRateLimiter.isEmpty()) {
+                    builder.requestInterceptor(new RateLimitingClientHttpRequestInterceptor(outboundRateLimiter));
+                }
+            };
+        }
+    }
+
+    /**
+     * WebClient 出站限流配置，只有配置了出站限流规则时才会添加过滤器
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.web.reactive.function.client.WebClient")
+    static class OutboundWebClientConfiguration {
+
+        /**
+         * 为 WebClient.Builder 创建的 WebClient 添加出站限流过滤器
+         *
+         * @param outboundRateLimiter 出站调用限流器
+         * @return WebClient 定制器
+         */
+        @Bean
+        public WebClientCustomizer rateLimiterWebClientCustomizer(OutboundRateLimiter outboundRateLimiter) {
+            return builder -> {
+                if (!outboundRateLimiter.isEmpty()) {
+                    builder.filter(new RateLimitingExchangeFilterFunction(outboundRateLimiter));
+                }
+            };
+        }
+    }
+
+    /**
+     * Servlet Web 环境下的限流配置
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(DispatcherServlet.class)
+    static class ServletWebConfiguration {
+
+        /**
+         * 创建默认的限流异常处理器
+         *
+         * @return 限流异常处理器
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public RateLimitExceptionHandler rateLimitExceptionHandler() {
+            return new RateLimitExceptionHandler();
+        }
+
+        /**
+         * 创建基于客户端 IP 的键解析器
+         *
+         * @param properties 限流器配置属性
+         * @return 客户端 IP 键解析器
+         */
+        @Bean
+        @ConditionalOnMissingBean(name = "ipKeyResolver")
+        public RemoteAddressKeyResolver ipKeyResolver(RateLimiterProperties properties) {
+            return new RemoteAddressKeyResolver(properties.getKeyResolver().getTrustedProxies());
+        }
+
+        /**
+         * 创建基于已认证用户的键解析器
+         *
+         * @return 已认证用户键解析器
+         */
+        @Bean
+        @ConditionalOnMissingBean(name = "principalKeyResolver")
+        public PrincipalKeyResolver principalKeyResolver() {
+            return new PrincipalKeyResolver();
+        }
+
+        /**
+         * 创建基于请求头的键解析器
+         *
+         * @param properties 限流器配置属性
+         * @return 请求头键解析器
+         */
+        @Bean
+        @ConditionalOnMissingBean(name = "headerKeyResolver")
+        public HeaderKeyResolver headerKeyResolver(RateLimiterProperties properties) {
+            return new HeaderKeyResolver(properties.getKeyResolver().getHeaderName());
+        }
+
+        /**
+         * 内嵌 Tomcat 相关配置
+         */
+        @Configuration(proxyBeanMethods = false)
+        @ConditionalOnClass(name = "org.apache.catalina.startup.Tomcat")
+        @ConditionalOnProperty(prefix = "rate-limiter.adaptive", name = "enabled", havingValue = "true")
+        static class TomcatConfiguration {
+
+            /**
+             * 创建内嵌 Tomcat 请求线程池的饱和度信号，供自适应限流使用
+             *
+             * @return Tomcat 线程池饱和度信号
+             */
+            @Bean
+            @ConditionalOnMissingBean
+            public TomcatThreadPoolSaturationSignal tomcatThreadPoolSaturationSignal() {
+                return new TomcatThreadPoolSaturationSignal();
+            }
+        }
+    }
+
+    /**
+     * 启用了限流覆盖值或惩罚封禁时匹配，两者都需要订阅 Redis 发布订阅通知
+     */
+    static class OnRedisNotificationsCondition extends AnyNestedCondition {
+
+        OnRedisNotificationsCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(prefix = "rate-limiter.overrides", name = "enabled", havingValue = "true")
+        static class OverridesEnabled {
+        }
+
+        @ConditionalOnProperty(prefix = "rate-limiter.penalty", name = "enabled", havingValue = "true")
+        static class PenaltyEnabled {
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package cn.springboot.starter.api_rate_limiter.config;
+
+import cn.springboot.starter.api_rate_limiter.core.interceptor.RateLimitPlanResolver;
+import org.springframework.aot.generate.GenerationContext;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.ReflectionHints;
+import org.springframework.beans.factory.aot.BeanRegistrationAotContribution;
+import org.springframework.beans.factory.aot.BeanRegistrationAotProcessor;
+import org.springframework.beans.factory.aot.BeanRegistrationCode;
+import org.springframework.beans.factory.support.RegisteredBean;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 限流注解方法的 AOT 处理器
+ * 在构建期找出带有限流注解的 Bean 方法，为其注册内省提示（SpEL 需要读取方法参数名），
+ * 并为参数类型注册公共方法的反射提示，使键表达式中的属性访问在原生镜像中可用
+ *
+ * @author Yuan Shenjian
+ */
+class RateLimiterBeanRegistrationAotProcessor implements BeanRegistrationAotProcessor {
+
+    @Override
+    public BeanRegistrationAotContribution processAheadOfTime(RegisteredBean registeredBean) {
+        Class<?> beanClass = ClassUtils.getUserClass(registeredBean.getBeanClass());
+        List<Method> annotatedMethods = new ArrayList<>();
+        ReflectionUtils.doWithMethods(beanClass, annotatedMethods::add, RateLimitPlanResolver::isRateLimited);
+        if (annotatedMethods.isEmpty()) {
+            return null;
+        }
+        return (GenerationContext generationContext, BeanRegistrationCode beanRegistrationCode) -> {
+            ReflectionHints reflection = generationContext.getRuntimeHints().reflection();
+            for (Method method : annotatedMethods) {
+                reflection.registerMethod(method, ExecutableMode.INTROSPECT);
+                for (Class<?> parameterType : method.getParameterTypes()) {
+                    if (!parameterType.isPrimitive() && !parameterType.getName().startsWith("java.")) {
+                        reflection.registerType(parameterType, MemberCategory.INVOKE_PUBLIC_METHODS);
+                    }
+                }
+            }
+        };
+    }
+}
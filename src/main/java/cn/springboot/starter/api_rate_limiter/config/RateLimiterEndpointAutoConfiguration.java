@@ -0,0 +1,69 @@
+package cn.springboot.starter.api_rate_limiter.config;
+
+import cn.springboot.starter.api_rate_limiter.core.actuate.RateLimiterEndpoint;
+import cn.springboot.starter.api_rate_limiter.core.actuate.RateLimiterMemoryEndpoint;
+import cn.springboot.starter.api_rate_limiter.core.hotkey.HotKeyTracker;
+import cn.springboot.starter.api_rate_limiter.core.inspect.RateLimitStateInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Map;
+
+/**
+ * 限流器 Actuator 端点的自动配置
+ * 仅在应用引入 spring-boot-starter-actuator 并暴露 ratelimiter / ratelimitermemory 端点时生效，
+ * 端点使用与限流客户端相同的 Redis 连接检查限流状态
+ *
+ * @author Yuan Shenjian
+ */
+@AutoConfiguration(after = RateLimiterAutoConfiguration.class)
+@ConditionalOnClass(Endpoint.class)
+public class RateLimiterEndpointAutoConfiguration {
+
+    /**
+     * 创建限流器 Actuator 端点
+     *
+     * @param hotKeyTracker 热点键跟踪器（可能不存在）
+     * @param redisTemplate Redis模板（可能不存在）
+     * @param redisConnections 限流器专用 Redis 连接（可能不存在）
+     * @return 限流器 Actuator 端点
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnAvailableEndpoint(endpoint = RateLimiterEndpoint.class)
+    public RateLimiterEndpoint rateLimiterEndpoint(ObjectProvider<HotKeyTracker> hotKeyTracker,
+                                                   ObjectProvider<StringRedisTemplate> redisTemplate,
+                                                   ObjectProvider<RateLimiterRedisConnections> redisConnections) {
+        return new RateLimiterEndpoint(hotKeyTracker.getIfAvailable(), stateInspector(redisTemplate, redisConnections));
+    }
+
+    /**
+     * 创建限流键内存统计 Actuator 端点
+     *
+     * @param redisTemplate Redis模板（可能不存在）
+     * @param redisConnections 限流器专用 Redis 连接（可能不存在）
+     * @return 限流键内存统计 Actuator 端点
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnAvailableEndpoint(endpoint = RateLimiterMemoryEndpoint.class)
+    public RateLimiterMemoryEndpoint rateLimiterMemoryEndpoint(ObjectProvider<StringRedisTemplate> redisTemplate,
+                                                               ObjectProvider<RateLimiterRedisConnections> redisConnections) {
+        return new RateLimiterMemoryEndpoint(stateInspector(redisTemplate, redisConnections));
+    }
+
+    private static RateLimitStateInspector stateInspector(ObjectProvider<StringRedisTemplate> redisTemplate,
+                                                          ObjectProvider<RateLimiterRedisConnections> redisConnections) {
+        RateLimiterRedisConnections connections = redisConnections.getIfAvailable();
+        StringRedisTemplate defaultTemplate = connections != null && connections.getDefaultTemplate() != null
+                ? connections.getDefaultTemplate() : redisTemplate.getIfAvailable();
+        Map<String, StringRedisTemplate> groupTemplates = connections != null ? connections.getGroupTemplates() : Map.of();
+        return new RateLimitStateInspector(defaultTemplate, groupTemplates);
+    }
+}
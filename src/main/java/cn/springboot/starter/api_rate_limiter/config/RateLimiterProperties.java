@@ -4,6 +4,12 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 限流器配置属性
  * 该类定义了 API 限流器的所有可配置属性
@@ -39,4 +45,569 @@ public class RateLimiterProperties {
      * 最大限流键长度，防止恶意长键攻击
      */
     private int maxKeyLength = 255;
-}
\ No newline at end of file
+
+    /**
+     * 限流脚本的执行模式
+     */
+    private ScriptMode scriptMode = ScriptMode.EVAL;
+
+    /**
+     * 启动预热配置
+     */
+    private WarmUp warmUp = new WarmUp();
+
+    /**
+     * 内置键解析器配置
+     */
+    private KeyResolver keyResolver = new KeyResolver();
+
+    /**
+     * 限流器专用 Redis 连接配置，未配置 host 时使用应用共享的 StringRedisTemplate
+     */
+    private Redis redis = new Redis();
+
+    /**
+     * 本地计数、定期同步模式的配置
+     */
+    private LocalSync localSync = new LocalSync();
+
+    /**
+     * 本地限流状态快照配置
+     */
+    private Snapshot snapshot = new Snapshot();
+
+    /**
+     * 热点键统计配置
+     */
+    private HotKeys hotKeys = new HotKeys();
+
+    /**
+     * 自适应限流配置
+     */
+    private Adaptive adaptive = new Adaptive();
+
+    /**
+     * 异步限流检查配置
+     */
+    private Async async = new Async();
+
+    /**
+     * 出站调用限流规则，键为规则名称。RestTemplate、RestClient 和 WebClient 发送请求前按主机和路径匹配规则并获取令牌
+     */
+    private Map<String, Outbound> outbound = new LinkedHashMap<>();
+
+    /**
+     * 按限流键覆盖限制数量的配置
+     */
+    private Overrides overrides = new Overrides();
+
+    /**
+     * 命名限流规则，键为规则名称，由注解的 rule 属性引用。环境刷新时重新绑定，无需重启
+     */
+    private Map<String, Rule> rules = new LinkedHashMap<>();
+
+    /**
+     * 惩罚封禁配置
+     */
+    private Penalty penalty = new Penalty();
+
+    /**
+     * 启动预热配置
+     * 在应用就绪前预加载脚本、预编译限流计划并校验注解参数
+     */
+    @Getter
+    @Setter
+    public static class WarmUp {
+
+        /**
+         * 是否在 ApplicationReadyEvent 时执行预热
+         */
+        private boolean enabled = false;
+    }
+
+    /**
+     * 本地计数、定期同步模式的配置
+     */
+    @Getter
+    @Setter
+    public static class LocalSync {
+
+        /**
+         * 将本地增量同步到 Redis 的间隔，间隔越短精度越高、Redis 压力越大
+         */
+        private Duration interval = Duration.ofMillis(100);
+    }
+
+    /**
+     * 本地限流状态快照配置
+     * 进程内状态（本地计数草图）定期写入内存映射文件，重启后恢复，避免滚动发布时配额被重置
+     */
+    @Getter
+    @Setter
+    public static class Snapshot {
+
+        /**
+         * 是否启用快照
+         */
+        private boolean enabled = false;
+
+        /**
+         * 快照文件路径
+         */
+        private String path = System.getProperty("java.io.tmpdir") + "/api-rate-limiter.snapshot";
+
+        /**
+         * 快照写入间隔
+         */
+        private Duration interval = Duration.ofSeconds(5);
+    }
+
+    /**
+     * 热点键统计配置
+     * 在限流判断路径上以固定内存、无锁的方式统计访问最多与被拒绝最多的键，通过 /actuator/ratelimiter 查看
+     */
+    @Getter
+    @Setter
+    public static class HotKeys {
+
+        /**
+         * 是否启用热点键统计
+         */
+        private boolean enabled = false;
+
+        /**
+         * 每个算法每类统计的槽位数量
+         */
+        private int capacity = 1024;
+
+        /**
+         * 报告的热点键数量
+         */
+        private int topSize = 20;
+
+        /**
+         * 计数减半的周期，为 0 时计数不衰减
+         */
+        private Duration decayInterval = Duration.ofMinutes(1);
+    }
+
+    /**
+     * 自适应限流配置
+     * 根据处理耗时、线程池饱和度与 GC 停顿动态收紧注解中配置的限制（AIMD），注解中的限制始终是上限
+     */
+    @Getter
+    @Setter
+    public static class Adaptive {
+
+        /**
+         * 是否启用自适应限流
+         */
+        private boolean enabled = false;
+
+        /**
+         * 评估间隔
+         */
+        private Duration interval = Duration.ofSeconds(1);
+
+        /**
+         * 参与判断的耗时分位数
+         */
+        private double latencyPercentile = 0.95;
+
+        /**
+         * 耗时分位数阈值，超过时视为过载
+         */
+        private Duration latencyThreshold = Duration.ofMillis(500);
+
+        /**
+         * 线程池饱和度阈值（0 到 1），超过时视为过载
+         */
+        private double saturationThreshold = 0.9;
+
+        /**
+         * 评估周期内 GC 耗时占比阈值，超过时视为过载
+         */
+        private double gcThreshold = 0.1;
+
+        /**
+         * 过载时限流系数的乘法收缩因子
+         */
+        private double decreaseFactor = 0.7;
+
+        /**
+         * 未过载时限流系数每个周期的加法恢复步长
+         */
+        private double increaseStep = 0.05;
+
+        /**
+         * 限流系数的下限
+         */
+        private double minFactor = 0.1;
+    }
+
+    /**
+     * 异步限流检查配置
+     * 返回 CompletableFuture 的方法和 tryAcquireAsync 通过 Lettuce 异步命令检查，不阻塞调用线程；
+     * 检查通过后的业务方法在限流器专用的有界线程池上执行
+     */
+    @Getter
+    @Setter
+    public static class Async {
+
+        /**
+         * 每个实例同时在途的异步检查数上限，超过后新的检查直接被拒绝，避免 Redis 变慢时无限积压
+         */
+        private int maxInFlight = 1024;
+
+        /**
+         * 限流器专用异步执行器的线程数
+         */
+        private int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        /**
+         * 限流器专用异步执行器的队列长度，队列已满时新任务被拒绝
+         */
+        private int queueCapacity = 10000;
+    }
+
+    /**
+     * 命名限流规则
+     * 属性名与限流注解的属性名一致，只有配置了的属性才会覆盖注解中的值，与注解算法无关的属性会被忽略
+     */
+    @Getter
+    @Setter
+    public static class Rule {
+
+        /**
+         * 窗口内允许的最大请求数
+         */
+        private Long limit;
+
+        /**
+         * 窗口大小（秒）
+         */
+        private Long windowSize;
+
+        /**
+         * 滑动窗口计数器的子窗口数量
+         */
+        private Integer subWindows;
+
+        /**
+         * 桶容量
+         */
+        private Long capacity;
+
+        /**
+         * 令牌桶每个填充间隔内填充的令牌数
+         */
+        private Long refillRate;
+
+        /**
+         * 令牌桶的填充间隔（秒）
+         */
+        private Long refillIntervalSeconds;
+
+        /**
+         * 漏桶的泄漏速率（每秒处理请求数）
+         */
+        private Long leakRate;
+
+        /**
+         * 令牌桶和漏桶的最长等待时间（毫秒）
+         */
+        private Long maxWait;
+
+        /**
+         * 令牌桶的预热时长（秒）
+         */
+        private Long warmupPeriod;
+
+        /**
+         * 同时执行中的最大请求数
+         */
+        private Long maxInFlight;
+
+        /**
+         * 并发限流的租约时长（秒）
+         */
+        private Long leaseSeconds;
+
+        /**
+         * 采样限流每次访问 Redis 最多预取的许可数
+         */
+        private Integer sampleSize;
+
+        /**
+         * 每个请求所需的许可数量
+         */
+        private Integer permits;
+
+        /**
+         * 超过限流时返回的消息
+         */
+        private String message;
+
+        /**
+         * 将已配置的属性转换为注解属性名与值的映射
+         *
+         * @return 注解属性覆盖值
+         */
+        public Map<String, Object> toAttributes() {
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            putIfPresent(attributes, "limit", limit);
+            putIfPresent(attributes, "windowSize", windowSize);
+            putIfPresent(attributes, "subWindows", subWindows);
+            putIfPresent(attributes, "capacity", capacity);
+            putIfPresent(attributes, "refillRate", refillRate);
+            putIfPresent(attributes, "refillIntervalSeconds", refillIntervalSeconds);
+            putIfPresent(attributes, "leakRate", leakRate);
+            putIfPresent(attributes, "maxWait", maxWait);
+            putIfPresent(attributes, "warmupPeriod", warmupPeriod);
+            putIfPresent(attributes, "maxInFlight", maxInFlight);
+            putIfPresent(attributes, "leaseSeconds", leaseSeconds);
+            putIfPresent(attributes, "sampleSize", sampleSize);
+            putIfPresent(attributes, "permits", permits);
+            putIfPresent(attributes, "message", message);
+            return attributes;
+        }
+
+        private static void putIfPresent(Map<String, Object> attributes, String name, Object value) {
+            if (value != null) {
+                attributes.put(name, value);
+            }
+        }
+    }
+
+    /**
+     * 按限流键覆盖限制数量的配置
+     * 覆盖值替换注解中的限制数量（或桶容量、最大并发数），用于在不重新部署的情况下调整个别键的配额
+     */
+    @Getter
+    @Setter
+    public static class Overrides {
+
+        /**
+         * 是否开启按限流键覆盖限制数量
+         */
+        private boolean enabled = false;
+
+        /**
+         * 是否从 Redis 加载覆盖值并订阅变更通知，关闭后或没有可用的 Redis 时只使用 limits 中声明的覆盖值
+         */
+        private boolean redis = true;
+
+        /**
+         * 配置文件中声明的覆盖值，键为限流键（包含特殊字符时使用 [] 包裹），值为限制数量
+         */
+        private Map<String, Long> limits = new LinkedHashMap<>();
+
+        /**
+         * 保存覆盖值的 Redis 哈希键
+         */
+        private String hashKey = "rate_limiter:overrides";
+
+        /**
+         * 覆盖值变更的通知频道
+         */
+        private String channel = "rate_limiter:overrides:changed";
+
+        /**
+         * 全量刷新间隔，弥补订阅断线期间丢失的通知
+         */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+    }
+
+    /**
+     * 惩罚封禁配置
+     * 被限流后仍持续重试的限流键在时间窗口内被拒绝达到阈值后被封禁，封禁期间请求在本地直接拒绝，再次被封禁时封禁时长翻倍
+     */
+    @Getter
+    @Setter
+    public static class Penalty {
+
+        /**
+         * 是否开启惩罚封禁
+         */
+        private boolean enabled = false;
+
+        /**
+         * 触发封禁的拒绝次数
+         */
+        private int threshold = 10;
+
+        /**
+         * 统计拒绝次数的时间窗口
+         */
+        private Duration window = Duration.ofSeconds(10);
+
+        /**
+         * 首次封禁时长，之后每次封禁翻倍
+         */
+        private Duration banDuration = Duration.ofSeconds(30);
+
+        /**
+         * 最长封禁时长
+         */
+        private Duration maxBanDuration = Duration.ofHours(1);
+
+        /**
+         * 封禁结束后超过该时长没有再次被封禁时，封禁时长恢复为首次封禁时长
+         */
+        private Duration resetAfter = Duration.ofHours(1);
+
+        /**
+         * 保存封禁状态的 Redis 键前缀
+         */
+        private String keyPrefix = "rate_limiter:penalty:";
+
+        /**
+         * 封禁通知频道
+         */
+        private String channel = "rate_limiter:penalty:banned";
+    }
+
+    /**
+     * 出站调用限流规则
+     * 每条规则对应一个全局共享的令牌桶，用于防止整个集群超出第三方接口的配额
+     */
+    @Getter
+    @Setter
+    public static class Outbound {
+
+        /**
+         * 规则适用的目标主机，为空时适用于所有主机
+         */
+        private List<String> hosts = new ArrayList<>();
+
+        /**
+         * 规则适用的请求路径前缀，为空时适用于所有路径
+         */
+        private String pathPrefix;
+
+        /**
+         * 桶容量（允许的突发请求数）
+         */
+        private long capacity = 10;
+
+        /**
+         * 每个填充间隔内填充的令牌数
+         */
+        private long refillRate = 10;
+
+        /**
+         * 填充间隔（秒）
+         */
+        private long refillIntervalSeconds = 1;
+
+        /**
+         * 令牌不足时的最长等待时间，为 0 时立即失败
+         */
+        private Duration maxWait = Duration.ZERO;
+
+        /**
+         * 限流分组名称，对应 rate-limiter.redis.groups 下配置的 Redis 实例，为空时使用默认连接
+         */
+        private String group = "";
+    }
+
+    /**
+     * 内置键解析器配置
+     */
+    @Getter
+    @Setter
+    public static class KeyResolver {
+
+        /**
+         * 受信任代理的 IP 或 CIDR 网段，只有来自这些地址的请求才会读取 X-Forwarded-For
+         */
+        private List<String> trustedProxies = new ArrayList<>();
+
+        /**
+         * headerKeyResolver 读取的请求头名称
+         */
+        private String headerName = "X-API-Key";
+    }
+
+    /**
+     * 单个 Redis 实例的连接配置
+     */
+    @Getter
+    @Setter
+    public static class RedisConnection {
+
+        /**
+         * Redis 主机地址，为空表示不创建专用连接
+         */
+        private String host;
+
+        /**
+         * Redis 端口
+         */
+        private int port = 6379;
+
+        /**
+         * 数据库索引
+         */
+        private int database = 0;
+
+        /**
+         * 登录用户名
+         */
+        private String username;
+
+        /**
+         * 登录密码
+         */
+        private String password;
+
+        /**
+         * 是否启用 SSL
+         */
+        private boolean ssl = false;
+
+        /**
+         * 命令超时时间，限流检查位于请求路径上，应明显短于缓存类业务的超时
+         */
+        private Duration timeout = Duration.ofMillis(500);
+
+        /**
+         * 连接建立超时时间
+         */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /**
+         * 连接名称（CLIENT SETNAME），便于在 Redis 侧识别限流流量
+         */
+        private String clientName = "api-rate-limiter";
+    }
+
+    /**
+     * 限流器专用 Redis 配置，自身描述默认分组的连接，groups 描述按名称路由的其他实例
+     */
+    @Getter
+    @Setter
+    public static class Redis extends RedisConnection {
+
+        /**
+         * 命名的限流分组，注解通过 group 属性路由到对应的 Redis 实例
+         */
+        private Map<String, RedisConnection> groups = new LinkedHashMap<>();
+    }
+
+    /**
+     * 限流脚本的执行模式
+     */
+    public enum ScriptMode {
+
+        /**
+         * 通过 EVALSHA/EVAL 执行 Lua 脚本
+         */
+        EVAL,
+
+        /**
+         * 将所有脚本注册为一个带版本的 Redis Functions 函数库，通过 FCALL 调用（需要 Redis 7+ 与 Lettuce 驱动）
+         */
+        FUNCTION
+    }
+}
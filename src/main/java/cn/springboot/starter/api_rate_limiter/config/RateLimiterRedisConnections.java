@@ -0,0 +1,109 @@
+package cn.springboot.starter.api_rate_limiter.config;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 限流器专用 Redis 连接
+ * 根据 rate-limiter.redis.* 创建与业务缓存隔离的连接工厂，避免限流检查排在大体量缓存读写之后，
+ * 并按分组名称为注解的 group 属性提供独立的 Redis 实例。连接工厂随容器关闭而销毁
+ *
+ * @author Yuan Shenjian
+ */
+@Slf4j
+public class RateLimiterRedisConnections implements DisposableBean {
+
+    private final List<LettuceConnectionFactory> connectionFactories = new ArrayList<>();
+    private final StringRedisTemplate defaultTemplate;
+    private final Map<String, StringRedisTemplate> groupTemplates = new LinkedHashMap<>();
+
+    /**
+     * 构造函数
+     *
+     * @param redis 限流器专用 Redis 配置
+     */
+    public RateLimiterRedisConnections(RateLimiterProperties.Redis redis) {
+        this.defaultTemplate = StringUtils.hasText(redis.getHost()) ? createTemplate("default", redis) : null;
+        redis.getGroups().forEach((group, connection) -> {
+            if (!StringUtils.hasText(connection.getHost())) {
+                throw new IllegalStateException("限流分组 " + group + " 未配置 rate-limiter.redis.groups." + group + ".host");
+            }
+            groupTemplates.put(group, createTemplate(group, connection));
+        });
+    }
+
+    /**
+     * 获取默认分组的专用 Redis 模板
+     *
+     * @return 专用 Redis 模板，未配置 rate-limiter.redis.host 时返回 null
+     */
+    public StringRedisTemplate getDefaultTemplate() {
+        return defaultTemplate;
+    }
+
+    /**
+     * 获取命名分组的 Redis 模板
+     *
+     * @return 分组名称与 Redis 模板的映射
+     */
+    public Map<String, StringRedisTemplate> getGroupTemplates() {
+        return Collections.unmodifiableMap(groupTemplates);
+    }
+
+    @Override
+    public void destroy() {
+        for (LettuceConnectionFactory connectionFactory : connectionFactories) {
+            connectionFactory.destroy();
+        }
+        connectionFactories.clear();
+    }
+
+    /**
+     * 根据连接配置创建 Redis 模板
+     *
+     * @param name 分组名称，用于日志
+     * @param connection 连接配置
+     * @return Redis 模板
+     */
+    private StringRedisTemplate createTemplate(String name, RateLimiterProperties.RedisConnection connection) {
+        RedisStandaloneConfiguration standalone = new RedisStandaloneConfiguration(connection.getHost(), connection.getPort());
+        standalone.setDatabase(connection.getDatabase());
+        standalone.setUsername(connection.getUsername());
+        standalone.setPassword(RedisPassword.of(connection.getPassword()));
+
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder clientConfiguration = LettuceClientConfiguration.builder()
+                .commandTimeout(connection.getTimeout())
+                .clientOptions(ClientOptions.builder()
+                        .socketOptions(SocketOptions.builder().connectTimeout(connection.getConnectTimeout()).build())
+                        .build());
+        if (StringUtils.hasText(connection.getClientName())) {
+            clientConfiguration.clientName(connection.getClientName());
+        }
+        if (connection.isSsl()) {
+            clientConfiguration.useSsl();
+        }
+
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(standalone, clientConfiguration.build());
+        // 始终共享原生连接：没有连接池时关闭共享会让每次操作都新建连接，异步限流检查也依赖共享连接
+        connectionFactory.setShareNativeConnection(true);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        connectionFactories.add(connectionFactory);
+        log.info("已创建限流器专用 Redis 连接，分组: {}，地址: {}:{}", name, connection.getHost(), connection.getPort());
+        return new StringRedisTemplate(connectionFactory);
+    }
+}
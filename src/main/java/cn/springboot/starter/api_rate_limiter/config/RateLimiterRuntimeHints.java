@@ -0,0 +1,26 @@
+package cn.springboot.starter.api_rate_limiter.config;
+
+import cn.springboot.starter.api_rate_limiter.core.handler.RateLimitExceptionHandler;
+import cn.springboot.starter.api_rate_limiter.core.interceptor.RateLimitPlanResolver;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * 限流器的 AOT / GraalVM 原生镜像运行时提示
+ * 注册限流注解的反射访问，使注解属性在原生镜像中可以被读取
+ *
+ * @author Yuan Shenjian
+ */
+public class RateLimiterRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<? extends Annotation> annotationType : RateLimitPlanResolver.ANNOTATION_TYPES) {
+            hints.reflection().registerType(annotationType, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.reflection().registerType(RateLimitExceptionHandler.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
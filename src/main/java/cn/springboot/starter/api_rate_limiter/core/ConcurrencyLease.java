@@ -0,0 +1,93 @@
+package cn.springboot.starter.api_rate_limiter.core;
+
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 并发限流租约
+ * 代表在并发限流有序集合中占用的一个槽位，持有期间由心跳定期续期，关闭时停止续期并释放槽位，可用于 try-with-resources
+ *
+ * @author Yuan Shenjian
+ */
+public class ConcurrencyLease implements AutoCloseable {
+
+    @Getter
+    private final String key;
+
+    @Getter
+    private final String leaseId;
+
+    private final Runnable release;
+    private final Supplier<? extends CompletableFuture<?>> asyncRelease;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile Future<?> heartbeat;
+
+    /**
+     * 构造函数
+     *
+     * @param key 限流键
+     * @param leaseId 租约标识
+     * @param release 以阻塞方式释放槽位的操作
+     * @param asyncRelease 以非阻塞方式释放槽位的操作
+     */
+    public ConcurrencyLease(String key, String leaseId, Runnable release, Supplier<? extends CompletableFuture<?>> asyncRelease) {
+        this.key = key;
+        this.leaseId = leaseId;
+        this.release = release;
+        this.asyncRelease = asyncRelease;
+    }
+
+    /**
+     * 释放槽位，重复调用只会释放一次
+     */
+    @Override
+    public void close() {
+        if (released.compareAndSet(false, true)) {
+            stopHeartbeat();
+            release.run();
+        }
+    }
+
+    /**
+     * 以非阻塞方式释放槽位，可以在 Redis 驱动的 I/O 线程上调用，与 {@link #close()} 合计只会释放一次
+     *
+     * @return 释放完成的 Future
+     */
+    public CompletableFuture<Void> closeAsync() {
+        if (!released.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        stopHeartbeat();
+        try {
+            return asyncRelease.get().thenApply(ignored -> null);
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * 关联续期心跳，租约已经释放时立即取消
+     *
+     * @param heartbeat 定期续期的任务
+     */
+    void startHeartbeat(Future<?> heartbeat) {
+        this.heartbeat = heartbeat;
+        if (released.get()) {
+            heartbeat.cancel(false);
+        }
+    }
+
+    /**
+     * 停止续期心跳
+     */
+    void stopHeartbeat() {
+        Future<?> current = heartbeat;
+        if (current != null) {
+            current.cancel(false);
+        }
+    }
+}
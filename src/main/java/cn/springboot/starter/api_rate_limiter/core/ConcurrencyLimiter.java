@@ -0,0 +1,75 @@
+package cn.springboot.starter.api_rate_limiter.core;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 分布式并发限流注解
+ * 限制同一限流键同时执行中的请求数量，而不是请求速率。方法执行前在 Redis 有序集合中租用一个槽位，
+ * 执行结束后释放；租约带有过期时间，节点崩溃后未释放的槽位会在过期后被自动回收
+ *
+ * @author Yuan Shenjian
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimiter {
+
+    /**
+     * 限流键，支持 SpEL 表达式
+     * @return 限流键
+     */
+    String key() default "";
+
+    /**
+     * 限流键前缀，与 keyParams 一起使用
+     * @return 键前缀
+     */
+    String keyPrefix() default "";
+
+    /**
+     * 组成限流键的参数名或参数下标（如 "userId" 或 "0"），多个参数以 ":" 连接。
+     * 参数在解析限流计划时被解析为下标，生成键时不做 SpEL 求值，不能与 key 同时使用
+     * @return 参数名或参数下标
+     */
+    String[] keyParams() default {};
+
+    /**
+     * 基于 HTTP 请求的键解析器 Bean 名称（如 ipKeyResolver、principalKeyResolver、headerKeyResolver），
+     * 解析结果以 ":" 追加到限流键之后
+     * @return 键解析器 Bean 名称
+     */
+    String keyResolver() default "";
+
+    /**
+     * 限流分组名称，对应 rate-limiter.redis.groups 下配置的独立 Redis 实例，为空时使用默认连接
+     * @return 限流分组名称
+     */
+    String group() default "";
+
+    /**
+     * 引用 rate-limiter.rules 下的命名规则，规则中配置的参数覆盖注解中的同名参数，修改配置后无需重启即可生效。
+     * 规则不存在时使用注解中的参数
+     * @return 规则名称
+     */
+    String rule() default "";
+
+    /**
+     * 同时执行中的最大请求数
+     * @return 最大并发数
+     */
+    long maxInFlight() default 10;
+
+    /**
+     * 租约时长（单位：秒），应大于方法的最长执行时间，节点崩溃时槽位最多在该时长后被回收
+     * @return 租约时长（秒）
+     */
+    long leaseSeconds() default 60;
+
+    /**
+     * 超过并发限制时返回的消息
+     * @return 错误消息
+     */
+    String message() default "请求过于频繁，请稍后再试";
+}
@@ -0,0 +1,24 @@
+package cn.springboot.starter.api_rate_limiter.core;
+
+/**
+ * 计数草图限流的存储方式
+ *
+ * @author Yuan Shenjian
+ */
+public enum CountMinSketchMode {
+
+    /**
+     * 实例本地的堆内 long[] 计数器
+     */
+    HEAP,
+
+    /**
+     * 实例本地的堆外（直接内存）计数器，不占用堆空间，也不参与 GC 扫描
+     */
+    OFF_HEAP,
+
+    /**
+     * Redis 端每个窗口一个字符串，通过 BITFIELD 读写 32 位计数器，所有实例共享
+     */
+    REDIS
+}
@@ -0,0 +1,100 @@
+package cn.springboot.starter.api_rate_limiter.core;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 计数草图限流注解
+ * 使用固定大小的按窗口轮换的 Count-Min Sketch 近似统计每个键的请求数，
+ * 内存占用只与 width × depth 有关，与键的数量无关，适用于按 IP 等超高基数键限流。
+ * 估算值只会偏大不会偏小，即可能误伤但不会漏放
+ *
+ * @author Yuan Shenjian
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CountMinSketchRateLimiter {
+
+    /**
+     * 限流键，支持 SpEL 表达式
+     * @return 限流键
+     */
+    String key() default "";
+
+    /**
+     * 限流键前缀，与 keyParams 一起使用
+     * @return 键前缀
+     */
+    String keyPrefix() default "";
+
+    /**
+     * 组成限流键的参数名或参数下标（如 "userId" 或 "0"），多个参数以 ":" 连接。
+     * 参数在解析限流计划时被解析为下标，生成键时不做 SpEL 求值，不能与 key 同时使用
+     * @return 参数名或参数下标
+     */
+    String[] keyParams() default {};
+
+    /**
+     * 基于 HTTP 请求的键解析器 Bean 名称（如 ipKeyResolver、principalKeyResolver、headerKeyResolver），
+     * 解析结果以 ":" 追加到限流键之后
+     * @return 键解析器 Bean 名称
+     */
+    String keyResolver() default "";
+
+    /**
+     * 限流分组名称，对应 rate-limiter.redis.groups 下配置的独立 Redis 实例，为空时使用默认连接（仅 REDIS 模式）
+     * @return 限流分组名称
+     */
+    String group() default "";
+
+    /**
+     * 引用 rate-limiter.rules 下的命名规则，规则中配置的参数覆盖注解中的同名参数，修改配置后无需重启即可生效。
+     * 规则不存在时使用注解中的参数
+     * @return 规则名称
+     */
+    String rule() default "";
+
+    /**
+     * 时间窗口内每个键允许的最大请求数
+     * @return 限制数量
+     */
+    long limit() default 10;
+
+    /**
+     * 时间窗口大小（单位：秒）
+     * @return 窗口大小（秒）
+     */
+    long windowSize() default 60;
+
+    /**
+     * 草图每行的计数器数量，越大冲突越少、估算越准
+     * @return 草图宽度
+     */
+    int width() default 2048;
+
+    /**
+     * 草图的行数（哈希函数个数），越大估算越稳定
+     * @return 草图深度
+     */
+    int depth() default 4;
+
+    /**
+     * 草图的存储方式
+     * @return 存储方式
+     */
+    CountMinSketchMode mode() default CountMinSketchMode.HEAP;
+
+    /**
+     * 每个请求所需的许可数量
+     * @return 许可数量
+     */
+    int permits() default 1;
+
+    /**
+     * 超过限流时返回的消息
+     * @return 错误消息
+     */
+    String message() default "请求过于频繁，请稍后再试";
+}
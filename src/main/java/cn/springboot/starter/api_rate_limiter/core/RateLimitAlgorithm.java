@@ -0,0 +1,62 @@
+package cn.springboot.starter.api_rate_limiter.core;
+
+import lombok.Getter;
+
+/**
+ * 限流算法枚举
+ * 列出了本 Starter 支持的所有限流算法
+ *
+ * @author Yuan Shenjian
+ */
+@Getter
+public enum RateLimitAlgorithm {
+
+    /**
+     * 固定窗口计数器
+     */
+    FIXED_WINDOW("固定窗口"),
+
+    /**
+     * 令牌桶
+     */
+    TOKEN_BUCKET("令牌桶"),
+
+    /**
+     * 漏桶
+     */
+    LEAKY_BUCKET("漏桶"),
+
+    /**
+     * 滑动窗口日志
+     */
+    SLIDING_WINDOW_LOG("滑动窗口日志"),
+
+    /**
+     * 滑动窗口计数器
+     */
+    SLIDING_WINDOW_COUNTER("滑动窗口计数器"),
+
+    /**
+     * 加权滑动窗口（当前与上一窗口计数加权估算）
+     */
+    WEIGHTED_SLIDING_WINDOW("加权滑动窗口"),
+
+    /**
+     * 计数草图（Count-Min Sketch）
+     */
+    COUNT_MIN_SKETCH("计数草图"),
+
+    /**
+     * 并发（同时执行中的请求数）
+     */
+    CONCURRENCY("并发");
+
+    /**
+     * 算法的显示名称，用于日志输出
+     */
+    private final String displayName;
+
+    RateLimitAlgorithm(String displayName) {
+        this.displayName = displayName;
+    }
+}
@@ -0,0 +1,409 @@
+package cn.springboot.starter.api_rate_limiter.core;
+
+import cn.springboot.starter.api_rate_limiter.core.sketch.CountMinSketch;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 限流规格
+ * 描述一次限流检查所使用的算法及其参数，与注解上的属性一一对应，
+ * 供编程式 API 与注解切面共同使用，创建时会校验参数的合法性
+ *
+ * @author Yuan Shenjian
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class RateLimitSpec {
+
+    /**
+     * 默认限流分组
+     */
+    public static final String DEFAULT_GROUP = "";
+
+    /**
+     * 限流算法
+     */
+    private final RateLimitAlgorithm algorithm;
+
+    /**
+     * 窗口内允许的最大请求数，或桶容量
+     */
+    private final long limit;
+
+    /**
+     * 窗口大小（秒），或令牌桶的填充间隔（秒）
+     */
+    private final long windowSize;
+
+    /**
+     * 令牌桶的填充数量，或漏桶的泄漏速率
+     */
+    private final long rate;
+
+    /**
+     * 滑动窗口计数器的子窗口数量
+     */
+    private final int subWindows;
+
+    /**
+     * 计数草图的宽度
+     */
+    private final int sketchWidth;
+
+    /**
+     * 计数草图的深度
+     */
+    private final int sketchDepth;
+
+    /**
+     * 计数草图的存储方式
+     */
+    private final CountMinSketchMode sketchMode;
+
+    /**
+     * 限流分组，对应 rate-limiter.redis.groups 下配置的 Redis 实例，空字符串表示默认分组
+     */
+    private final String group;
+
+    /**
+     * 是否采用本地计数、定期同步的最终一致模式（仅固定窗口）
+     */
+    private final boolean localSync;
+
+    /**
+     * 许可不足时的最长等待时间（毫秒），0 表示立即拒绝（仅令牌桶和漏桶）
+     */
+    private final long maxWaitMillis;
+
+    /**
+     * 令牌桶的预热时长（秒），0 表示不预热
+     */
+    private final long warmupSeconds;
+
+    /**
+     * 是否按键错开窗口边界（仅固定窗口、滑动窗口计数器和加权滑动窗口）
+     */
+    private final boolean staggered;
+
+    /**
+     * 采样限流每次访问 Redis 最多预取的许可数，0 表示每个请求都访问 Redis
+     */
+    private final int sampleSize;
+
+    private RateLimitSpec(RateLimitAlgorithm algorithm, long limit, long windowSize, long rate, int subWindows) {
+        this(algorithm, limit, windowSize, rate, subWindows, 0, 0, null, DEFAULT_GROUP, false, 0, 0, false, 0);
+    }
+
+    private RateLimitSpec(RateLimitAlgorithm algorithm, long limit, long windowSize, long rate, int subWindows,
+                          int sketchWidth, int sketchDepth, CountMinSketchMode sketchMode, String group, boolean localSync,
+                          long maxWaitMillis, long warmupSeconds, boolean staggered, int sampleSize) {
+        Assert.isTrue(limit > 0, () -> algorithm.getDisplayName() + "限流参数不合法: 限制数量或桶容量必须大于 0");
+        this.algorithm = algorithm;
+        this.limit = limit;
+        this.windowSize = windowSize;
+        this.rate = rate;
+        this.subWindows = subWindows;
+        this.sketchWidth = sketchWidth;
+        this.sketchDepth = sketchDepth;
+        this.sketchMode = sketchMode;
+        this.group = group;
+        this.localSync = localSync;
+        this.maxWaitMillis = maxWaitMillis;
+        this.warmupSeconds = warmupSeconds;
+        this.staggered = staggered;
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * 创建固定窗口限流规格
+     *
+     * @param limit 窗口内允许的最大请求数
+     * @param windowSize 窗口大小（秒）
+     * @return 限流规格
+     */
+    public static RateLimitSpec fixedWindow(long limit, long windowSize) {
+        Assert.isTrue(windowSize > 0, "固定窗口限流参数不合法: windowSize 必须大于 0");
+        return new RateLimitSpec(RateLimitAlgorithm.FIXED_WINDOW, limit, windowSize, 0, 0);
+    }
+
+    /**
+     * 创建令牌桶限流规格
+     *
+     * @param capacity 桶容量
+     * @param refillRate 每个填充间隔内填充的令牌数
+     * @param refillIntervalSeconds 填充间隔（秒）
+     * @return 限流规格
+     */
+    public static RateLimitSpec tokenBucket(long capacity, long refillRate, long refillIntervalSeconds) {
+        Assert.isTrue(refillRate > 0, "令牌桶限流参数不合法: refillRate 必须大于 0");
+        Assert.isTrue(refillIntervalSeconds > 0, "令牌桶限流参数不合法: refillIntervalSeconds 必须大于 0");
+        return new RateLimitSpec(RateLimitAlgorithm.TOKEN_BUCKET, capacity, refillIntervalSeconds, refillRate, 0);
+    }
+
+    /**
+     * 创建漏桶限流规格
+     *
+     * @param capacity 桶容量
+     * @param leakRate 泄漏速率（每秒处理请求数）
+     * @return 限流规格
+     */
+    public static RateLimitSpec leakyBucket(long capacity, long leakRate) {
+        Assert.isTrue(leakRate > 0, "漏桶限流参数不合法: leakRate 必须大于 0");
+        return new RateLimitSpec(RateLimitAlgorithm.LEAKY_BUCKET, capacity, 0, leakRate, 0);
+    }
+
+    /**
+     * 创建滑动窗口日志限流规格
+     *
+     * @param limit 窗口内允许的最大请求数
+     * @param windowSize 窗口大小（秒）
+     * @return 限流规格
+     */
+    public static RateLimitSpec slidingWindowLog(long limit, long windowSize) {
+        Assert.isTrue(windowSize > 0, "滑动窗口日志限流参数不合法: windowSize 必须大于 0");
+        return new RateLimitSpec(RateLimitAlgorithm.SLIDING_WINDOW_LOG, limit, windowSize, 0, 0);
+    }
+
+    /**
+     * 创建滑动窗口计数器限流规格
+     *
+     * @param limit 窗口内允许的最大请求数
+     * @param windowSize 窗口大小（秒）
+     * @param subWindows 子窗口数量
+     * @return 限流规格
+     */
+    public static RateLimitSpec slidingWindowCounter(long limit, long windowSize, int subWindows) {
+        Assert.isTrue(windowSize > 0, "滑动窗口计数器限流参数不合法: windowSize 必须大于 0");
+        Assert.isTrue(subWindows > 0, "滑动窗口计数器限流参数不合法: subWindows 必须大于 0");
+        return new RateLimitSpec(RateLimitAlgorithm.SLIDING_WINDOW_COUNTER, limit, windowSize, 0, subWindows);
+    }
+
+    /**
+     * 创建加权滑动窗口限流规格
+     *
+     * @param limit 窗口内允许的最大请求数
+     * @param windowSize 窗口大小（秒）
+     * @return 限流规格
+     */
+    public static RateLimitSpec weightedSlidingWindow(long limit, long windowSize) {
+        Assert.isTrue(windowSize > 0, "加权滑动窗口限流参数不合法: windowSize 必须大于 0");
+        return new RateLimitSpec(RateLimitAlgorithm.WEIGHTED_SLIDING_WINDOW, limit, windowSize, 0, 0);
+    }
+
+    /**
+     * 创建计数草图限流规格
+     *
+     * @param limit 窗口内每个键允许的最大请求数
+     * @param windowSize 窗口大小（秒）
+     * @param width 草图宽度
+     * @param depth 草图深度
+     * @param mode 草图存储方式
+     * @return 限流规格
+     */
+    public static RateLimitSpec countMinSketch(long limit, long windowSize, int width, int depth, CountMinSketchMode mode) {
+        Assert.isTrue(windowSize > 0, "计数草图限流参数不合法: windowSize 必须大于 0");
+        Assert.isTrue(width > 0, "计数草图限流参数不合法: width 必须大于 0");
+        Assert.isTrue(depth > 0 && depth <= 16, "计数草图限流参数不合法: depth 必须在 1 到 16 之间");
+        Assert.notNull(mode, "计数草图限流参数不合法: mode 不能为空");
+        return new RateLimitSpec(RateLimitAlgorithm.COUNT_MIN_SKETCH, limit, windowSize, 0, 0,
+                width, depth, mode, DEFAULT_GROUP, false, 0, 0, false, 0);
+    }
+
+    /**
+     * 创建并发限流规格
+     *
+     * @param maxInFlight 同时执行中的最大请求数
+     * @param leaseSeconds 租约时长（秒）
+     * @return 限流规格
+     */
+    public static RateLimitSpec concurrency(long maxInFlight, long leaseSeconds) {
+        Assert.isTrue(leaseSeconds > 0, "并发限流参数不合法: leaseSeconds 必须大于 0");
+        return new RateLimitSpec(RateLimitAlgorithm.CONCURRENCY, maxInFlight, leaseSeconds, 0, 0);
+    }
+
+    /**
+     * 返回路由到指定限流分组的规格副本
+     *
+     * @param group 限流分组名称，空字符串表示默认分组
+     * @return 限流规格
+     */
+    public RateLimitSpec inGroup(String group) {
+        Assert.notNull(group, "限流分组不能为 null");
+        if (group.equals(this.group)) {
+            return this;
+        }
+        return new RateLimitSpec(algorithm, limit, windowSize, rate, subWindows, sketchWidth, sketchDepth, sketchMode, group, localSync, maxWaitMillis, warmupSeconds, staggered, sampleSize);
+    }
+
+    /**
+     * 返回限制数量（或桶容量、最大并发数）替换为指定值的规格副本，其他参数保持不变
+     *
+     * @param limit 新的限制数量
+     * @return 限流规格
+     */
+    public RateLimitSpec withLimit(long limit) {
+        if (limit == this.limit) {
+            return this;
+        }
+        return new RateLimitSpec(algorithm, limit, windowSize, rate, subWindows, sketchWidth, sketchDepth, sketchMode, group, localSync, maxWaitMillis, warmupSeconds, staggered, sampleSize);
+    }
+
+    /**
+     * 返回采用本地计数、定期同步模式的规格副本。
+     * 请求路径上不再访问 Redis，判断依据最近一次同步的全局计数，精度换取吞吐
+     *
+     * @return 限流规格
+     */
+    public RateLimitSpec withLocalSync() {
+        Assert.isTrue(algorithm == RateLimitAlgorithm.FIXED_WINDOW, "本地计数同步模式仅支持固定窗口算法");
+        Assert.isTrue(sampleSize == 0, "本地计数同步模式不支持采样限流");
+        return localSync ? this : new RateLimitSpec(algorithm, limit, windowSize, rate, subWindows, sketchWidth, sketchDepth, sketchMode, group, true, maxWaitMillis, warmupSeconds, staggered, sampleSize);
+    }
+
+    /**
+     * 返回许可不足时排队等待的规格副本。
+     * 脚本会预约未来的许可并返回需要等待的时间，调用线程休眠到预约时刻后放行，从而把突发流量整形为平滑流量；
+     * 等待时间超过上限时才拒绝
+     *
+     * @param maxWaitMillis 最长等待时间（毫秒），0 表示立即拒绝
+     * @return 限流规格
+     */
+    public RateLimitSpec withMaxWait(long maxWaitMillis) {
+        Assert.isTrue(maxWaitMillis >= 0, "最长等待时间不能为负数");
+        Assert.isTrue(maxWaitMillis == 0 || algorithm == RateLimitAlgorithm.TOKEN_BUCKET || algorithm == RateLimitAlgorithm.LEAKY_BUCKET,
+                "等待许可模式仅支持令牌桶和漏桶算法");
+        Assert.isTrue(maxWaitMillis == 0 || warmupSeconds == 0, "预热模式不支持等待许可");
+        Assert.isTrue(maxWaitMillis == 0 || sampleSize == 0, "等待许可模式不支持采样限流");
+        if (maxWaitMillis == this.maxWaitMillis) {
+            return this;
+        }
+        return new RateLimitSpec(algorithm, limit, windowSize, rate, subWindows, sketchWidth, sketchDepth, sketchMode, group, localSync, maxWaitMillis, warmupSeconds, staggered, sampleSize);
+    }
+
+    /**
+     * 返回带预热（慢启动）的令牌桶规格副本。
+     * 冷启动时桶容量和填充速率只有配置值的 1/3，在预热时长内线性提升到配置值，闲置超过预热时长后重新预热，
+     * 避免部署或缓存清空后下游在冷状态下立即承受全部流量
+     *
+     * @param warmupSeconds 预热时长（秒），0 表示不预热
+     * @return 限流规格
+     */
+    public RateLimitSpec withWarmup(long warmupSeconds) {
+        Assert.isTrue(warmupSeconds >= 0, "预热时长不能为负数");
+        Assert.isTrue(warmupSeconds == 0 || algorithm == RateLimitAlgorithm.TOKEN_BUCKET, "预热模式仅支持令牌桶算法");
+        Assert.isTrue(warmupSeconds == 0 || maxWaitMillis == 0, "预热模式不支持等待许可");
+        if (warmupSeconds == this.warmupSeconds) {
+            return this;
+        }
+        return new RateLimitSpec(algorithm, limit, windowSize, rate, subWindows, sketchWidth, sketchDepth, sketchMode, group, localSync,
+                maxWaitMillis, warmupSeconds, staggered, sampleSize);
+    }
+
+    /**
+     * 返回按键错开窗口边界的规格副本。
+     * 窗口在对齐边界的基础上偏移一个由键的哈希得到的固定相位，不同键的窗口在不同时刻重置与过期，
+     * 避免所有键在同一秒重置带来的请求尖峰和 Redis 写入尖峰；同一个键的相位固定不变
+     *
+     * @return 限流规格
+     */
+    public RateLimitSpec withStaggeredWindow() {
+        Assert.isTrue(algorithm == RateLimitAlgorithm.FIXED_WINDOW || algorithm == RateLimitAlgorithm.SLIDING_WINDOW_COUNTER
+                || algorithm == RateLimitAlgorithm.WEIGHTED_SLIDING_WINDOW, "错开窗口边界仅支持固定窗口、滑动窗口计数器和加权滑动窗口算法");
+        return staggered ? this : new RateLimitSpec(algorithm, limit, windowSize, rate, subWindows, sketchWidth, sketchDepth, sketchMode, group, localSync,
+                maxWaitMillis, warmupSeconds, true, sampleSize);
+    }
+
+    /**
+     * 返回采样限流的规格副本。
+     * 只有部分请求访问 Redis，每次按自适应的批量预取许可供之后的请求在本地消耗，被拒绝后随后的若干请求沿用拒绝判断；
+     * 远离限制时批量逐步增大到采样上限，接近限制时减小到逐个检查，以有界的误差换取热点全局键上成倍减少的 Redis 访问
+     *
+     * @param sampleSize 每次访问 Redis 最多预取的许可数，0 表示不采样
+     * @return 限流规格
+     */
+    public RateLimitSpec withSampling(int sampleSize) {
+        Assert.isTrue(sampleSize >= 0, "采样上限不能为负数");
+        Assert.isTrue(sampleSize == 0 || algorithm == RateLimitAlgorithm.FIXED_WINDOW || algorithm == RateLimitAlgorithm.TOKEN_BUCKET
+                        || algorithm == RateLimitAlgorithm.LEAKY_BUCKET || algorithm == RateLimitAlgorithm.SLIDING_WINDOW_COUNTER
+                        || algorithm == RateLimitAlgorithm.WEIGHTED_SLIDING_WINDOW,
+                "采样限流仅支持固定窗口、令牌桶、漏桶、滑动窗口计数器和加权滑动窗口算法");
+        Assert.isTrue(sampleSize == 0 || (!localSync && maxWaitMillis == 0), "本地计数同步模式和等待许可模式不支持采样限流");
+        if (sampleSize == this.sampleSize) {
+            return this;
+        }
+        return new RateLimitSpec(algorithm, limit, windowSize, rate, subWindows, sketchWidth, sketchDepth, sketchMode, group, localSync,
+                maxWaitMillis, warmupSeconds, staggered, sampleSize);
+    }
+
+    /**
+     * 计算键的窗口相位（秒），即窗口起点相对对齐边界的偏移，未错开窗口边界时为 0。
+     * 相位由键的稳定哈希在本地计算后作为脚本参数传入，Redis 不必在每次调用时重新计算哈希
+     *
+     * @param key 限流键
+     * @return 窗口相位，取值范围 [0, windowSize)
+     */
+    public long windowPhase(String key) {
+        return staggered ? Math.floorMod(CountMinSketch.hash(key), windowSize) : 0;
+    }
+
+    /**
+     * 按预热脚本的 ARGV 顺序生成脚本参数，即令牌桶脚本参数之后追加预热时长
+     *
+     * @param key 限流键
+     * @param permits 需要获取的许可数
+     * @return 脚本参数
+     */
+    public List<String> warmupScriptArgs(String key, int permits) {
+        List<String> args = new ArrayList<>(scriptArgs(key, permits));
+        args.add(String.valueOf(warmupSeconds));
+        return args;
+    }
+
+    /**
+     * 按对应算法预约脚本的 ARGV 顺序生成脚本参数，即限流脚本参数之后追加最长等待时间
+     *
+     * @param key 限流键
+     * @param permits 需要获取的许可数
+     * @return 脚本参数
+     */
+    public List<String> reserveScriptArgs(String key, int permits) {
+        List<String> args = new ArrayList<>(scriptArgs(key, permits));
+        args.add(String.valueOf(maxWaitMillis));
+        return args;
+    }
+
+    /**
+     * 按对应算法脚本的 ARGV 顺序生成脚本参数
+     *
+     * @param key 限流键
+     * @param permits 需要获取的许可数
+     * @return 脚本参数
+     */
+    public List<String> scriptArgs(String key, int permits) {
+        return switch (algorithm) {
+            case SLIDING_WINDOW_LOG -> List.of(
+                    String.valueOf(limit), String.valueOf(windowSize), String.valueOf(permits));
+            case FIXED_WINDOW, WEIGHTED_SLIDING_WINDOW -> List.of(
+                    String.valueOf(limit), String.valueOf(windowSize), String.valueOf(permits), String.valueOf(windowPhase(key)));
+            case SLIDING_WINDOW_COUNTER -> List.of(
+                    String.valueOf(limit), String.valueOf(windowSize), String.valueOf(subWindows), String.valueOf(permits),
+                    String.valueOf(windowPhase(key)));
+            case TOKEN_BUCKET -> List.of(
+                    String.valueOf(limit), String.valueOf(rate), String.valueOf(windowSize), String.valueOf(permits));
+            case LEAKY_BUCKET -> List.of(
+                    String.valueOf(limit), String.valueOf(rate), String.valueOf(permits));
+            // 计数器下标由调用方根据键的哈希追加在这些参数之后
+            case COUNT_MIN_SKETCH -> List.of(
+                    String.valueOf(limit), String.valueOf(windowSize), String.valueOf(permits));
+            // 租约标识与操作类型由调用方追加
+            case CONCURRENCY -> List.of(
+                    String.valueOf(limit), String.valueOf(windowSize));
+        };
+    }
+}
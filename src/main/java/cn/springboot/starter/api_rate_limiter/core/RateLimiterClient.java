@@ -0,0 +1,754 @@
+package cn.springboot.starter.api_rate_limiter.core;
+
+import cn.springboot.starter.api_rate_limiter.config.RateLimiterProperties;
+import cn.springboot.starter.api_rate_limiter.core.sampling.SampledPermits;
+import cn.springboot.starter.api_rate_limiter.core.sketch.CountMinSketch;
+import cn.springboot.starter.api_rate_limiter.core.sketch.WindowedCountMinSketch;
+import cn.springboot.starter.api_rate_limiter.core.snapshot.LocalStateSnapshot;
+import cn.springboot.starter.api_rate_limiter.core.storage.RedisRateLimitStorage;
+import cn.springboot.starter.api_rate_limiter.core.storage.script.FixedWindowCounterScriptFactory;
+import cn.springboot.starter.api_rate_limiter.core.storage.script.LeakyBucketScriptFactory;
+import cn.springboot.starter.api_rate_limiter.core.storage.script.RateLimitFunctionLibrary;
+import cn.springboot.starter.api_rate_limiter.core.storage.script.RateLimitScriptFactory;
+import cn.springboot.starter.api_rate_limiter.core.storage.script.TokenBucketScriptFactory;
+import cn.springboot.starter.api_rate_limiter.core.sync.SyncedWindowCounters;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 编程式限流客户端
+ * 为无法使用注解的代码路径（循环、批量消息消费、逐条判断等）提供限流能力，
+ * 与注解切面共用同一套脚本与存储实现
+ *
+ * @author Yuan Shenjian
+ */
+@Slf4j
+public class RateLimiterClient {
+
+    /**
+     * 默认的异步检查在途请求数上限
+     */
+    public static final int DEFAULT_ASYNC_MAX_IN_FLIGHT = 1024;
+
+    /**
+     * 本地计数同步脚本在函数库中的函数标识
+     */
+    private static final String SYNC_FUNCTION_ID = "fixed_window_sync";
+
+    /**
+     * Redis 端计数草图的键前缀
+     */
+    private static final String SKETCH_KEY_PREFIX = "rate_limiter:cms:";
+
+    /**
+     * 令牌桶预约脚本的函数标识
+     */
+    private static final String TOKEN_BUCKET_RESERVE_ID = "token_bucket_reserve";
+
+    /**
+     * 漏桶预约脚本的函数标识
+     */
+    private static final String LEAKY_BUCKET_RESERVE_ID = "leaky_bucket_reserve";
+
+    /**
+     * 令牌桶预热脚本的函数标识
+     */
+    private static final String TOKEN_BUCKET_WARMUP_ID = "token_bucket_warmup";
+
+    private final Map<RateLimitAlgorithm, RedisRateLimitStorage> storages = new EnumMap<>(RateLimitAlgorithm.class);
+    private final Map<String, Map<RateLimitAlgorithm, RedisRateLimitStorage>> groupStorages = new HashMap<>();
+    private final Map<String, Map<String, RedisRateLimitStorage>> variantStorages = new HashMap<>();
+    private final Map<String, SyncedWindowCounters> syncedCounters = new HashMap<>();
+    private final Map<RateLimitSpec, WindowedCountMinSketch> localSketches = new ConcurrentHashMap<>();
+    private final SampledPermits sampledPermits = new SampledPermits();
+
+    @Getter
+    private final Executor asyncExecutor;
+    private final int asyncMaxInFlight;
+    private final Semaphore asyncInFlight;
+    private volatile ScheduledExecutorService leaseHeartbeat;
+
+    /**
+     * 构造函数
+     *
+     * @param redisTemplate 默认分组使用的 Redis 模板（可以为 null）
+     * @param groupTemplates 命名限流分组使用的 Redis 模板
+     * @param scriptFactories 各限流算法对应的脚本工厂
+     * @param asyncExecutor 异步检查使用的执行器
+     * @param scriptMode 脚本执行模式
+     * @param asyncMaxInFlight 异步检查的在途请求数上限
+     */
+    public RateLimiterClient(StringRedisTemplate redisTemplate,
+                             Map<String, StringRedisTemplate> groupTemplates,
+                             Map<RateLimitAlgorithm, ? extends RateLimitScriptFactory> scriptFactories,
+                             Executor asyncExecutor,
+                             RateLimiterProperties.ScriptMode scriptMode,
+                             int asyncMaxInFlight) {
+        Assert.isTrue(asyncMaxInFlight > 0, "异步检查的在途请求数上限必须大于 0");
+        this.asyncExecutor = asyncExecutor;
+        this.asyncMaxInFlight = asyncMaxInFlight;
+        this.asyncInFlight = new Semaphore(asyncMaxInFlight);
+
+        Map<RateLimitAlgorithm, RedisScript<Long>> scripts = new EnumMap<>(RateLimitAlgorithm.class);
+        scriptFactories.forEach((algorithm, factory) -> scripts.put(algorithm, factory.createRateLimitScript()));
+
+        RedisScript<Long> syncScript = scriptFactories.get(RateLimitAlgorithm.FIXED_WINDOW) instanceof FixedWindowCounterScriptFactory factory
+                ? factory.createSyncScript() : new FixedWindowCounterScriptFactory().createSyncScript();
+
+        // 同一算法的变体脚本（等待许可、预热），以函数标识区分
+        TokenBucketScriptFactory tokenBucketFactory = scriptFactories.get(RateLimitAlgorithm.TOKEN_BUCKET) instanceof TokenBucketScriptFactory factory
+                ? factory : new TokenBucketScriptFactory();
+        LeakyBucketScriptFactory leakyBucketFactory = scriptFactories.get(RateLimitAlgorithm.LEAKY_BUCKET) instanceof LeakyBucketScriptFactory factory
+                ? factory : new LeakyBucketScriptFactory();
+        Map<String, RedisScript<Long>> variantScripts = new LinkedHashMap<>();
+        variantScripts.put(TOKEN_BUCKET_RESERVE_ID, tokenBucketFactory.createReserveScript());
+        variantScripts.put(LEAKY_BUCKET_RESERVE_ID, leakyBucketFactory.createReserveScript());
+        variantScripts.put(TOKEN_BUCKET_WARMUP_ID, tokenBucketFactory.createWarmupScript());
+
+        RateLimitFunctionLibrary functionLibrary = null;
+        if (scriptMode == RateLimiterProperties.ScriptMode.FUNCTION) {
+            Map<String, String> functionScripts = new LinkedHashMap<>();
+            scripts.forEach((algorithm, script) -> functionScripts.put(functionId(algorithm), script.getScriptAsString()));
+            functionScripts.put(SYNC_FUNCTION_ID, syncScript.getScriptAsString());
+            variantScripts.forEach((id, script) -> functionScripts.put(id, script.getScriptAsString()));
+            functionLibrary = new RateLimitFunctionLibrary(functionScripts);
+        }
+
+        if (redisTemplate != null) {
+            storages.putAll(createStorages(redisTemplate, scripts, functionLibrary));
+            variantStorages.put(RateLimitSpec.DEFAULT_GROUP, createVariantStorages(redisTemplate, variantScripts, functionLibrary));
+            syncedCounters.put(RateLimitSpec.DEFAULT_GROUP, createSyncedCounters(redisTemplate, syncScript, functionLibrary));
+        }
+        for (Map.Entry<String, StringRedisTemplate> entry : groupTemplates.entrySet()) {
+            groupStorages.put(entry.getKey(), createStorages(entry.getValue(), scripts, functionLibrary));
+            variantStorages.put(entry.getKey(), createVariantStorages(entry.getValue(), variantScripts, functionLibrary));
+            syncedCounters.put(entry.getKey(), createSyncedCounters(entry.getValue(), syncScript, functionLibrary));
+        }
+    }
+
+    /**
+     * 尝试为限流键获取一个许可
+     *
+     * @param spec 限流规格
+     * @param key 限流键
+     * @return 如果请求被允许则返回 true，否则返回 false
+     */
+    public boolean tryAcquire(RateLimitSpec spec, String key) {
+        return tryAcquire(spec, key, 1);
+    }
+
+    /**
+     * 尝试为限流键获取指定数量的许可
+     *
+     * @param spec 限流规格
+     * @param key 限流键
+     * @param permits 许可数量
+     * @return 如果请求被允许则返回 true，否则返回 false
+     */
+    public boolean tryAcquire(RateLimitSpec spec, String key, int permits) {
+        Assert.isTrue(spec.getAlgorithm() != RateLimitAlgorithm.CONCURRENCY, "并发限流需要释放槽位，请使用 tryAcquireLease");
+        if (spec.getAlgorithm() == RateLimitAlgorithm.COUNT_MIN_SKETCH) {
+            return tryAcquireSketch(spec, key, permits);
+        }
+        if (spec.isLocalSync()) {
+            SyncedWindowCounters counters = syncedCounters.get(spec.getGroup());
+            if (counters != null) {
+                return counters.tryAcquire(spec, key, permits);
+            }
+        }
+        if (spec.getMaxWaitMillis() > 0) {
+            return acquireWithin(spec, key, permits);
+        }
+        if (spec.getSampleSize() > 0) {
+            return tryAcquireSampled(spec, key, permits);
+        }
+        return acquireFromRedis(spec, key, permits);
+    }
+
+    /**
+     * 执行限流脚本获取许可
+     *
+     * @param spec 限流规格
+     * @param key 限流键
+     * @param permits 许可数量
+     * @return 如果请求被允许则返回 true，否则返回 false
+     */
+    private boolean acquireFromRedis(RateLimitSpec spec, String key, int permits) {
+        if (spec.getWarmupSeconds() > 0) {
+            RedisRateLimitStorage storage = getVariantStorage(spec, key, TOKEN_BUCKET_WARMUP_ID);
+            return storage != null && storage.isAllowed(key, spec.warmupScriptArgs(key, permits));
+        }
+        RedisRateLimitStorage storage = getStorage(spec, key);
+        if (storage == null) {
+            return false;
+        }
+        return storage.isAllowed(key, spec.scriptArgs(key, permits));
+    }
+
+    /**
+     * 采样限流：优先使用本地预取的许可或沿用最近一次拒绝判断，需要访问 Redis 时按自适应的批量申请许可。
+     * 批量申请被拒绝时按请求的许可数重新检查一次，因此批量本身不会导致误拒
+     *
+     * @param spec 开启采样的限流规格
+     * @param key 限流键
+     * @param permits 许可数量
+     * @return 如果请求被允许则返回 true，否则返回 false
+     */
+    private boolean tryAcquireSampled(RateLimitSpec spec, String key, int permits) {
+        Boolean local = sampledPermits.tryLocal(spec, key, permits);
+        if (local != null) {
+            return local;
+        }
+        int batch = sampledPermits.batchSize(spec, key, permits);
+        boolean allowed = acquireFromRedis(spec, key, batch);
+        sampledPermits.record(spec, key, permits, batch, allowed);
+        if (!allowed && batch > permits) {
+            allowed = acquireFromRedis(spec, key, permits);
+            sampledPermits.record(spec, key, permits, permits, allowed);
+        }
+        return allowed;
+    }
+
+    /**
+     * 异步尝试为限流键获取指定数量的许可。
+     * 访问 Redis 的检查通过 Lettuce 异步命令发送，不阻塞调用线程；等待许可模式下的等待通过延迟执行器完成，不占用线程。
+     * 在途的异步检查数超过上限时直接拒绝，避免 Redis 变慢时积压无限多的请求
+     *
+     * @param spec 限流规格
+     * @param key 限流键
+     * @param permits 许可数量
+     * @return 检查结果的 Future
+     */
+    public CompletableFuture<Boolean> tryAcquireAsync(RateLimitSpec spec, String key, int permits) {
+        Assert.isTrue(spec.getAlgorithm() != RateLimitAlgorithm.CONCURRENCY, "并发限流需要释放槽位，请使用 tryAcquireLease");
+        if (spec.getAlgorithm() == RateLimitAlgorithm.COUNT_MIN_SKETCH) {
+            if (spec.getSketchMode() != CountMinSketchMode.REDIS) {
+                return CompletableFuture.completedFuture(localSketch(spec).tryAcquire(key, permits));
+            }
+            String sketchKey = sketchKey(spec);
+            return executeAsync(getStorage(spec, sketchKey), sketchKey, sketchArgs(spec, key, permits))
+                    .thenApply(result -> result != null && result == 1L);
+        }
+        if (spec.isLocalSync()) {
+            SyncedWindowCounters counters = syncedCounters.get(spec.getGroup());
+            if (counters != null) {
+                return CompletableFuture.completedFuture(counters.tryAcquire(spec, key, permits));
+            }
+        }
+        if (spec.getMaxWaitMillis() > 0) {
+            return executeAsync(getVariantStorage(spec, key, reserveId(spec)), key, spec.reserveScriptArgs(key, permits)).thenCompose(waitMillis -> {
+                if (waitMillis == null || waitMillis < 0) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                if (waitMillis == 0) {
+                    return CompletableFuture.completedFuture(true);
+                }
+                return CompletableFuture.supplyAsync(() -> true,
+                        CompletableFuture.delayedExecutor(waitMillis, TimeUnit.MILLISECONDS, asyncExecutor));
+            });
+        }
+        if (spec.getSampleSize() > 0) {
+            return tryAcquireSampledAsync(spec, key, permits);
+        }
+        return acquireFromRedisAsync(spec, key, permits);
+    }
+
+    /**
+     * 异步执行限流脚本获取许可
+     *
+     * @param spec 限流规格
+     * @param key 限流键
+     * @param permits 许可数量
+     * @return 检查结果的 Future
+     */
+    private CompletableFuture<Boolean> acquireFromRedisAsync(RateLimitSpec spec, String key, int permits) {
+        if (spec.getWarmupSeconds() > 0) {
+            return executeAsync(getVariantStorage(spec, key, TOKEN_BUCKET_WARMUP_ID), key, spec.warmupScriptArgs(key, permits))
+                    .thenApply(result -> result != null && result == 1L);
+        }
+        return executeAsync(getStorage(spec, key), key, spec.scriptArgs(key, permits))
+                .thenApply(result -> result != null && result == 1L);
+    }
+
+    /**
+     * 异步的采样限流，本地能够判断时直接返回已完成的 Future
+     *
+     * @param spec 开启采样的限流规格
+     * @param key 限流键
+     * @param permits 许可数量
+     * @return 检查结果的 Future
+     */
+    private CompletableFuture<Boolean> tryAcquireSampledAsync(RateLimitSpec spec, String key, int permits) {
+        Boolean local = sampledPermits.tryLocal(spec, key, permits);
+        if (local != null) {
+            return CompletableFuture.completedFuture(local);
+        }
+        int batch = sampledPermits.batchSize(spec, key, permits);
+        return acquireFromRedisAsync(spec, key, batch).thenCompose(allowed -> {
+            sampledPermits.record(spec, key, permits, batch, allowed);
+            if (allowed || batch == permits) {
+                return CompletableFuture.completedFuture(allowed);
+            }
+            return acquireFromRedisAsync(spec, key, permits).thenApply(retried -> {
+                sampledPermits.record(spec, key, permits, permits, retried);
+                return retried;
+            });
+        });
+    }
+
+    /**
+     * 在在途请求数上限内异步执行脚本
+     *
+     * @param storage Redis 限流存储（Redis 不可用时为 null）
+     * @param key 限流键
+     * @param args 脚本参数
+     * @return 脚本返回值的 Future，存储不可用或在途请求数已满时结果为 null
+     */
+    private CompletableFuture<Long> executeAsync(RedisRateLimitStorage storage, String key, List<String> args) {
+        if (storage == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!asyncInFlight.tryAcquire()) {
+            log.warn("异步限流检查的在途请求数已达上限 {}，拒绝键值 {} 的请求", asyncMaxInFlight, key);
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Long> future;
+        try {
+            future = storage.executeAsync(key, args, asyncExecutor);
+        } catch (RuntimeException ex) {
+            asyncInFlight.release();
+            return CompletableFuture.failedFuture(ex);
+        }
+        return future.whenComplete((result, ex) -> asyncInFlight.release());
+    }
+
+    /**
+     * 在一次管道往返中为多个限流键各获取一个许可
+     *
+     * @param spec 限流规格
+     * @param keys 限流键列表
+     * @return 与键顺序一致的检查结果
+     */
+    public List<Boolean> tryAcquireAll(RateLimitSpec spec, List<String> keys) {
+        return tryAcquireAll(spec, keys, 1);
+    }
+
+    /**
+     * 在一次管道往返中为多个限流键各获取指定数量的许可
+     *
+     * @param spec 限流规格
+     * @param keys 限流键列表
+     * @param permits 每个键需要获取的许可数量
+     * @return 与键顺序一致的检查结果
+     */
+    public List<Boolean> tryAcquireAll(RateLimitSpec spec, List<String> keys, int permits) {
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Assert.isTrue(spec.getAlgorithm() != RateLimitAlgorithm.CONCURRENCY, "并发限流需要释放槽位，请使用 tryAcquireLease");
+        if (spec.isLocalSync() || spec.getAlgorithm() == RateLimitAlgorithm.COUNT_MIN_SKETCH || spec.getMaxWaitMillis() > 0
+                || spec.getWarmupSeconds() > 0 || spec.getSampleSize() > 0) {
+            List<Boolean> results = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                results.add(tryAcquire(spec, key, permits));
+            }
+            return results;
+        }
+        RedisRateLimitStorage storage = getStorage(spec, keys.get(0));
+        if (storage == null) {
+            return new ArrayList<>(Collections.nCopies(keys.size(), Boolean.FALSE));
+        }
+        List<List<String>> args = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            args.add(spec.scriptArgs(key, permits));
+        }
+        return storage.isAllowedAll(keys, args);
+    }
+
+    /**
+     * 在 Redis 中预约许可并返回需要等待的时间，不会阻塞调用线程。
+     * 预约成功后许可已经从桶中扣除，调用方应在等待时间到达后再执行业务逻辑
+     *
+     * @param spec 设置了最长等待时间的令牌桶或漏桶规格
+     * @param key 限流键
+     * @param permits 许可数量
+     * @return 需要等待的毫秒数，0 表示立即可用；等待时间超过上限或 Redis 不可用时返回 -1
+     */
+    public long reserve(RateLimitSpec spec, String key, int permits) {
+        Assert.isTrue(spec.getMaxWaitMillis() > 0, "reserve 仅支持设置了最长等待时间的令牌桶和漏桶规格");
+        RedisRateLimitStorage storage = getVariantStorage(spec, key, reserveId(spec));
+        if (storage == null) {
+            return -1;
+        }
+        Long waitMillis = storage.execute(key, spec.reserveScriptArgs(key, permits));
+        return waitMillis != null ? waitMillis : -1;
+    }
+
+    /**
+     * 预约许可并休眠到预约时刻，等待期间被中断时恢复中断标记并拒绝请求（已预约的许可不会归还）。
+     * 休眠不持有任何锁，在虚拟线程上执行时不会占用载体线程
+     *
+     * @param spec 设置了最长等待时间的令牌桶或漏桶规格
+     * @param key 限流键
+     * @param permits 许可数量
+     * @return 如果在最长等待时间内获得许可则返回 true，否则返回 false
+     */
+    private boolean acquireWithin(RateLimitSpec spec, String key, int permits) {
+        long waitMillis = reserve(spec, key, permits);
+        if (waitMillis < 0) {
+            return false;
+        }
+        if (waitMillis > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(waitMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将所有算法的脚本预加载到 Redis，使首次调用直接命中 EVALSHA（函数库模式下加载函数库）
+     */
+    public void preloadScripts() {
+        storages.values().forEach(RedisRateLimitStorage::loadScript);
+        groupStorages.values().forEach(group -> group.values().forEach(RedisRateLimitStorage::loadScript));
+        variantStorages.values().forEach(group -> group.values().forEach(RedisRateLimitStorage::loadScript));
+    }
+
+    /**
+     * 尝试在并发限流中租用一个槽位，使用完毕后必须关闭返回的租约
+     *
+     * @param spec 并发限流规格
+     * @param key 限流键
+     * @return 租约，并发已满或 Redis 不可用时返回 null
+     */
+    public ConcurrencyLease tryAcquireLease(RateLimitSpec spec, String key) {
+        Assert.isTrue(spec.getAlgorithm() == RateLimitAlgorithm.CONCURRENCY, "tryAcquireLease 仅支持并发限流规格");
+        RedisRateLimitStorage storage = getStorage(spec, key);
+        if (storage == null) {
+            return null;
+        }
+        String leaseId = UUID.randomUUID().toString();
+        if (!storage.isAllowed(key, leaseArgs(spec, leaseId, "acquire"))) {
+            return null;
+        }
+        return newLease(storage, spec, key, leaseId);
+    }
+
+    /**
+     * 异步租用并发限流槽位，使用完毕后必须关闭返回的租约。
+     * 在 Redis 驱动的 I/O 线程上应使用 {@link ConcurrencyLease#closeAsync()} 释放槽位
+     *
+     * @param spec 并发限流规格
+     * @param key 限流键
+     * @return 租约的 Future，并发已满或 Redis 不可用时结果为 null
+     */
+    public CompletableFuture<ConcurrencyLease> tryAcquireLeaseAsync(RateLimitSpec spec, String key) {
+        Assert.isTrue(spec.getAlgorithm() == RateLimitAlgorithm.CONCURRENCY, "tryAcquireLeaseAsync 仅支持并发限流规格");
+        RedisRateLimitStorage storage = getStorage(spec, key);
+        String leaseId = UUID.randomUUID().toString();
+        return executeAsync(storage, key, leaseArgs(spec, leaseId, "acquire")).thenApply(result -> result != null && result == 1L
+                ? newLease(storage, spec, key, leaseId)
+                : null);
+    }
+
+    /**
+     * 创建并发限流租约，并每隔三分之一租约时长续期一次，方法执行时间超过 leaseSeconds 时槽位也不会被回收。
+     * 续期与异步释放直接发送异步命令，不占用在途请求数的配额，避免槽位因配额已满而无法及时续期或释放
+     *
+     * @param storage 并发限流存储
+     * @param spec 并发限流规格
+     * @param key 限流键
+     * @param leaseId 租约标识
+     * @return 租约
+     */
+    private ConcurrencyLease newLease(RedisRateLimitStorage storage, RateLimitSpec spec, String key, String leaseId) {
+        List<String> releaseArgs = leaseArgs(spec, leaseId, "release");
+        List<String> renewArgs = leaseArgs(spec, leaseId, "renew");
+        ConcurrencyLease lease = new ConcurrencyLease(key, leaseId, () -> storage.isAllowed(key, releaseArgs),
+                () -> storage.executeAsync(key, releaseArgs, asyncExecutor));
+        long intervalMillis = spec.getWindowSize() * 1000 / 3;
+        lease.startHeartbeat(leaseHeartbeat().scheduleWithFixedDelay(() -> storage.executeAsync(key, renewArgs, asyncExecutor)
+                .whenComplete((renewed, ex) -> {
+                    if (ex != null) {
+                        log.warn("并发限流租约续期失败，将在下次心跳重试，键值: {}: {}", key, ex.getMessage());
+                    } else if (renewed == null || renewed != 1L) {
+                        log.warn("并发限流租约已过期或被回收，停止续期，键值: {}", key);
+                        lease.stopHeartbeat();
+                    }
+                }), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS));
+        return lease;
+    }
+
+    /**
+     * 获取租约续期使用的调度线程，首次获取并发租约时创建
+     *
+     * @return 调度线程
+     */
+    private ScheduledExecutorService leaseHeartbeat() {
+        ScheduledExecutorService scheduler = leaseHeartbeat;
+        if (scheduler == null) {
+            synchronized (this) {
+                scheduler = leaseHeartbeat;
+                if (scheduler == null) {
+                    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "rate-limiter-lease-heartbeat");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    leaseHeartbeat = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * 停止租约续期的调度线程，容器关闭时自动调用
+     */
+    public void close() {
+        ScheduledExecutorService scheduler = leaseHeartbeat;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 生成并发限流脚本参数
+     *
+     * @param spec 并发限流规格
+     * @param leaseId 租约标识
+     * @param operation 操作类型
+     * @return 脚本参数
+     */
+    private static List<String> leaseArgs(RateLimitSpec spec, String leaseId, String operation) {
+        List<String> args = new ArrayList<>(spec.scriptArgs(leaseId, 1));
+        args.add(leaseId);
+        args.add(operation);
+        return args;
+    }
+
+    /**
+     * 使用计数草图判断请求是否被允许。本地模式下每个规格共享一块固定大小的草图；
+     * Redis 模式下同一规格的所有键共用一个按窗口轮换的字符串，计数器下标在本地计算后作为参数传入
+     *
+     * @param spec 计数草图限流规格
+     * @param key 限流键
+     * @param permits 许可数量
+     * @return 如果请求被允许则返回 true，否则返回 false
+     */
+    private boolean tryAcquireSketch(RateLimitSpec spec, String key, int permits) {
+        if (spec.getSketchMode() != CountMinSketchMode.REDIS) {
+            return localSketch(spec).tryAcquire(key, permits);
+        }
+        String sketchKey = sketchKey(spec);
+        RedisRateLimitStorage storage = getStorage(spec, sketchKey);
+        if (storage == null) {
+            return false;
+        }
+        return storage.isAllowed(sketchKey, sketchArgs(spec, key, permits));
+    }
+
+    /**
+     * 获取 Redis 模式下计数草图的键，同一规格的所有限流键共用一个草图
+     *
+     * @param spec 计数草图限流规格
+     * @return 草图的 Redis 键
+     */
+    private static String sketchKey(RateLimitSpec spec) {
+        return SKETCH_KEY_PREFIX + "{" + spec.getLimit() + ":" + spec.getWindowSize() + ":"
+                + spec.getSketchWidth() + "x" + spec.getSketchDepth() + "}";
+    }
+
+    /**
+     * 生成计数草图脚本参数，限流键对应的计数器下标追加在规格参数之后
+     *
+     * @param spec 计数草图限流规格
+     * @param key 限流键
+     * @param permits 许可数量
+     * @return 脚本参数
+     */
+    private static List<String> sketchArgs(RateLimitSpec spec, String key, int permits) {
+        List<String> args = new ArrayList<>(spec.scriptArgs(key, permits));
+        for (int index : CountMinSketch.indexes(key, spec.getSketchWidth(), spec.getSketchDepth())) {
+            args.add(String.valueOf(index));
+        }
+        return args;
+    }
+
+    /**
+     * 获取规格对应的本地计数草图，本地草图与限流分组无关
+     *
+     * @param spec 计数草图限流规格
+     * @return 本地计数草图
+     */
+    private WindowedCountMinSketch localSketch(RateLimitSpec spec) {
+        return localSketches.computeIfAbsent(spec.inGroup(RateLimitSpec.DEFAULT_GROUP), WindowedCountMinSketch::new);
+    }
+
+    /**
+     * 将进程内的限流状态（本地计数草图）写入内存映射快照文件
+     *
+     * @param path 快照文件路径
+     * @return 写入的条目数
+     * @throws IOException 文件写入失败时抛出
+     */
+    public int writeSnapshot(Path path) throws IOException {
+        return LocalStateSnapshot.write(path, List.copyOf(localSketches.values()));
+    }
+
+    /**
+     * 从快照文件恢复进程内的限流状态，窗口已经结束的条目会被丢弃
+     *
+     * @param path 快照文件路径
+     * @return 恢复的条目数
+     * @throws IOException 文件读取失败时抛出
+     */
+    public int restoreSnapshot(Path path) throws IOException {
+        return LocalStateSnapshot.read(path, this::localSketch);
+    }
+
+    /**
+     * 将本地计数同步模式下各键的增量同步到 Redis，并刷新全局计数，由后台调度任务定期调用
+     */
+    public void flushLocalCounters() {
+        syncedCounters.values().forEach(SyncedWindowCounters::flush);
+    }
+
+    /**
+     * 获取限流规格对应的存储，Redis 不可用时返回 null
+     *
+     * @param spec 限流规格
+     * @param key 限流键
+     * @return Redis 限流存储
+     */
+    private RedisRateLimitStorage getStorage(RateLimitSpec spec, String key) {
+        Map<RateLimitAlgorithm, RedisRateLimitStorage> candidates = storages;
+        if (!RateLimitSpec.DEFAULT_GROUP.equals(spec.getGroup())) {
+            candidates = groupStorages.get(spec.getGroup());
+            if (candidates == null) {
+                throw new IllegalStateException("未配置的限流分组: " + spec.getGroup()
+                        + "，请在 rate-limiter.redis.groups 下配置对应的 Redis 连接");
+            }
+        }
+        RedisRateLimitStorage storage = candidates.get(spec.getAlgorithm());
+        if (storage == null) {
+            // 如果没有配置Redis，则记录警告并拒绝请求
+            log.warn("选择了Redis存储但Redis模板或脚本不可用。键值 {} 的限流将失败", key);
+        }
+        return storage;
+    }
+
+    /**
+     * 获取变体脚本（等待许可、预热）的存储，Redis 不可用时返回 null
+     *
+     * @param spec 限流规格
+     * @param key 限流键
+     * @param variantId 变体脚本的函数标识
+     * @return 变体脚本存储
+     */
+    private RedisRateLimitStorage getVariantStorage(RateLimitSpec spec, String key, String variantId) {
+        Map<String, RedisRateLimitStorage> candidates = variantStorages.get(spec.getGroup());
+        if (candidates == null) {
+            // 未配置的分组由 getStorage 抛出异常，默认分组没有 Redis 时记录告警
+            getStorage(spec, key);
+            return null;
+        }
+        return candidates.get(variantId);
+    }
+
+    /**
+     * 获取规格对应的预约脚本函数标识
+     *
+     * @param spec 设置了最长等待时间的令牌桶或漏桶规格
+     * @return 预约脚本的函数标识
+     */
+    private static String reserveId(RateLimitSpec spec) {
+        return spec.getAlgorithm() == RateLimitAlgorithm.TOKEN_BUCKET ? TOKEN_BUCKET_RESERVE_ID : LEAKY_BUCKET_RESERVE_ID;
+    }
+
+    /**
+     * 为一个 Redis 模板创建所有算法的存储
+     *
+     * @param redisTemplate Redis模板
+     * @param scripts 各算法的限流脚本
+     * @param functionLibrary 函数库，EVAL 模式下为 null
+     * @return 算法与存储的映射
+     */
+    private static Map<RateLimitAlgorithm, RedisRateLimitStorage> createStorages(StringRedisTemplate redisTemplate,
+                                                                                Map<RateLimitAlgorithm, RedisScript<Long>> scripts,
+                                                                                RateLimitFunctionLibrary functionLibrary) {
+        Map<RateLimitAlgorithm, RedisRateLimitStorage> result = new EnumMap<>(RateLimitAlgorithm.class);
+        for (Map.Entry<RateLimitAlgorithm, RedisScript<Long>> entry : scripts.entrySet()) {
+            String functionName = functionLibrary != null ? functionLibrary.getFunctionName(functionId(entry.getKey())) : null;
+            result.put(entry.getKey(), new RedisRateLimitStorage(redisTemplate, entry.getValue(), functionLibrary, functionName));
+        }
+        return result;
+    }
+
+    /**
+     * 为一个 Redis 模板创建所有变体脚本的存储
+     *
+     * @param redisTemplate Redis模板
+     * @param scripts 函数标识与变体脚本的映射
+     * @param functionLibrary 函数库，EVAL 模式下为 null
+     * @return 函数标识与存储的映射
+     */
+    private static Map<String, RedisRateLimitStorage> createVariantStorages(StringRedisTemplate redisTemplate,
+                                                                           Map<String, RedisScript<Long>> scripts,
+                                                                           RateLimitFunctionLibrary functionLibrary) {
+        Map<String, RedisRateLimitStorage> result = new HashMap<>();
+        scripts.forEach((id, script) -> result.put(id, new RedisRateLimitStorage(redisTemplate, script, functionLibrary,
+                functionLibrary != null ? functionLibrary.getFunctionName(id) : null)));
+        return result;
+    }
+
+    /**
+     * 为一个 Redis 模板创建本地计数同步器
+     *
+     * @param redisTemplate Redis模板
+     * @param syncScript 同步脚本
+     * @param functionLibrary 函数库，EVAL 模式下为 null
+     * @return 本地计数同步器
+     */
+    private static SyncedWindowCounters createSyncedCounters(StringRedisTemplate redisTemplate, RedisScript<Long> syncScript,
+                                                           RateLimitFunctionLibrary functionLibrary) {
+        String functionName = functionLibrary != null ? functionLibrary.getFunctionName(SYNC_FUNCTION_ID) : null;
+        return new SyncedWindowCounters(new RedisRateLimitStorage(redisTemplate, syncScript, functionLibrary, functionName));
+    }
+
+    /**
+     * 获取算法在函数库中的函数标识
+     *
+     * @param algorithm 限流算法
+     * @return 函数标识
+     */
+    private static String functionId(RateLimitAlgorithm algorithm) {
+        return algorithm.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,88 @@
+package cn.springboot.starter.api_rate_limiter.core;
+
+import cn.springboot.starter.api_rate_limiter.core.interceptor.RateLimitPlanResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 限流器启动预热
+ * 在 ApplicationReadyEvent 中同步执行（应用随后才会进入 ACCEPTING_TRAFFIC 就绪状态）：
+ * 发现所有带限流注解的方法，预编译限流计划（解析 SpEL 并校验注解参数，报告引用了不存在的命名规则的方法），
+ * 并将所有脚本 SCRIPT LOAD 到 Redis，避免新实例的首个请求承担 NOSCRIPT 回退和表达式解析的开销
+ *
+ * @author Yuan Shenjian
+ */
+@Slf4j
+public class RateLimiterWarmUp implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final RateLimitPlanResolver planResolver;
+    private final RateLimiterClient rateLimiterClient;
+
+    /**
+     * 构造函数
+     *
+     * @param planResolver 限流计划解析器
+     * @param rateLimiterClient 限流客户端
+     */
+    public RateLimiterWarmUp(RateLimitPlanResolver planResolver, RateLimiterClient rateLimiterClient) {
+        this.planResolver = planResolver;
+        this.rateLimiterClient = rateLimiterClient;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        long startTime = System.nanoTime();
+        int planCount = precompilePlans(event.getApplicationContext());
+
+        try {
+            rateLimiterClient.preloadScripts();
+        } catch (RuntimeException ex) {
+            // Redis 暂时不可用不应阻止应用启动，首次调用时仍会回退到 EVAL
+            log.warn("限流脚本预加载失败，将在首次调用时加载: {}", ex.getMessage());
+        }
+
+        log.info("限流器预热完成，预编译限流计划 {} 个，耗时 {} ms", planCount, (System.nanoTime() - startTime) / 1_000_000);
+    }
+
+    /**
+     * 预编译所有 Bean 中带限流注解方法的限流计划，注解参数不合法时抛出异常使启动失败，
+     * 引用了不存在的命名规则时汇总记录警告
+     *
+     * @param context 应用上下文
+     * @return 预编译的限流计划数量
+     */
+    private int precompilePlans(ConfigurableApplicationContext context) {
+        int planCount = 0;
+        Map<String, List<String>> unknownRules = new TreeMap<>();
+        for (String beanName : context.getBeanDefinitionNames()) {
+            Class<?> beanType = context.getType(beanName, false);
+            if (beanType == null) {
+                continue;
+            }
+            Class<?> userClass = ClassUtils.getUserClass(beanType);
+            List<Method> annotatedMethods = new ArrayList<>();
+            ReflectionUtils.doWithMethods(userClass, annotatedMethods::add, RateLimitPlanResolver::isRateLimited);
+            for (Method method : annotatedMethods) {
+                planResolver.resolve(method, userClass);
+                for (String rule : planResolver.findUnknownRules(method)) {
+                    unknownRules.computeIfAbsent(rule, k -> new ArrayList<>()).add(userClass.getName() + "#" + method.getName());
+                }
+                planCount++;
+            }
+        }
+        if (!unknownRules.isEmpty()) {
+            log.warn("限流注解引用的命名规则未在 rate-limiter.rules 中配置，相关方法将使用注解中的参数: {}", unknownRules);
+        }
+        return planCount;
+    }
+}
@@ -21,6 +21,46 @@ public @interface SlidingWindowCounterRateLimiter {
      */
     String key() default "";
 
+    /**
+     * 限流键前缀，与 keyParams 一起使用
+     * @return 键前缀
+     */
+    String keyPrefix() default "";
+
+    /**
+     * 组成限流键的参数名或参数下标（如 "userId" 或 "0"），多个参数以 ":" 连接。
+     * 参数在解析限流计划时被解析为下标，生成键时不做 SpEL 求值，不能与 key 同时使用
+     * @return 参数名或参数下标
+     */
+    String[] keyParams() default {};
+
+    /**
+     * 基于 HTTP 请求的键解析器 Bean 名称（如 ipKeyResolver、principalKeyResolver、headerKeyResolver），
+     * 解析结果以 ":" 追加到限流键之后
+     * @return 键解析器 Bean 名称
+     */
+    String keyResolver() default "";
+
+    /**
+     * 限流分组名称，对应 rate-limiter.redis.groups 下配置的独立 Redis 实例，为空时使用默认连接
+     * @return 限流分组名称
+     */
+    String group() default "";
+
+    /**
+     * 引用 rate-limiter.rules 下的命名规则，规则中配置的参数覆盖注解中的同名参数，修改配置后无需重启即可生效。
+     * 规则不存在时使用注解中的参数
+     * @return 规则名称
+     */
+    String rule() default "";
+
+    /**
+     * 是否按键错开窗口边界。开启后每个键的窗口在对齐边界的基础上偏移一个由键的哈希得到的固定相位，
+     * 不同键在不同时刻重置，避免所有键在同一秒重置带来的请求尖峰和 Redis 写入尖峰
+     * @return 是否错开窗口边界
+     */
+    boolean staggered() default false;
+
     /**
      * 时间窗口内允许的最大请求数
      * @return 限制数量
@@ -39,6 +79,14 @@ public @interface SlidingWindowCounterRateLimiter {
      */
     int subWindows() default 10;
 
+    /**
+     * 采样限流每次访问 Redis 最多预取的许可数，0 表示每个请求都访问 Redis。
+     * 大于 0 时只有部分请求访问 Redis，预取的许可在本地消耗，被拒绝后随后的若干请求沿用拒绝判断，
+     * 批量随与限制的距离自适应调整，适用于每秒数十万次请求的全局限流键
+     * @return 采样上限
+     */
+    int sampleSize() default 0;
+
     /**
      * 每个请求所需的许可数量
      * @return 许可数量
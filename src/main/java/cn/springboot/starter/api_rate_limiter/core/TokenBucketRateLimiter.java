@@ -22,6 +22,39 @@ public @interface TokenBucketRateLimiter {
      */
     String key() default "";
 
+    /**
+     * 限流键前缀，与 keyParams 一起使用
+     * @return 键前缀
+     */
+    String keyPrefix() default "";
+
+    /**
+     * 组成限流键的参数名或参数下标（如 "userId" 或 "0"），多个参数以 ":" 连接。
+     * 参数在解析限流计划时被解析为下标，生成键时不做 SpEL 求值，不能与 key 同时使用
+     * @return 参数名或参数下标
+     */
+    String[] keyParams() default {};
+
+    /**
+     * 基于 HTTP 请求的键解析器 Bean 名称（如 ipKeyResolver、principalKeyResolver、headerKeyResolver），
+     * 解析结果以 ":" 追加到限流键之后
+     * @return 键解析器 Bean 名称
+     */
+    String keyResolver() default "";
+
+    /**
+     * 限流分组名称，对应 rate-limiter.redis.groups 下配置的独立 Redis 实例，为空时使用默认连接
+     * @return 限流分组名称
+     */
+    String group() default "";
+
+    /**
+     * 引用 rate-limiter.rules 下的命名规则，规则中配置的参数覆盖注解中的同名参数，修改配置后无需重启即可生效。
+     * 规则不存在时使用注解中的参数
+     * @return 规则名称
+     */
+    String rule() default "";
+
     /**
      * 桶容量（最大令牌数）
      * @return 桶容量
@@ -40,12 +73,34 @@ public @interface TokenBucketRateLimiter {
      */
     long refillIntervalSeconds() default 1;
 
+    /**
+     * 采样限流每次访问 Redis 最多预取的许可数，0 表示每个请求都访问 Redis。
+     * 大于 0 时只有部分请求访问 Redis，预取的许可在本地消耗，被拒绝后随后的若干请求沿用拒绝判断，
+     * 批量随与限制的距离自适应调整，适用于每秒数十万次请求的全局限流键
+     * @return 采样上限
+     */
+    int sampleSize() default 0;
+
     /**
      * 每个请求所需的许可数量
      * @return 许可数量
      */
     int permits() default 1;
 
+    /**
+     * 许可不足时的最长等待时间（毫秒）。大于 0 时脚本会预约未来的令牌并返回等待时间，
+     * 请求线程休眠到预约时刻后继续执行，把突发流量整形为平滑流量；只有等待时间超过该值时才拒绝。默认 0 表示立即拒绝
+     * @return 最长等待时间（毫秒）
+     */
+    long maxWait() default 0;
+
+    /**
+     * 预热（慢启动）时长，单位：秒。大于 0 时冷启动的桶容量和填充速率只有配置值的 1/3，在预热时长内线性提升到配置值，
+     * 闲置超过预热时长后重新预热，避免部署或缓存清空后下游在冷状态下立即承受全部流量。不能与 maxWait 同时使用
+     * @return 预热时长（秒）
+     */
+    long warmupPeriod() default 0;
+
     /**
      * 超过限流时返回的消息
      * @return 错误消息
@@ -0,0 +1,97 @@
+package cn.springboot.starter.api_rate_limiter.core;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 加权滑动窗口限流注解
+ * 该注解可以应用于方法上以启用加权滑动窗口限流功能。
+ * 每个键只保存当前与上一个固定窗口的计数，按 上一窗口计数 × (1 - 当前窗口已过比例) + 当前窗口计数 估算滑动窗口内的请求数，
+ * 以固定窗口的存储开销获得接近滑动窗口的精度
+ *
+ * @author Yuan Shenjian
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WeightedSlidingWindowRateLimiter {
+
+    /**
+     * 限流键，支持 SpEL 表达式
+     * @return 限流键
+     */
+    String key() default "";
+
+    /**
+     * 限流键前缀，与 keyParams 一起使用
+     * @return 键前缀
+     */
+    String keyPrefix() default "";
+
+    /**
+     * 组成限流键的参数名或参数下标（如 "userId" 或 "0"），多个参数以 ":" 连接。
+     * 参数在解析限流计划时被解析为下标，生成键时不做 SpEL 求值，不能与 key 同时使用
+     * @return 参数名或参数下标
+     */
+    String[] keyParams() default {};
+
+    /**
+     * 基于 HTTP 请求的键解析器 Bean 名称（如 ipKeyResolver、principalKeyResolver、headerKeyResolver），
+     * 解析结果以 ":" 追加到限流键之后
+     * @return 键解析器 Bean 名称
+     */
+    String keyResolver() default "";
+
+    /**
+     * 限流分组名称，对应 rate-limiter.redis.groups 下配置的独立 Redis 实例，为空时使用默认连接
+     * @return 限流分组名称
+     */
+    String group() default "";
+
+    /**
+     * 引用 rate-limiter.rules 下的命名规则，规则中配置的参数覆盖注解中的同名参数，修改配置后无需重启即可生效。
+     * 规则不存在时使用注解中的参数
+     * @return 规则名称
+     */
+    String rule() default "";
+
+    /**
+     * 是否按键错开窗口边界。开启后每个键的窗口在对齐边界的基础上偏移一个由键的哈希得到的固定相位，
+     * 不同键在不同时刻重置，避免所有键在同一秒重置带来的请求尖峰和 Redis 写入尖峰
+     * @return 是否错开窗口边界
+     */
+    boolean staggered() default false;
+
+    /**
+     * 时间窗口内允许的最大请求数
+     * @return 限制数量
+     */
+    long limit() default 10;
+
+    /**
+     * 时间窗口大小（单位：秒）
+     * @return 窗口大小（秒）
+     */
+    long windowSize() default 60;
+
+    /**
+     * 采样限流每次访问 Redis 最多预取的许可数，0 表示每个请求都访问 Redis。
+     * 大于 0 时只有部分请求访问 Redis，预取的许可在本地消耗，被拒绝后随后的若干请求沿用拒绝判断，
+     * 批量随与限制的距离自适应调整，适用于每秒数十万次请求的全局限流键
+     * @return 采样上限
+     */
+    int sampleSize() default 0;
+
+    /**
+     * 每个请求所需的许可数量
+     * @return 许可数量
+     */
+    int permits() default 1;
+
+    /**
+     * 超过限流时返回的消息
+     * @return 错误消息
+     */
+    String message() default "请求过于频繁，请稍后再试";
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package cn.springboot.starter.api_rate_limiter.core.actuate;
+
+import cn.springboot.starter.api_rate_limiter.core.RateLimitAlgorithm;
+import cn.springboot.starter.api_rate_limiter.core.hotkey.HotKey;
+import cn.springboot.starter.api_rate_limiter.core.hotkey.HotKeyTracker;
+import cn.springboot.starter.api_rate_limiter.core.inspect.RateLimitStateInspector;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 限流器 Actuator 端点（/actuator/ratelimiter）
+ * <ul>
+ *     <li>GET /actuator/ratelimiter：各算法访问最多的键与被拒绝最多的键</li>
+ *     <li>GET /actuator/ratelimiter/{algorithm}/{key}?group=&amp;windowSize=&amp;subWindows=&amp;staggered=：单个限流键的当前状态，
+ *     窗口参数仅用于滑动窗口计数器</li>
+ * </ul>
+ * 键数量与内存统计由 {@link RateLimiterMemoryEndpoint} 提供
+ *
+ * @author Yuan Shenjian
+ */
+@Endpoint(id = "ratelimiter")
+public class RateLimiterEndpoint {
+
+    private final HotKeyTracker hotKeyTracker;
+    private final RateLimitStateInspector stateInspector;
+
+    /**
+     * 构造函数
+     *
+     * @param hotKeyTracker 热点键跟踪器（可以为 null）
+     * @param stateInspector 限流状态检查器（可以为 null）
+     */
+    public RateLimiterEndpoint(HotKeyTracker hotKeyTracker, RateLimitStateInspector stateInspector) {
+        this.hotKeyTracker = hotKeyTracker;
+        this.stateInspector = stateInspector;
+    }
+
+    /**
+     * 查看热点键
+     *
+     * @return 以算法名称为键的热点键报告
+     */
+    @ReadOperation
+    public Map<String, Object> hotKeys() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (hotKeyTracker == null) {
+            return result;
+        }
+        for (Map.Entry<RateLimitAlgorithm, Map<String, List<HotKey>>> entry : hotKeyTracker.report().entrySet()) {
+            result.put(entry.getKey().name(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * 查看单个限流键的当前状态
+     *
+     * @param algorithm 算法名称（如 token_bucket）
+     * @param key 限流键
+     * @param group 限流分组
+     * @param windowSize 窗口大小（秒），仅用于滑动窗口计数器
+     * @param subWindows 子窗口数量，仅用于滑动窗口计数器
+     * @param staggered 是否按键错开窗口边界，仅用于滑动窗口计数器
+     * @return 状态描述，算法名称不合法或 Redis 不可用时返回 null（404）
+     */
+    @ReadOperation
+    public Map<String, Object> state(@Selector String algorithm, @Selector String key, @Nullable String group,
+                                     @Nullable Long windowSize, @Nullable Integer subWindows, @Nullable Boolean staggered) {
+        if (stateInspector == null || !stateInspector.isAvailable(group)) {
+            return null;
+        }
+        RateLimitAlgorithm resolved;
+        try {
+            resolved = RateLimitAlgorithm.valueOf(algorithm.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        return stateInspector.inspect(resolved, key, group,
+                windowSize != null ? windowSize : 0,
+                subWindows != null ? subWindows : 0,
+                Boolean.TRUE.equals(staggered));
+    }
+}
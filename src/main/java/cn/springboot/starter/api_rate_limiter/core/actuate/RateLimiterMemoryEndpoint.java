@@ -0,0 +1,58 @@
+package cn.springboot.starter.api_rate_limiter.core.actuate;
+
+import cn.springboot.starter.api_rate_limiter.core.inspect.RateLimitStateInspector;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+
+/**
+ * 限流键内存统计 Actuator 端点（/actuator/ratelimitermemory）
+ * <ul>
+ *     <li>GET /actuator/ratelimitermemory?pattern=&amp;sampleEvery=&amp;maxKeys=&amp;group=：按前缀汇总的键数量与估算内存</li>
+ * </ul>
+ * 限流键的前缀由注解决定，端点无法推断，因此必须显式提供 pattern，避免误扫整个键空间
+ *
+ * @author Yuan Shenjian
+ */
+@Endpoint(id = "ratelimitermemory")
+public class RateLimiterMemoryEndpoint {
+
+    /**
+     * 默认最多扫描的键数量
+     */
+    private static final long DEFAULT_MAX_KEYS = 10_000;
+
+    private final RateLimitStateInspector stateInspector;
+
+    /**
+     * 构造函数
+     *
+     * @param stateInspector 限流状态检查器
+     */
+    public RateLimiterMemoryEndpoint(RateLimitStateInspector stateInspector) {
+        this.stateInspector = stateInspector;
+    }
+
+    /**
+     * 统计限流键的数量与估算内存
+     *
+     * @param pattern SCAN 匹配模式，必填，例如 api:*
+     * @param sampleEvery 抽样间隔，默认每 100 个键抽样一次
+     * @param maxKeys 最多扫描的键数量，默认 10000
+     * @param group 限流分组
+     * @return 统计结果，分组的 Redis 不可用时返回 null（404）
+     */
+    @ReadOperation
+    public Map<String, Object> memory(String pattern, @Nullable Integer sampleEvery,
+                                      @Nullable Long maxKeys, @Nullable String group) {
+        if (!stateInspector.isAvailable(group)) {
+            return null;
+        }
+        return stateInspector.memoryUsage(pattern,
+                sampleEvery != null ? sampleEvery : 100,
+                maxKeys != null ? maxKeys : DEFAULT_MAX_KEYS,
+                group);
+    }
+}
@@ -0,0 +1,193 @@
+package cn.springboot.starter.api_rate_limiter.core.adaptive;
+
+import cn.springboot.starter.api_rate_limiter.config.RateLimiterProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 自适应限流控制器（AIMD）
+ * 按固定间隔检查处理耗时分位数、线程池饱和度与 GC 停顿占比，任一信号超过阈值时按乘法因子收紧限流系数，
+ * 否则按固定步长逐步放宽，系数上限为 1，即注解中配置的限制始终是上限
+ *
+ * @author Yuan Shenjian
+ */
+@Slf4j
+public class AdaptiveLimitController implements SmartLifecycle {
+
+    /**
+     * 耗时直方图的桶数量，第 i 个桶统计 [2^(i-1), 2^i) 微秒的请求
+     */
+    private static final int BUCKETS = 40;
+
+    private final RateLimiterProperties.Adaptive properties;
+    private final List<SaturationSignal> saturationSignals;
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(BUCKETS);
+    private volatile double factor = 1.0;
+    private long lastGcTimeMillis;
+    private long lastEvaluationNanos;
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * 构造函数
+     *
+     * @param properties 自适应限流配置
+     * @param saturationSignals 饱和度信号
+     */
+    public AdaptiveLimitController(RateLimiterProperties.Adaptive properties, List<SaturationSignal> saturationSignals) {
+        this.properties = properties;
+        this.saturationSignals = List.copyOf(saturationSignals);
+    }
+
+    /**
+     * 记录一次被限流方法的处理耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordLatency(long nanos) {
+        long micros = Math.max(1, nanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        latencyBuckets.incrementAndGet(bucket);
+    }
+
+    /**
+     * 按当前系数计算生效的限制，结果不小于 1
+     *
+     * @param configuredLimit 注解中配置的限制
+     * @return 生效的限制
+     */
+    public long effectiveLimit(long configuredLimit) {
+        double current = factor;
+        if (current >= 1.0) {
+            return configuredLimit;
+        }
+        return Math.max(1, (long) Math.floor(configuredLimit * current));
+    }
+
+    /**
+     * 当前限流系数
+     *
+     * @return 0 到 1 之间的系数
+     */
+    public double getFactor() {
+        return factor;
+    }
+
+    /**
+     * 根据最近一个周期的信号调整限流系数
+     */
+    void evaluate() {
+        long latencyMicros = latencyPercentileMicros(properties.getLatencyPercentile());
+        double saturation = maxSaturation();
+        double gcRatio = gcTimeRatio();
+
+        boolean overloaded = latencyMicros > properties.getLatencyThreshold().toNanos() / 1000
+                || saturation > properties.getSaturationThreshold()
+                || gcRatio > properties.getGcThreshold();
+        double previous = factor;
+        double next = overloaded
+                ? Math.max(properties.getMinFactor(), previous * properties.getDecreaseFactor())
+                : Math.min(1.0, previous + properties.getIncreaseStep());
+        factor = next;
+        if (next != previous && (overloaded || next == 1.0)) {
+            log.info("自适应限流系数调整: {} -> {}，耗时分位数 {} μs，线程池饱和度 {}，GC 占比 {}",
+                    String.format("%.2f", previous), String.format("%.2f", next), latencyMicros,
+                    String.format("%.2f", saturation), String.format("%.3f", gcRatio));
+        }
+    }
+
+    /**
+     * 计算并清空耗时直方图，返回指定分位数所在桶的上界
+     *
+     * @param percentile 分位数（0 到 1）
+     * @return 耗时分位数（微秒），没有样本时返回 0
+     */
+    private long latencyPercentileMicros(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = latencyBuckets.getAndSet(i, 0);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= threshold) {
+                return 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    private double maxSaturation() {
+        double max = 0;
+        for (SaturationSignal signal : saturationSignals) {
+            max = Math.max(max, signal.saturation());
+        }
+        return max;
+    }
+
+    /**
+     * 计算上一个周期内 GC 耗时占墙钟时间的比例
+     *
+     * @return GC 耗时占比
+     */
+    private double gcTimeRatio() {
+        long gcTimeMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcTimeMillis += Math.max(0, gc.getCollectionTime());
+        }
+        long now = System.nanoTime();
+        double ratio = 0;
+        if (lastEvaluationNanos != 0) {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(now - lastEvaluationNanos);
+            ratio = elapsedMillis > 0 ? (double) (gcTimeMillis - lastGcTimeMillis) / elapsedMillis : 0;
+        }
+        lastGcTimeMillis = gcTimeMillis;
+        lastEvaluationNanos = now;
+        return ratio;
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limiter-adaptive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getInterval().toMillis();
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                evaluate();
+            } catch (RuntimeException ex) {
+                log.warn("自适应限流评估失败: {}", ex.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        this.executor = scheduler;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService scheduler = this.executor;
+        if (scheduler != null) {
+            this.executor = null;
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+}
@@ -0,0 +1,18 @@
+package cn.springboot.starter.api_rate_limiter.core.adaptive;
+
+/**
+ * 饱和度信号
+ * 自适应限流依据的本地负载信号，例如 Servlet 线程池的繁忙程度
+ *
+ * @author Yuan Shenjian
+ */
+@FunctionalInterface
+public interface SaturationSignal {
+
+    /**
+     * 当前饱和度
+     *
+     * @return 0 到 1 之间的饱和度，信号暂不可用时返回负数
+     */
+    double saturation();
+}
@@ -0,0 +1,38 @@
+package cn.springboot.starter.api_rate_limiter.core.adaptive;
+
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.context.ApplicationListener;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 内嵌 Tomcat 请求线程池的饱和度信号
+ * 在 Web 服务器初始化后获取连接器的线程池，饱和度为 繁忙线程数 / 最大线程数
+ *
+ * @author Yuan Shenjian
+ */
+public class TomcatThreadPoolSaturationSignal implements SaturationSignal, ApplicationListener<WebServerInitializedEvent> {
+
+    private volatile ThreadPoolExecutor executor;
+
+    @Override
+    public void onApplicationEvent(WebServerInitializedEvent event) {
+        if (event.getWebServer() instanceof TomcatWebServer tomcatWebServer) {
+            Executor connectorExecutor = tomcatWebServer.getTomcat().getConnector().getProtocolHandler().getExecutor();
+            if (connectorExecutor instanceof ThreadPoolExecutor threadPoolExecutor) {
+                this.executor = threadPoolExecutor;
+            }
+        }
+    }
+
+    @Override
+    public double saturation() {
+        ThreadPoolExecutor current = this.executor;
+        if (current == null || current.getMaximumPoolSize() <= 0) {
+            return -1;
+        }
+        return (double) current.getActiveCount() / current.getMaximumPoolSize();
+    }
+}
@@ -0,0 +1,153 @@
+package cn.springboot.starter.api_rate_limiter.core.hotkey;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 基于 HeavyKeeper 的近似热点键统计
+ * 固定数量的槽位分布在两行中，每个键在每行映射到一个槽位；命中时计数加一，
+ * 被其他键占用时以 1.08^-count 的概率衰减占用者，计数归零后由新键接管。
+ * 每经过一个衰减周期所有计数减半，已经冷却的键会逐渐让出槽位，报告反映的是最近的热点而不是启动以来的累计值。
+ * 更新只使用 CAS 与原子计数，不加锁，内存占用与键的数量无关
+ *
+ * @author Yuan Shenjian
+ */
+public class HeavyKeeper {
+
+    private static final int ROWS = 2;
+    private static final double DECAY_BASE = 1.08;
+
+    private final int width;
+    private final AtomicReferenceArray<Slot> slots;
+    private final long decayIntervalMillis;
+    private final AtomicLong nextDecayAt;
+
+    /**
+     * 构造函数，计数不随时间衰减
+     *
+     * @param capacity 槽位总数
+     */
+    public HeavyKeeper(int capacity) {
+        this(capacity, 0);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param capacity 槽位总数
+     * @param decayIntervalMillis 计数减半的周期（毫秒），小于等于 0 表示不衰减
+     */
+    public HeavyKeeper(int capacity, long decayIntervalMillis) {
+        this.width = Math.max(1, capacity / ROWS);
+        this.slots = new AtomicReferenceArray<>(width * ROWS);
+        this.decayIntervalMillis = decayIntervalMillis;
+        this.nextDecayAt = new AtomicLong(System.currentTimeMillis() + decayIntervalMillis);
+    }
+
+    /**
+     * 记录一次键的出现
+     *
+     * @param key 键
+     */
+    public void add(String key) {
+        if (decayIntervalMillis > 0) {
+            decayIfDue(System.currentTimeMillis());
+        }
+        int hash = spread(key.hashCode());
+        // 每一行都要更新，报告时取各行计数的最大值
+        for (int row = 0; row < ROWS; row++) {
+            int index = row * width + Math.floorMod(row == 0 ? hash : Integer.rotateLeft(hash, 16) * 0x9E3779B9, width);
+            Slot slot = slots.get(index);
+            if (slot == null) {
+                if (slots.compareAndSet(index, null, new Slot(key))) {
+                    continue;
+                }
+                slot = slots.get(index);
+                if (slot == null) {
+                    continue;
+                }
+            }
+            if (slot.key.equals(key)) {
+                slot.count.incrementAndGet();
+                continue;
+            }
+            long count = slot.count.get();
+            if (ThreadLocalRandom.current().nextDouble() < Math.pow(DECAY_BASE, -count)
+                    && slot.count.decrementAndGet() <= 0) {
+                slots.compareAndSet(index, slot, new Slot(key));
+            }
+        }
+    }
+
+    /**
+     * 将所有计数减半，计数归零的槽位被清空
+     */
+    public void decay() {
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot != null && slot.count.updateAndGet(count -> count >> 1) <= 0) {
+                slots.compareAndSet(i, slot, null);
+            }
+        }
+    }
+
+    /**
+     * 返回计数最高的若干个键
+     *
+     * @param limit 返回数量
+     * @return 按计数降序排列的热点键
+     */
+    public List<HotKey> top(int limit) {
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot != null && slot.count.get() > 0) {
+                counts.merge(slot.key, slot.count.get(), Math::max);
+            }
+        }
+        List<HotKey> hotKeys = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> hotKeys.add(new HotKey(key, count)));
+        hotKeys.sort(Comparator.comparingLong(HotKey::getCount).reversed());
+        return hotKeys.size() > limit ? List.copyOf(hotKeys.subList(0, limit)) : hotKeys;
+    }
+
+    /**
+     * 清空所有统计
+     */
+    public void reset() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    private void decayIfDue(long now) {
+        long due = nextDecayAt.get();
+        // 只有抢到 CAS 的线程执行衰减，其他线程继续更新
+        if (now >= due && nextDecayAt.compareAndSet(due, now + decayIntervalMillis)) {
+            decay();
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * 槽位
+     */
+    private static final class Slot {
+
+        private final String key;
+        private final AtomicLong count = new AtomicLong(1);
+
+        private Slot(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package cn.springboot.starter.api_rate_limiter.core.hotkey;
+
+import lombok.Getter;
+
+/**
+ * 热点键及其近似计数
+ *
+ * @author Yuan Shenjian
+ */
+@Getter
+public class HotKey {
+
+    /**
+     * 限流键
+     */
+    private final String key;
+
+    /**
+     * 近似计数
+     */
+    private final long count;
+
+    /**
+     * 构造函数
+     *
+     * @param key 限流键
+     * @param count 近似计数
+     */
+    public HotKey(String key, long count) {
+        this.key = key;
+        this.count = count;
+    }
+}
@@ -0,0 +1,78 @@
+package cn.springboot.starter.api_rate_limiter.core.hotkey;
+
+import cn.springboot.starter.api_rate_limiter.core.RateLimitAlgorithm;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 限流热点键跟踪器
+ * 按算法分别统计访问最多的键与被拒绝最多的键，由限流拦截器在判断后调用，计数按衰减周期减半
+ *
+ * @author Yuan Shenjian
+ */
+public class HotKeyTracker {
+
+    private final Map<RateLimitAlgorithm, HeavyKeeper> requested = new EnumMap<>(RateLimitAlgorithm.class);
+    private final Map<RateLimitAlgorithm, HeavyKeeper> rejected = new EnumMap<>(RateLimitAlgorithm.class);
+    private final int topSize;
+
+    /**
+     * 构造函数
+     *
+     * @param capacity 每个统计器的槽位数量
+     * @param topSize 报告的热点键数量
+     * @param decayIntervalMillis 计数减半的周期（毫秒），小于等于 0 表示不衰减
+     */
+    public HotKeyTracker(int capacity, int topSize, long decayIntervalMillis) {
+        this.topSize = topSize;
+        for (RateLimitAlgorithm algorithm : RateLimitAlgorithm.values()) {
+            requested.put(algorithm, new HeavyKeeper(capacity, decayIntervalMillis));
+            rejected.put(algorithm, new HeavyKeeper(capacity, decayIntervalMillis));
+        }
+    }
+
+    /**
+     * 记录一次限流判断
+     *
+     * @param algorithm 限流算法
+     * @param key 限流键
+     * @param allowed 是否被允许
+     */
+    public void record(RateLimitAlgorithm algorithm, String key, boolean allowed) {
+        requested.get(algorithm).add(key);
+        if (!allowed) {
+            rejected.get(algorithm).add(key);
+        }
+    }
+
+    /**
+     * 生成热点键报告，只包含有数据的算法
+     *
+     * @return 算法到 heaviest / heaviestRejected 热点键列表的映射
+     */
+    public Map<RateLimitAlgorithm, Map<String, List<HotKey>>> report() {
+        Map<RateLimitAlgorithm, Map<String, List<HotKey>>> report = new EnumMap<>(RateLimitAlgorithm.class);
+        for (RateLimitAlgorithm algorithm : RateLimitAlgorithm.values()) {
+            List<HotKey> heaviest = requested.get(algorithm).top(topSize);
+            if (heaviest.isEmpty()) {
+                continue;
+            }
+            Map<String, List<HotKey>> entry = new LinkedHashMap<>();
+            entry.put("heaviest", heaviest);
+            entry.put("heaviestRejected", rejected.get(algorithm).top(topSize));
+            report.put(algorithm, entry);
+        }
+        return report;
+    }
+
+    /**
+     * 清空所有统计
+     */
+    public void reset() {
+        requested.values().forEach(HeavyKeeper::reset);
+        rejected.values().forEach(HeavyKeeper::reset);
+    }
+}
@@ -0,0 +1,297 @@
+package cn.springboot.starter.api_rate_limiter.core.inspect;
+
+import cn.springboot.starter.api_rate_limiter.core.RateLimitAlgorithm;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流状态检查器
+ * 按算法读取单个限流键在 Redis 中的当前状态，并通过增量 SCAN 统计各前缀下的键数量，
+ * 对部分键抽样执行 MEMORY USAGE 以估算内存占用。SCAN 游标逐批处理，不会一次性加载所有键
+ *
+ * @author Yuan Shenjian
+ */
+public class RateLimitStateInspector {
+
+    private final StringRedisTemplate defaultTemplate;
+    private final Map<String, StringRedisTemplate> groupTemplates;
+
+    /**
+     * 构造函数
+     *
+     * @param defaultTemplate 默认分组使用的 Redis 模板（可以为 null）
+     * @param groupTemplates 命名限流分组使用的 Redis 模板
+     */
+    public RateLimitStateInspector(StringRedisTemplate defaultTemplate, Map<String, StringRedisTemplate> groupTemplates) {
+        this.defaultTemplate = defaultTemplate;
+        this.groupTemplates = groupTemplates;
+    }
+
+    /**
+     * 读取限流键的当前状态
+     *
+     * @param algorithm 限流算法
+     * @param key 限流键
+     * @param group 限流分组，null 或空字符串表示默认分组
+     * @return 状态描述，键不存在时只包含 exists=false
+     */
+    public Map<String, Object> inspect(RateLimitAlgorithm algorithm, String key, String group) {
+        return inspect(algorithm, key, group, 0, 0, false);
+    }
+
+    /**
+     * 读取限流键的当前状态，滑动窗口计数器需要提供窗口参数以计算当前窗口内各子窗口的键
+     *
+     * @param algorithm 限流算法
+     * @param key 限流键
+     * @param group 限流分组，null 或空字符串表示默认分组
+     * @param windowSize 窗口大小（秒），仅用于滑动窗口计数器
+     * @param subWindows 子窗口数量，仅用于滑动窗口计数器
+     * @param staggered 是否按键错开窗口边界，仅用于滑动窗口计数器
+     * @return 状态描述，键不存在时只包含 exists=false
+     */
+    public Map<String, Object> inspect(RateLimitAlgorithm algorithm, String key, String group,
+                                       long windowSize, int subWindows, boolean staggered) {
+        StringRedisTemplate template = template(group);
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("algorithm", algorithm.name());
+        state.put("key", key);
+        switch (algorithm) {
+            case FIXED_WINDOW -> {
+                String value = template.opsForValue().get(key);
+                putExists(state, value != null);
+                if (value != null) {
+                    int separator = value.indexOf(':');
+                    state.put("count", Long.parseLong(value.substring(0, separator)));
+                    state.put("windowStart", Long.parseLong(value.substring(separator + 1)));
+                    state.put("ttl", template.getExpire(key));
+                }
+            }
+            case TOKEN_BUCKET -> putHash(state, template, key, "tokens", "last_refill_time");
+            case LEAKY_BUCKET -> putHash(state, template, key, "current_size", "last_process_time");
+            case SLIDING_WINDOW_LOG -> {
+                Long size = template.opsForZSet().zCard(key);
+                putExists(state, size != null && size > 0);
+                if (size != null && size > 0) {
+                    state.put("entries", size);
+                    state.put("oldest", firstScore(template.opsForZSet().rangeWithScores(key, 0, 0)));
+                    state.put("newest", firstScore(template.opsForZSet().rangeWithScores(key, -1, -1)));
+                    state.put("ttl", template.getExpire(key));
+                }
+            }
+            case SLIDING_WINDOW_COUNTER -> {
+                if (windowSize <= 0 || subWindows <= 0) {
+                    state.put("note", "滑动窗口计数器需要提供 windowSize 与 subWindows 才能定位子窗口");
+                    break;
+                }
+                RateLimitSpec spec = RateLimitSpec.slidingWindowCounter(1, windowSize, subWindows);
+                long phase = (staggered ? spec.withStaggeredWindow() : spec).windowPhase(key);
+                Map<String, Object> counts = subWindowCounts(template, key, windowSize, subWindows, phase);
+                putExists(state, !counts.isEmpty());
+                if (!counts.isEmpty()) {
+                    state.put("subWindows", counts);
+                }
+            }
+            case WEIGHTED_SLIDING_WINDOW -> putHash(state, template, key, "window", "curr", "prev");
+            case COUNT_MIN_SKETCH -> state.put("note", "计数草图不按键存储状态，无法查看单个键");
+            case CONCURRENCY -> {
+                Long leases = template.opsForZSet().zCard(key);
+                putExists(state, leases != null && leases > 0);
+                if (leases != null && leases > 0) {
+                    state.put("leases", leases);
+                    state.put("activeLeases", template.opsForZSet().count(key, System.currentTimeMillis(), Double.POSITIVE_INFINITY));
+                    state.put("ttl", template.getExpire(key));
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * 按限流脚本相同的方式计算当前窗口内各子窗口的键（key:<子窗口序号>），逐个读取计数与 TTL，不扫描键空间
+     *
+     * @param template Redis 模板
+     * @param key 限流键
+     * @param windowSize 窗口大小（秒）
+     * @param subWindows 子窗口数量
+     * @param phase 键的窗口相位（秒）
+     * @return 以子窗口序号为键的计数与 TTL，只包含存在的子窗口
+     */
+    private static Map<String, Object> subWindowCounts(StringRedisTemplate template, String key, long windowSize,
+                                                       int subWindows, long phase) {
+        Map<String, Object> counts = new TreeMap<>();
+        template.execute((RedisCallback<Void>) connection -> {
+            // 使用 Redis 服务器时间，与脚本中的 TIME 保持一致
+            long currentTime = connection.serverCommands().time(TimeUnit.SECONDS) - phase;
+            double subWindowSize = (double) windowSize / subWindows;
+            long currentSubWindow = (long) Math.floor(currentTime / subWindowSize);
+            for (int i = 0; i < subWindows; i++) {
+                String index = String.valueOf(currentSubWindow - i);
+                byte[] subKey = (key + ":" + index).getBytes(StandardCharsets.UTF_8);
+                byte[] value = connection.stringCommands().get(subKey);
+                if (value == null) {
+                    continue;
+                }
+                Map<String, Object> subWindow = new LinkedHashMap<>();
+                subWindow.put("count", Long.parseLong(new String(value, StandardCharsets.UTF_8)));
+                subWindow.put("ttl", connection.keyCommands().ttl(subKey));
+                counts.put(index, subWindow);
+            }
+            return null;
+        });
+        return counts;
+    }
+
+    /**
+     * 通过增量 SCAN 统计匹配模式的键，按前缀（第一个 ":" 之前的部分）汇总数量、类型与无过期时间的键数，
+     * 并每隔 sampleEvery 个键执行一次 MEMORY USAGE，按抽样平均值估算各前缀的内存占用
+     *
+     * @param pattern SCAN 匹配模式
+     * @param sampleEvery 抽样间隔（每 N 个键抽样一次）
+     * @param maxKeys 最多扫描的键数量，防止在超大实例上长时间扫描
+     * @param group 限流分组，null 或空字符串表示默认分组
+     * @return 按前缀汇总的统计结果
+     */
+    public Map<String, Object> memoryUsage(String pattern, int sampleEvery, long maxKeys, String group) {
+        StringRedisTemplate template = template(group);
+        Map<String, PrefixUsage> prefixes = new TreeMap<>();
+        long[] scanned = {0};
+        template.execute((RedisCallback<Void>) connection -> {
+            ScanOptions options = ScanOptions.scanOptions().match(pattern).count(1000).build();
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                while (cursor.hasNext() && scanned[0] < maxKeys) {
+                    byte[] key = cursor.next();
+                    String name = new String(key, StandardCharsets.UTF_8);
+                    int separator = name.indexOf(':');
+                    PrefixUsage usage = prefixes.computeIfAbsent(separator > 0 ? name.substring(0, separator) : name,
+                            prefix -> new PrefixUsage());
+                    usage.keys++;
+                    if (scanned[0]++ % Math.max(1, sampleEvery) == 0) {
+                        sample(connection, key, usage);
+                    }
+                }
+            }
+            return null;
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("pattern", pattern);
+        report.put("scannedKeys", scanned[0]);
+        report.put("truncated", scanned[0] >= maxKeys);
+        long totalBytes = 0;
+        Map<String, Object> byPrefix = new LinkedHashMap<>();
+        for (Map.Entry<String, PrefixUsage> entry : prefixes.entrySet()) {
+            PrefixUsage usage = entry.getValue();
+            long estimatedBytes = usage.estimatedBytes();
+            totalBytes += estimatedBytes;
+            byPrefix.put(entry.getKey(), usage.toMap());
+        }
+        report.put("estimatedBytes", totalBytes);
+        report.put("prefixes", byPrefix);
+        return report;
+    }
+
+    /**
+     * 对单个键抽样类型、过期时间与内存占用
+     *
+     * @param connection Redis 连接
+     * @param key 键
+     * @param usage 前缀统计
+     */
+    private static void sample(RedisConnection connection, byte[] key, PrefixUsage usage) {
+        usage.sampled++;
+        DataType type = connection.keyCommands().type(key);
+        usage.types.merge(type != null ? type.code() : "none", 1L, Long::sum);
+        Long ttl = connection.keyCommands().ttl(key);
+        if (ttl != null && ttl == -1) {
+            usage.sampledWithoutTtl++;
+        }
+        Object memory = connection.execute("MEMORY", "USAGE".getBytes(StandardCharsets.UTF_8), key);
+        // 驱动可能以整数或字节数组的形式返回未知命令的结果
+        if (memory instanceof Number bytes) {
+            usage.sampledBytes += bytes.longValue();
+        } else if (memory instanceof byte[] bytes) {
+            usage.sampledBytes += Long.parseLong(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 判断限流分组的 Redis 连接是否可用
+     *
+     * @param group 限流分组，null 或空字符串表示默认分组
+     * @return 分组配置了 Redis 连接时返回 true
+     */
+    public boolean isAvailable(String group) {
+        return group == null || group.equals(RateLimitSpec.DEFAULT_GROUP) ? defaultTemplate != null : groupTemplates.containsKey(group);
+    }
+
+    private StringRedisTemplate template(String group) {
+        StringRedisTemplate template = group == null || group.equals(RateLimitSpec.DEFAULT_GROUP)
+                ? defaultTemplate : groupTemplates.get(group);
+        if (template == null) {
+            throw new IllegalStateException("限流分组不可用: " + (group == null ? "" : group));
+        }
+        return template;
+    }
+
+    private static void putExists(Map<String, Object> state, boolean exists) {
+        state.put("exists", exists);
+    }
+
+    private static void putHash(Map<String, Object> state, StringRedisTemplate template, String key, String... fields) {
+        List<Object> values = template.opsForHash().multiGet(key, List.of((Object[]) fields));
+        boolean exists = values.stream().anyMatch(value -> value != null);
+        putExists(state, exists);
+        if (exists) {
+            for (int i = 0; i < fields.length; i++) {
+                state.put(fields[i], values.get(i));
+            }
+            state.put("ttl", template.getExpire(key));
+        }
+    }
+
+    private static Double firstScore(Set<ZSetOperations.TypedTuple<String>> tuples) {
+        return tuples == null || tuples.isEmpty() ? null : tuples.iterator().next().getScore();
+    }
+
+    /**
+     * 单个前缀的统计
+     */
+    private static final class PrefixUsage {
+
+        private long keys;
+        private long sampled;
+        private long sampledBytes;
+        private long sampledWithoutTtl;
+        private final Map<String, Long> types = new TreeMap<>();
+
+        private long estimatedBytes() {
+            return sampled == 0 ? 0 : sampledBytes * keys / sampled;
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("keys", keys);
+            map.put("sampled", sampled);
+            map.put("estimatedBytes", estimatedBytes());
+            map.put("estimatedKeysWithoutTtl", sampled == 0 ? 0 : sampledWithoutTtl * keys / sampled);
+            map.put("sampledTypes", Collections.unmodifiableMap(types));
+            return map;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package cn.springboot.starter.api_rate_limiter.core.interceptor;
+
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import cn.springboot.starter.api_rate_limiter.core.key.KeyGenerator;
+import lombok.Getter;
+
+/**
+ * 单个限流注解解析后的检查项
+ *
+ * @author Yuan Shenjian
+ */
+@Getter
+public class RateLimitCheck {
+
+    private final RateLimitSpec spec;
+    private final KeyGenerator keyGenerator;
+    private final int permits;
+    private final String message;
+
+    /**
+     * 构造函数
+     *
+     * @param spec 限流规格
+     * @param keyGenerator 限流键生成器
+     * @param permits 每个请求所需的许可数量
+     * @param message 超过限流时返回的消息
+     */
+    public RateLimitCheck(RateLimitSpec spec, KeyGenerator keyGenerator, int permits, String message) {
+        this.spec = spec;
+        this.keyGenerator = keyGenerator;
+        this.permits = permits;
+        this.message = message;
+    }
+}
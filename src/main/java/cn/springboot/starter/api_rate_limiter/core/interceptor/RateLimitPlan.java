@@ -0,0 +1,48 @@
+package cn.springboot.starter.api_rate_limiter.core.interceptor;
+
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 方法的限流计划
+ * 汇总了一个方法上所有限流注解解析后的检查项，按方法缓存，避免每次调用重复解析注解和表达式
+ *
+ * @author Yuan Shenjian
+ */
+@Getter
+public class RateLimitPlan {
+
+    private final Method method;
+    private final List<RateLimitCheck> checks;
+
+    /**
+     * 方法是否以 CompletableFuture 或 CompletionStage 异步返回结果
+     */
+    private final boolean asyncResult;
+
+    /**
+     * 构造函数
+     *
+     * @param method 声明限流注解的方法
+     * @param checks 限流检查项
+     */
+    public RateLimitPlan(Method method, List<RateLimitCheck> checks) {
+        this.method = method;
+        this.checks = List.copyOf(checks);
+        Class<?> returnType = method.getReturnType();
+        this.asyncResult = CompletionStage.class.isAssignableFrom(returnType) && returnType.isAssignableFrom(CompletableFuture.class);
+    }
+
+    /**
+     * 计划中是否没有任何限流检查
+     *
+     * @return 没有检查项时返回 true
+     */
+    public boolean isEmpty() {
+        return checks.isEmpty();
+    }
+}
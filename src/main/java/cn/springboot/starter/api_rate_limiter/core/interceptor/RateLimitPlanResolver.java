@@ -0,0 +1,325 @@
+package cn.springboot.starter.api_rate_limiter.core.interceptor;
+
+import cn.springboot.starter.api_rate_limiter.config.RateLimiterProperties;
+import cn.springboot.starter.api_rate_limiter.core.ConcurrencyLimiter;
+import cn.springboot.starter.api_rate_limiter.core.CountMinSketchRateLimiter;
+import cn.springboot.starter.api_rate_limiter.core.FixedWindowRateLimiter;
+import cn.springboot.starter.api_rate_limiter.core.LeakyBucketRateLimiter;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import cn.springboot.starter.api_rate_limiter.core.SlidingWindowCounterRateLimiter;
+import cn.springboot.starter.api_rate_limiter.core.SlidingWindowLogRateLimiter;
+import cn.springboot.starter.api_rate_limiter.core.TokenBucketRateLimiter;
+import cn.springboot.starter.api_rate_limiter.core.WeightedSlidingWindowRateLimiter;
+import cn.springboot.starter.api_rate_limiter.core.key.KeyGenerator;
+import cn.springboot.starter.api_rate_limiter.core.key.ParameterKeyGenerator;
+import cn.springboot.starter.api_rate_limiter.core.key.SpelKeyGenerator;
+import cn.springboot.starter.api_rate_limiter.core.key.web.KeyResolver;
+import cn.springboot.starter.api_rate_limiter.core.key.web.ResolverKeyGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.StandardReflectionParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.MergedAnnotation;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.util.Assert;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 限流计划解析器
+ * 将方法上的限流注解解析为 {@link RateLimitPlan} 并按方法缓存，解析时校验注解参数，
+ * 参数不合法时抛出 {@link IllegalStateException}。注解引用的命名规则更新后，所有已缓存的计划整体替换；
+ * 引用的命名规则不存在时直接使用注解属性，并在构建计划时记录警告
+ *
+ * @author Yuan Shenjian
+ */
+@Slf4j
+public class RateLimitPlanResolver implements BeanFactoryAware {
+
+    /**
+     * 所有受支持的限流注解类型
+     */
+    public static final List<Class<? extends Annotation>> ANNOTATION_TYPES = List.of(
+            FixedWindowRateLimiter.class,
+            TokenBucketRateLimiter.class,
+            LeakyBucketRateLimiter.class,
+            SlidingWindowLogRateLimiter.class,
+            SlidingWindowCounterRateLimiter.class,
+            WeightedSlidingWindowRateLimiter.class,
+            CountMinSketchRateLimiter.class,
+            ConcurrencyLimiter.class);
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+    private final StandardReflectionParameterNameDiscoverer discoverer = new StandardReflectionParameterNameDiscoverer();
+    private volatile Map<MethodClassKey, RateLimitPlan> planCache = new ConcurrentHashMap<>(256);
+    private volatile Map<String, RateLimiterProperties.Rule> rules;
+    private BeanFactory beanFactory;
+
+    /**
+     * 构造函数
+     */
+    public RateLimitPlanResolver() {
+        this(Map.of());
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param rules 命名限流规则
+     */
+    public RateLimitPlanResolver(Map<String, RateLimiterProperties.Rule> rules) {
+        this.rules = Map.copyOf(rules);
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * 获取方法的限流计划
+     *
+     * @param method 被调用的方法
+     * @param targetClass 目标类（可以为 null）
+     * @return 限流计划
+     */
+    public RateLimitPlan resolve(Method method, Class<?> targetClass) {
+        MethodClassKey cacheKey = new MethodClassKey(method, targetClass);
+        Map<MethodClassKey, RateLimitPlan> plans = planCache;
+        RateLimitPlan plan = plans.get(cacheKey);
+        if (plan == null) {
+            Map<String, RateLimiterProperties.Rule> currentRules = rules;
+            plan = plans.computeIfAbsent(cacheKey, k -> buildPlan(AopUtils.getMostSpecificMethod(method, targetClass), currentRules));
+        }
+        return plan;
+    }
+
+    /**
+     * 替换命名限流规则，并以写时复制方式重建所有已缓存的限流计划。
+     * 新计划全部构建成功后才一次性替换缓存，请求路径上不加锁；任一计划构建失败时保留原有规则和计划
+     *
+     * @param rules 新的命名限流规则
+     * @throws IllegalStateException 新规则导致注解参数不合法时抛出
+     */
+    public synchronized void updateRules(Map<String, RateLimiterProperties.Rule> rules) {
+        Map<String, RateLimiterProperties.Rule> newRules = Map.copyOf(rules);
+        Map<MethodClassKey, RateLimitPlan> current = planCache;
+        Map<MethodClassKey, RateLimitPlan> rebuilt = new ConcurrentHashMap<>(Math.max(256, current.size() * 2));
+        for (Map.Entry<MethodClassKey, RateLimitPlan> entry : current.entrySet()) {
+            rebuilt.put(entry.getKey(), buildPlan(entry.getValue().getMethod(), newRules));
+        }
+        this.rules = newRules;
+        this.planCache = rebuilt;
+    }
+
+    /**
+     * 构建限流计划，参数不合法时附带方法信息抛出 IllegalStateException
+     *
+     * @param method 声明限流注解的方法
+     * @param rules 命名限流规则
+     * @return 限流计划
+     */
+    private RateLimitPlan buildPlan(Method method, Map<String, RateLimiterProperties.Rule> rules) {
+        try {
+            return doBuildPlan(method, rules);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalStateException(ex.getMessage() + "，方法: " + method, ex);
+        }
+    }
+
+    /**
+     * 查找方法上的限流注解引用了、但当前未配置的命名规则
+     *
+     * @param method 声明限流注解的方法
+     * @return 不存在的规则名称，全部存在时返回空集合
+     */
+    public Set<String> findUnknownRules(Method method) {
+        Map<String, RateLimiterProperties.Rule> currentRules = rules;
+        Set<String> unknown = new LinkedHashSet<>();
+        MergedAnnotations annotations = MergedAnnotations.from(method, MergedAnnotations.SearchStrategy.TYPE_HIERARCHY);
+        for (Class<? extends Annotation> annotationType : ANNOTATION_TYPES) {
+            MergedAnnotation<? extends Annotation> annotation = annotations.get(annotationType);
+            if (annotation.isPresent()) {
+                String ruleName = annotation.getString("rule");
+                if (!ruleName.isEmpty() && !currentRules.containsKey(ruleName)) {
+                    unknown.add(ruleName);
+                }
+            }
+        }
+        return unknown;
+    }
+
+    /**
+     * 判断方法是否带有任意限流注解
+     *
+     * @param method 方法
+     * @return 带有限流注解时返回 true
+     */
+    public static boolean isRateLimited(Method method) {
+        for (Class<? extends Annotation> annotationType : ANNOTATION_TYPES) {
+            if (AnnotatedElementUtils.hasAnnotation(method, annotationType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 根据方法上的限流注解构建限流计划
+     *
+     * @param method 声明限流注解的方法
+     * @param rules 命名限流规则
+     * @return 限流计划
+     */
+    private RateLimitPlan doBuildPlan(Method method, Map<String, RateLimiterProperties.Rule> rules) {
+        List<RateLimitCheck> checks = new ArrayList<>(ANNOTATION_TYPES.size());
+        MergedAnnotations annotations = MergedAnnotations.from(method, MergedAnnotations.SearchStrategy.TYPE_HIERARCHY);
+        for (Class<? extends Annotation> annotationType : ANNOTATION_TYPES) {
+            MergedAnnotation<? extends Annotation> annotation = annotations.get(annotationType);
+            if (annotation.isPresent()) {
+                annotation = applyRule(method, annotation, rules);
+                RateLimitSpec spec = createSpec(annotation.synthesize()).inGroup(annotation.getString("group"));
+                // 采样上限只有部分限流注解声明
+                spec = spec.withSampling(annotation.getValue("sampleSize", Integer.class).orElse(0));
+                checks.add(createCheck(method, spec, annotation));
+            }
+        }
+        return new RateLimitPlan(method, checks);
+    }
+
+    /**
+     * 将注解引用的命名规则合并到注解属性中，规则不存在时记录警告并返回原注解
+     *
+     * @param method 声明限流注解的方法
+     * @param annotation 限流注解
+     * @param rules 命名限流规则
+     * @return 合并规则后的注解
+     */
+    private static <A extends Annotation> MergedAnnotation<A> applyRule(Method method, MergedAnnotation<A> annotation,
+                                                                        Map<String, RateLimiterProperties.Rule> rules) {
+        String ruleName = annotation.getString("rule");
+        if (ruleName.isEmpty()) {
+            return annotation;
+        }
+        RateLimiterProperties.Rule rule = rules.get(ruleName);
+        if (rule == null) {
+            log.warn("限流注解 @{} 引用的命名规则 {} 不存在，使用注解中的参数，方法: {}",
+                    annotation.getType().getSimpleName(), ruleName, method);
+            return annotation;
+        }
+        Map<String, Object> attributes = new LinkedHashMap<>(annotation.asMap());
+        rule.toAttributes().forEach((name, value) -> {
+            // 只覆盖注解声明了的属性，并转换为注解属性的类型
+            Object current = attributes.get(name);
+            if (current instanceof Integer) {
+                attributes.put(name, ((Number) value).intValue());
+            } else if (current instanceof Long) {
+                attributes.put(name, ((Number) value).longValue());
+            } else if (current instanceof String) {
+                attributes.put(name, value.toString());
+            }
+        });
+        return MergedAnnotation.of(annotation.getType(), attributes);
+    }
+
+    /**
+     * 根据限流注解创建限流规格
+     *
+     * @param annotation 限流注解
+     * @return 限流规格
+     */
+    private static RateLimitSpec createSpec(Annotation annotation) {
+        if (annotation instanceof FixedWindowRateLimiter fixedWindow) {
+            RateLimitSpec spec = RateLimitSpec.fixedWindow(fixedWindow.limit(), fixedWindow.windowSize());
+            spec = fixedWindow.localSync() ? spec.withLocalSync() : spec;
+            return fixedWindow.staggered() ? spec.withStaggeredWindow() : spec;
+        }
+        if (annotation instanceof TokenBucketRateLimiter tokenBucket) {
+            return RateLimitSpec.tokenBucket(tokenBucket.capacity(), tokenBucket.refillRate(), tokenBucket.refillIntervalSeconds())
+                    .withMaxWait(tokenBucket.maxWait())
+                    .withWarmup(tokenBucket.warmupPeriod());
+        }
+        if (annotation instanceof LeakyBucketRateLimiter leakyBucket) {
+            return RateLimitSpec.leakyBucket(leakyBucket.capacity(), leakyBucket.leakRate()).withMaxWait(leakyBucket.maxWait());
+        }
+        if (annotation instanceof SlidingWindowLogRateLimiter slidingLog) {
+            return RateLimitSpec.slidingWindowLog(slidingLog.limit(), slidingLog.windowSize());
+        }
+        if (annotation instanceof SlidingWindowCounterRateLimiter slidingCounter) {
+            RateLimitSpec spec = RateLimitSpec.slidingWindowCounter(slidingCounter.limit(), slidingCounter.windowSize(), slidingCounter.subWindows());
+            return slidingCounter.staggered() ? spec.withStaggeredWindow() : spec;
+        }
+        if (annotation instanceof WeightedSlidingWindowRateLimiter weightedWindow) {
+            RateLimitSpec spec = RateLimitSpec.weightedSlidingWindow(weightedWindow.limit(), weightedWindow.windowSize());
+            return weightedWindow.staggered() ? spec.withStaggeredWindow() : spec;
+        }
+        if (annotation instanceof CountMinSketchRateLimiter sketch) {
+            return RateLimitSpec.countMinSketch(sketch.limit(), sketch.windowSize(), sketch.width(), sketch.depth(), sketch.mode());
+        }
+        if (annotation instanceof ConcurrencyLimiter concurrency) {
+            return RateLimitSpec.concurrency(concurrency.maxInFlight(), concurrency.leaseSeconds());
+        }
+        throw new IllegalArgumentException("不支持的限流注解: " + annotation.annotationType().getName());
+    }
+
+    /**
+     * 创建限流检查项，注解参数不合法时抛出异常。
+     * 所有限流注解都声明了相同的通用属性（key、keyPrefix、keyParams、keyResolver、permits、message），此处统一读取
+     *
+     * @param method 声明限流注解的方法
+     * @param spec 限流规格
+     * @param annotation 限流注解
+     * @return 限流检查项
+     */
+    private RateLimitCheck createCheck(Method method, RateLimitSpec spec, MergedAnnotation<? extends Annotation> annotation) {
+        // 并发限流注解没有 permits 属性，每次调用固定占用一个槽位
+        int permits = annotation.getValue("permits", Integer.class).orElse(1);
+        Assert.isTrue(permits > 0, "限流注解参数不合法: permits 必须大于 0");
+        KeyGenerator keyGenerator = createKeyGenerator(method,
+                annotation.getString("key"), annotation.getString("keyPrefix"), annotation.getStringArray("keyParams"));
+        String keyResolver = annotation.getString("keyResolver");
+        if (!keyResolver.isEmpty()) {
+            Assert.state(beanFactory != null, "未设置 BeanFactory，无法查找 keyResolver: " + keyResolver);
+            keyGenerator = new ResolverKeyGenerator(keyGenerator, keyResolver, beanFactory.getBean(keyResolver, KeyResolver.class));
+        }
+        return new RateLimitCheck(spec, keyGenerator, permits, annotation.getString("message"));
+    }
+
+    /**
+     * 创建限流键生成器。
+     * 配置了 keyParams 时使用直接读取参数的生成器；配置了 key 时使用 SpEL 表达式；
+     * 都未配置时使用 keyPrefix，keyPrefix 也为空时使用 类名:方法名 作为键
+     *
+     * @param method 声明限流注解的方法
+     * @param keyTemplate 注解中的键模板
+     * @param keyPrefix 注解中的键前缀
+     * @param keyParams 注解中的键参数
+     * @return 限流键生成器
+     */
+    private KeyGenerator createKeyGenerator(Method method, String keyTemplate, String keyPrefix, String[] keyParams) {
+        boolean hasTemplate = keyTemplate != null && !keyTemplate.isEmpty();
+        if (keyParams.length > 0) {
+            Assert.isTrue(!hasTemplate, "限流注解参数不合法: key 与 keyParams 不能同时配置");
+            return new ParameterKeyGenerator(method, keyPrefix, keyParams, discoverer);
+        }
+        if (hasTemplate) {
+            Assert.isTrue(keyPrefix.isEmpty(), "限流注解参数不合法: keyPrefix 只能与 keyParams 一起使用");
+            return new SpelKeyGenerator(parser.parseExpression(keyTemplate), discoverer);
+        }
+        String defaultKey = !keyPrefix.isEmpty() ? keyPrefix : method.getDeclaringClass().getName() + ":" + method.getName();
+        return (m, args) -> defaultKey;
+    }
+}
@@ -0,0 +1,70 @@
+package cn.springboot.starter.api_rate_limiter.core.interceptor;
+
+import cn.springboot.starter.api_rate_limiter.config.RateLimiterProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+
+/**
+ * 命名限流规则刷新器
+ * 收到环境变更事件（Spring Cloud 的 EnvironmentChangeEvent，按类名匹配，不依赖 Spring Cloud）时
+ * 从当前环境重新绑定 rate-limiter.rules，并让限流计划解析器整体替换已缓存的计划。
+ * 也可以在修改了自定义属性源之后手动调用 {@link #refresh()}
+ *
+ * @author Yuan Shenjian
+ */
+@Slf4j
+public class RateLimitRulesRefresher implements ApplicationListener<ApplicationEvent> {
+
+    /**
+     * 规则的配置前缀
+     */
+    public static final String RULES_PREFIX = "rate-limiter.rules";
+
+    private static final String ENVIRONMENT_CHANGE_EVENT = "org.springframework.cloud.context.environment.EnvironmentChangeEvent";
+
+    private final RateLimitPlanResolver planResolver;
+    private final Environment environment;
+
+    /**
+     * 构造函数
+     *
+     * @param planResolver 限流计划解析器
+     * @param environment 应用环境
+     */
+    public RateLimitRulesRefresher(RateLimitPlanResolver planResolver, Environment environment) {
+        this.planResolver = planResolver;
+        this.environment = environment;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (ENVIRONMENT_CHANGE_EVENT.equals(event.getClass().getName())) {
+            refresh();
+        }
+    }
+
+    /**
+     * 从当前环境重新绑定命名限流规则并替换限流计划，新规则不合法时保留原有规则并记录日志
+     *
+     * @return 是否替换成功
+     */
+    public boolean refresh() {
+        Map<String, RateLimiterProperties.Rule> rules = Binder.get(environment)
+                .bind(RULES_PREFIX, Bindable.mapOf(String.class, RateLimiterProperties.Rule.class))
+                .orElse(Map.of());
+        try {
+            planResolver.updateRules(rules);
+            log.info("已刷新命名限流规则，共 {} 条", rules.size());
+            return true;
+        } catch (IllegalStateException ex) {
+            log.error("命名限流规则不合法，继续使用原有规则: {}", ex.getMessage());
+            return false;
+        }
+    }
+}
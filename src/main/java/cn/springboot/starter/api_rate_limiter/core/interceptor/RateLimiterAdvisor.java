@@ -0,0 +1,55 @@
+package cn.springboot.starter.api_rate_limiter.core.interceptor;
+
+import org.aopalliance.aop.Advice;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.AbstractPointcutAdvisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * 限流 Advisor
+ * 用一个切点匹配所有限流注解，使每个被限流的方法只经过一层拦截器
+ *
+ * @author Yuan Shenjian
+ */
+public class RateLimiterAdvisor extends AbstractPointcutAdvisor {
+
+    private final transient RateLimiterInterceptor interceptor;
+    private final transient Pointcut pointcut;
+
+    /**
+     * 构造函数
+     *
+     * @param interceptor 统一限流拦截器
+     */
+    public RateLimiterAdvisor(RateLimiterInterceptor interceptor) {
+        this.interceptor = interceptor;
+        this.pointcut = buildPointcut();
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        return interceptor;
+    }
+
+    /**
+     * 将所有限流注解的方法切点合并为一个切点
+     *
+     * @return 合并后的切点
+     */
+    private static Pointcut buildPointcut() {
+        ComposablePointcut result = null;
+        for (Class<? extends Annotation> annotationType : RateLimitPlanResolver.ANNOTATION_TYPES) {
+            Pointcut methodPointcut = new AnnotationMatchingPointcut(null, annotationType, true);
+            result = result == null ? new ComposablePointcut(methodPointcut) : result.union(methodPointcut);
+        }
+        return result;
+    }
+}
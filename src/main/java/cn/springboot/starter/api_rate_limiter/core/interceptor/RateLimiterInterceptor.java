@@ -0,0 +1,408 @@
+package cn.springboot.starter.api_rate_limiter.core.interceptor;
+
+import cn.springboot.starter.api_rate_limiter.config.RateLimiterProperties;
+import cn.springboot.starter.api_rate_limiter.core.ConcurrencyLease;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitAlgorithm;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import cn.springboot.starter.api_rate_limiter.core.RateLimiterClient;
+import cn.springboot.starter.api_rate_limiter.core.adaptive.AdaptiveLimitController;
+import cn.springboot.starter.api_rate_limiter.core.exception.RateLimitException;
+import cn.springboot.starter.api_rate_limiter.core.hotkey.HotKeyTracker;
+import cn.springboot.starter.api_rate_limiter.core.override.RateLimitOverrides;
+import cn.springboot.starter.api_rate_limiter.core.penalty.RateLimitPenaltyBox;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * 统一限流拦截器
+ * 拦截标记了任意限流注解的方法，按缓存的限流计划依次执行所有限流检查；
+ * 返回 CompletableFuture 的方法以异步方式检查，检查结果与方法调用组合成一个 Future
+ *
+ * @author Yuan Shenjian
+ */
+@Slf4j
+public class RateLimiterInterceptor implements MethodInterceptor {
+
+    private final RateLimitPlanResolver planResolver;
+    private final Supplier<RateLimiterClient> rateLimiterClient;
+    private final RateLimiterProperties properties;
+    private final Supplier<HotKeyTracker> hotKeyTracker;
+    private final Supplier<AdaptiveLimitController> adaptiveLimitController;
+    private final Supplier<RateLimitOverrides> limitOverrides;
+    private final Supplier<RateLimitPenaltyBox> penaltyBox;
+
+    /**
+     * 构造函数，由 {@link Builder} 调用
+     *
+     * @param builder 构建器
+     */
+    private RateLimiterInterceptor(Builder builder) {
+        this.planResolver = builder.planResolver;
+        this.rateLimiterClient = builder.rateLimiterClient;
+        this.properties = builder.properties;
+        this.hotKeyTracker = builder.hotKeyTracker;
+        this.adaptiveLimitController = builder.adaptiveLimitController;
+        this.limitOverrides = builder.limitOverrides;
+        this.penaltyBox = builder.penaltyBox;
+    }
+
+    /**
+     * 创建拦截器构建器，可选组件默认不启用
+     *
+     * @param planResolver 限流计划解析器
+     * @param rateLimiterClient 限流客户端（延迟获取，避免在创建代理时提前初始化 Redis）
+     * @param properties 限流器配置属性
+     * @return 构建器
+     */
+    public static Builder builder(RateLimitPlanResolver planResolver,
+                                  Supplier<RateLimiterClient> rateLimiterClient,
+                                  RateLimiterProperties properties) {
+        return new Builder(planResolver, rateLimiterClient, properties);
+    }
+
+    /**
+     * 拦截限流注解的方法调用并应用限流逻辑
+     *
+     * @param invocation 方法调用
+     * @return 如果允许则返回被拦截方法的结果，否则抛出 RateLimitException
+     * @throws Throwable 如果被拦截方法抛出异常
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        RateLimitPlan plan = planResolver.resolve(invocation.getMethod(), targetClass);
+        if (plan.isAsyncResult()) {
+            return invokeAsync(invocation, plan);
+        }
+
+        List<ConcurrencyLease> leases = null;
+        try {
+            for (RateLimitCheck check : plan.getChecks()) {
+                String key = generateKey(plan, check, invocation.getArguments());
+                if (isBanned(check, key)) {
+                    throw new RateLimitException(check.getMessage());
+                }
+                RateLimitSpec spec = effectiveSpec(check.getSpec(), key);
+                boolean allowed;
+                if (spec.getAlgorithm() == RateLimitAlgorithm.CONCURRENCY) {
+                    ConcurrencyLease lease = rateLimiterClient.get().tryAcquireLease(spec, key);
+                    allowed = lease != null;
+                    if (allowed) {
+                        if (leases == null) {
+                            leases = new ArrayList<>(plan.getChecks().size());
+                        }
+                        leases.add(lease);
+                    }
+                } else {
+                    allowed = rateLimiterClient.get().tryAcquire(spec, key, check.getPermits());
+                }
+                recordDecision(check, key, allowed);
+                if (!allowed) {
+                    log.warn("{}限流超出配额，键值: {}", check.getSpec().getAlgorithm().getDisplayName(), key);
+
+                    throw new RateLimitException(check.getMessage());
+                }
+            }
+
+            AdaptiveLimitController adaptive = adaptiveLimitController.get();
+            if (adaptive == null) {
+                return invocation.proceed();
+            }
+            long startTime = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                adaptive.recordLatency(System.nanoTime() - startTime);
+            }
+        } finally {
+            if (leases != null) {
+                releaseLeases(leases);
+            }
+        }
+    }
+
+    /**
+     * 以异步方式执行限流检查并调用返回 CompletableFuture 的方法，调用线程不等待 Redis 的结果。
+     * 检查按注解顺序依次进行，任一检查被拒绝时返回以 RateLimitException 失败的 Future；
+     * 并发限流槽位在方法返回的 Future 完成后释放
+     *
+     * @param invocation 方法调用
+     * @param plan 限流计划
+     * @return 方法结果的 Future
+     */
+    private CompletableFuture<Object> invokeAsync(MethodInvocation invocation, RateLimitPlan plan) {
+        RateLimiterClient client = rateLimiterClient.get();
+        List<ConcurrencyLease> leases = new ArrayList<>(0);
+        CompletableFuture<Void> checks = CompletableFuture.completedFuture(null);
+        for (RateLimitCheck check : plan.getChecks()) {
+            // 限流键在调用线程上生成，表达式和 KeyResolver 可能依赖请求上下文
+            String key = generateKey(plan, check, invocation.getArguments());
+            if (isBanned(check, key)) {
+                checks = checks.thenRun(() -> {
+                    throw new RateLimitException(check.getMessage());
+                });
+                break;
+            }
+            RateLimitSpec spec = effectiveSpec(check.getSpec(), key);
+            checks = checks.thenCompose(ignored -> acquireAsync(client, check, spec, key, leases));
+        }
+
+        // 检查全部在本地完成时直接在调用线程上执行方法，否则切换到异步执行器，避免在 Redis 驱动的 I/O 线程上执行业务代码
+        CompletableFuture<Object> result = checks.isDone()
+                ? checks.thenCompose(ignored -> proceedAsync(invocation))
+                : checks.thenComposeAsync(ignored -> proceedAsync(invocation), client.getAsyncExecutor());
+        // 释放槽位使用异步命令，可以直接在完成 Future 的线程上发起
+        result.whenComplete((value, ex) -> releaseLeasesAsync(leases));
+        return result;
+    }
+
+    /**
+     * 异步执行一项限流检查
+     *
+     * @param client 限流客户端
+     * @param check 限流检查项
+     * @param spec 生效的限流规格
+     * @param key 限流键
+     * @param leases 已获取的租约
+     * @return 检查通过时正常完成、被拒绝时以 RateLimitException 失败的 Future
+     */
+    private CompletableFuture<Void> acquireAsync(RateLimiterClient client, RateLimitCheck check, RateLimitSpec spec,
+                                                 String key, List<ConcurrencyLease> leases) {
+        CompletableFuture<Boolean> allowed;
+        if (spec.getAlgorithm() == RateLimitAlgorithm.CONCURRENCY) {
+            allowed = client.tryAcquireLeaseAsync(spec, key).thenApply(lease -> {
+                if (lease == null) {
+                    return false;
+                }
+                leases.add(lease);
+                return true;
+            });
+        } else {
+            allowed = client.tryAcquireAsync(spec, key, check.getPermits());
+        }
+        return allowed.thenAccept(result -> {
+            recordDecision(check, key, result);
+            if (!result) {
+                log.warn("{}限流超出配额，键值: {}", check.getSpec().getAlgorithm().getDisplayName(), key);
+
+                throw new RateLimitException(check.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 调用被拦截的方法，并在其返回的 Future 完成时记录处理耗时
+     *
+     * @param invocation 方法调用
+     * @return 方法结果的 Future
+     */
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Object> proceedAsync(MethodInvocation invocation) {
+        long startTime = System.nanoTime();
+        CompletableFuture<Object> result;
+        try {
+            Object value = invocation.proceed();
+            result = value != null
+                    ? ((CompletionStage<Object>) value).toCompletableFuture()
+                    : CompletableFuture.completedFuture(null);
+        } catch (Throwable ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        AdaptiveLimitController adaptive = adaptiveLimitController.get();
+        if (adaptive != null) {
+            result.whenComplete((value, ex) -> adaptive.recordLatency(System.nanoTime() - startTime));
+        }
+        return result;
+    }
+
+    /**
+     * 判断限流键是否处于惩罚封禁中，只读本地缓存，不访问 Redis
+     *
+     * @param check 限流检查项
+     * @param key 限流键
+     * @return 处于封禁中时返回 true
+     */
+    private boolean isBanned(RateLimitCheck check, String key) {
+        RateLimitPenaltyBox box = penaltyBox.get();
+        if (box == null || !box.isBanned(key)) {
+            return false;
+        }
+        HotKeyTracker tracker = hotKeyTracker.get();
+        if (tracker != null) {
+            tracker.record(check.getSpec().getAlgorithm(), key, false);
+        }
+        log.debug("限流键处于封禁中，键值: {}", key);
+        return true;
+    }
+
+    /**
+     * 记录一次限流判断：更新热点键统计，被拒绝时累计惩罚封禁的拒绝次数
+     *
+     * @param check 限流检查项
+     * @param key 限流键
+     * @param allowed 是否获得了许可
+     */
+    private void recordDecision(RateLimitCheck check, String key, boolean allowed) {
+        HotKeyTracker tracker = hotKeyTracker.get();
+        if (tracker != null) {
+            tracker.record(check.getSpec().getAlgorithm(), key, allowed);
+        }
+        if (!allowed) {
+            RateLimitPenaltyBox box = penaltyBox.get();
+            if (box != null) {
+                box.recordRejection(key);
+            }
+        }
+    }
+
+    /**
+     * 先应用按限流键的覆盖值，再按自适应限流系数收紧限制。本地计数草图以规格区分草图实例，不参与覆盖和自适应调整
+     *
+     * @param spec 注解中配置的限流规格
+     * @param key 限流键
+     * @return 生效的限流规格
+     */
+    private RateLimitSpec effectiveSpec(RateLimitSpec spec, String key) {
+        RateLimitOverrides overrides = limitOverrides.get();
+        RateLimitSpec effective = overrides != null ? overrides.apply(spec, key) : spec;
+        AdaptiveLimitController adaptive = adaptiveLimitController.get();
+        if (adaptive == null || spec.getAlgorithm() == RateLimitAlgorithm.COUNT_MIN_SKETCH) {
+            return effective;
+        }
+        return effective.withLimit(adaptive.effectiveLimit(effective.getLimit()));
+    }
+
+    /**
+     * 释放并发限流槽位，释放失败时槽位会在租约到期后被回收
+     *
+     * @param leases 已获取的租约
+     */
+    private void releaseLeases(List<ConcurrencyLease> leases) {
+        for (ConcurrencyLease lease : leases) {
+            try {
+                lease.close();
+            } catch (RuntimeException ex) {
+                log.warn("释放并发限流槽位失败，槽位将在租约到期后回收，键值: {}", lease.getKey(), ex);
+            }
+        }
+    }
+
+    /**
+     * 以非阻塞方式释放并发限流槽位，释放失败时槽位会在租约到期后被回收
+     *
+     * @param leases 已获取的租约
+     */
+    private void releaseLeasesAsync(List<ConcurrencyLease> leases) {
+        for (ConcurrencyLease lease : leases) {
+            lease.closeAsync().whenComplete((ignored, ex) -> {
+                if (ex != null) {
+                    log.warn("释放并发限流槽位失败，槽位将在租约到期后回收，键值: {}", lease.getKey(), ex);
+                }
+            });
+        }
+    }
+
+    /**
+     * 生成限流键并校验其长度
+     *
+     * @param plan 限流计划
+     * @param check 限流检查项
+     * @param args 方法参数
+     * @return 限流键
+     */
+    private String generateKey(RateLimitPlan plan, RateLimitCheck check, Object[] args) {
+        String key = check.getKeyGenerator().generate(plan.getMethod(), args);
+
+        // 验证键长度，防止恶意长键攻击
+        if (key.length() > properties.getMaxKeyLength()) {
+            log.warn("限流键长度超过最大限制: {} > {}, 截断键值", key.length(), properties.getMaxKeyLength());
+            key = key.substring(0, properties.getMaxKeyLength());
+        }
+
+        return key;
+    }
+
+    /**
+     * 限流拦截器构建器
+     * 可选组件都以延迟获取的方式传入，获取结果为 null 时表示未启用
+     */
+    public static final class Builder {
+
+        private final RateLimitPlanResolver planResolver;
+        private final Supplier<RateLimiterClient> rateLimiterClient;
+        private final RateLimiterProperties properties;
+        private Supplier<HotKeyTracker> hotKeyTracker = () -> null;
+        private Supplier<AdaptiveLimitController> adaptiveLimitController = () -> null;
+        private Supplier<RateLimitOverrides> limitOverrides = () -> null;
+        private Supplier<RateLimitPenaltyBox> penaltyBox = () -> null;
+
+        private Builder(RateLimitPlanResolver planResolver,
+                        Supplier<RateLimiterClient> rateLimiterClient,
+                        RateLimiterProperties properties) {
+            this.planResolver = planResolver;
+            this.rateLimiterClient = rateLimiterClient;
+            this.properties = properties;
+        }
+
+        /**
+         * 设置热点键跟踪器
+         *
+         * @param hotKeyTracker 热点键跟踪器（延迟获取，结果可以为 null）
+         * @return 构建器
+         */
+        public Builder hotKeyTracker(Supplier<HotKeyTracker> hotKeyTracker) {
+            this.hotKeyTracker = hotKeyTracker;
+            return this;
+        }
+
+        /**
+         * 设置自适应限流控制器
+         *
+         * @param adaptiveLimitController 自适应限流控制器（延迟获取，结果可以为 null）
+         * @return 构建器
+         */
+        public Builder adaptiveLimitController(Supplier<AdaptiveLimitController> adaptiveLimitController) {
+            this.adaptiveLimitController = adaptiveLimitController;
+            return this;
+        }
+
+        /**
+         * 设置按限流键覆盖限制数量
+         *
+         * @param limitOverrides 限流覆盖值（延迟获取，结果可以为 null）
+         * @return 构建器
+         */
+        public Builder limitOverrides(Supplier<RateLimitOverrides> limitOverrides) {
+            this.limitOverrides = limitOverrides;
+            return this;
+        }
+
+        /**
+         * 设置惩罚封禁
+         *
+         * @param penaltyBox 惩罚封禁（延迟获取，结果可以为 null）
+         * @return 构建器
+         */
+        public Builder penaltyBox(Supplier<RateLimitPenaltyBox> penaltyBox) {
+            this.penaltyBox = penaltyBox;
+            return this;
+        }
+
+        /**
+         * 创建限流拦截器
+         *
+         * @return 限流拦截器
+         */
+        public RateLimiterInterceptor build() {
+            return new RateLimiterInterceptor(this);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package cn.springboot.starter.api_rate_limiter.core.key;
+
+import java.lang.reflect.Method;
+
+/**
+ * 限流键生成器
+ * 在解析方法限流计划时创建一次，之后每次调用只负责根据参数生成键
+ *
+ * @author Yuan Shenjian
+ */
+@FunctionalInterface
+public interface KeyGenerator {
+
+    /**
+     * 生成限流键
+     *
+     * @param method 被调用的方法
+     * @param args 方法参数
+     * @return 限流键
+     */
+    String generate(Method method, Object[] args);
+}
@@ -0,0 +1,85 @@
+package cn.springboot.starter.api_rate_limiter.core.key;
+
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.util.Assert;
+
+import java.lang.reflect.Method;
+
+/**
+ * 基于参数名或参数下标的限流键生成器
+ * 在创建时将 keyParams 解析为参数下标，调用时直接读取参数并拼接，不做任何表达式求值，
+ * 生成的键格式为 keyPrefix + 参数1 + ":" + 参数2 ...
+ *
+ * @author Yuan Shenjian
+ */
+public class ParameterKeyGenerator implements KeyGenerator {
+
+    /**
+     * 线程复用的 StringBuilder 超过该容量后不再复用，避免长期持有大缓冲区
+     */
+    private static final int MAX_REUSABLE_CAPACITY = 1024;
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private final String keyPrefix;
+    private final int[] parameterIndexes;
+
+    /**
+     * 构造函数
+     *
+     * @param method 声明限流注解的方法
+     * @param keyPrefix 键前缀
+     * @param keyParams 参数名或参数下标（例如 "userId" 或 "0"）
+     * @param discoverer 参数名发现器
+     */
+    public ParameterKeyGenerator(Method method, String keyPrefix, String[] keyParams, ParameterNameDiscoverer discoverer) {
+        this.keyPrefix = keyPrefix;
+        this.parameterIndexes = new int[keyParams.length];
+        String[] parameterNames = discoverer.getParameterNames(method);
+        for (int i = 0; i < keyParams.length; i++) {
+            parameterIndexes[i] = resolveIndex(method, keyParams[i], parameterNames);
+        }
+    }
+
+    @Override
+    public String generate(Method method, Object[] args) {
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        builder.append(keyPrefix);
+        for (int i = 0; i < parameterIndexes.length; i++) {
+            if (i > 0) {
+                builder.append(':');
+            }
+            builder.append(args[parameterIndexes[i]]);
+        }
+        String key = builder.toString();
+        if (builder.capacity() > MAX_REUSABLE_CAPACITY) {
+            BUILDER.remove();
+        }
+        return key;
+    }
+
+    /**
+     * 将参数名或参数下标解析为参数下标
+     *
+     * @param method 声明限流注解的方法
+     * @param keyParam 参数名或参数下标
+     * @param parameterNames 方法的参数名（可能为 null）
+     * @return 参数下标
+     */
+    private static int resolveIndex(Method method, String keyParam, String[] parameterNames) {
+        int parameterCount = method.getParameterCount();
+        if (!keyParam.isEmpty() && keyParam.chars().allMatch(Character::isDigit)) {
+            int index = Integer.parseInt(keyParam);
+            Assert.isTrue(index < parameterCount, "限流注解参数不合法: keyParams 下标越界 " + keyParam);
+            return index;
+        }
+        Assert.notNull(parameterNames, "限流注解参数不合法: 无法获取方法参数名，请使用 -parameters 编译或改用参数下标");
+        for (int i = 0; i < parameterNames.length; i++) {
+            if (parameterNames[i].equals(keyParam)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("限流注解参数不合法: keyParams 中的参数不存在 " + keyParam);
+    }
+}
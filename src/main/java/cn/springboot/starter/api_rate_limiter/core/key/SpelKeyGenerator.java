@@ -0,0 +1,37 @@
+package cn.springboot.starter.api_rate_limiter.core.key;
+
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+
+import java.lang.reflect.Method;
+
+/**
+ * 基于 SpEL 表达式的限流键生成器
+ * 表达式在创建时解析一次，调用时只做求值
+ *
+ * @author Yuan Shenjian
+ */
+public class SpelKeyGenerator implements KeyGenerator {
+
+    private final Expression expression;
+    private final ParameterNameDiscoverer discoverer;
+
+    /**
+     * 构造函数
+     *
+     * @param expression 已解析的键表达式
+     * @param discoverer 参数名发现器
+     */
+    public SpelKeyGenerator(Expression expression, ParameterNameDiscoverer discoverer) {
+        this.expression = expression;
+        this.discoverer = discoverer;
+    }
+
+    @Override
+    public String generate(Method method, Object[] args) {
+        EvaluationContext context = new MethodBasedEvaluationContext(null, method, args, discoverer);
+        return expression.getValue(context, String.class);
+    }
+}
@@ -0,0 +1,27 @@
+package cn.springboot.starter.api_rate_limiter.core.key.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 基于请求头的限流键解析器，例如按 API Key 限流
+ *
+ * @author Yuan Shenjian
+ */
+public class HeaderKeyResolver implements KeyResolver {
+
+    private final String headerName;
+
+    /**
+     * 构造函数
+     *
+     * @param headerName 请求头名称
+     */
+    public HeaderKeyResolver(String headerName) {
+        this.headerName = headerName;
+    }
+
+    @Override
+    public String resolve(HttpServletRequest request) {
+        return request.getHeader(headerName);
+    }
+}
@@ -0,0 +1,22 @@
+package cn.springboot.starter.api_rate_limiter.core.key.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 基于 HTTP 请求的限流键解析器 SPI
+ * 在注解的 keyResolver 属性中以 Bean 名称引用，解析结果会追加到限流键之后，
+ * 同一请求内的解析结果会被缓存，叠加多个限流注解时不会重复解析
+ *
+ * @author Yuan Shenjian
+ */
+@FunctionalInterface
+public interface KeyResolver {
+
+    /**
+     * 从当前请求中解析限流键的组成部分
+     *
+     * @param request 当前 HTTP 请求
+     * @return 解析结果，无法解析时返回 null
+     */
+    String resolve(HttpServletRequest request);
+}
@@ -0,0 +1,20 @@
+package cn.springboot.starter.api_rate_limiter.core.key.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.security.Principal;
+
+/**
+ * 基于已认证用户的限流键解析器
+ * 读取 {@link HttpServletRequest#getUserPrincipal()}，Spring Security 等认证框架都会填充该值
+ *
+ * @author Yuan Shenjian
+ */
+public class PrincipalKeyResolver implements KeyResolver {
+
+    @Override
+    public String resolve(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? principal.getName() : null;
+    }
+}
@@ -0,0 +1,141 @@
+package cn.springboot.starter.api_rate_limiter.core.key.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于客户端 IP 的限流键解析器
+ * 只有当直接连接方属于受信任代理时才读取 X-Forwarded-For，并从右向左跳过受信任代理，
+ * 取第一个不受信任的地址作为客户端 IP，防止客户端伪造请求头绕过限流
+ *
+ * @author Yuan Shenjian
+ */
+public class RemoteAddressKeyResolver implements KeyResolver {
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private final List<AddressRange> trustedProxies = new ArrayList<>();
+
+    /**
+     * 构造函数
+     *
+     * @param trustedProxies 受信任代理的 IP 或 CIDR 网段（如 10.0.0.0/8）
+     */
+    public RemoteAddressKeyResolver(List<String> trustedProxies) {
+        for (String trustedProxy : trustedProxies) {
+            this.trustedProxies.add(AddressRange.parse(trustedProxy.trim()));
+        }
+    }
+
+    @Override
+    public String resolve(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (trustedProxies.isEmpty() || !isTrusted(remoteAddress)) {
+            return remoteAddress;
+        }
+
+        String forwardedFor = request.getHeader(X_FORWARDED_FOR);
+        if (!StringUtils.hasText(forwardedFor)) {
+            return remoteAddress;
+        }
+        String[] hops = StringUtils.commaDelimitedListToStringArray(forwardedFor);
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!hop.isEmpty() && !isTrusted(hop)) {
+                return hop;
+            }
+        }
+        // 链路上全部是受信任代理时，取最左侧的地址
+        return hops.length > 0 ? hops[0].trim() : remoteAddress;
+    }
+
+    /**
+     * 判断地址是否属于受信任代理
+     *
+     * @param address IP 地址
+     * @return 属于受信任代理时返回 true
+     */
+    private boolean isTrusted(String address) {
+        byte[] bytes = AddressRange.toBytes(address);
+        if (bytes == null) {
+            return false;
+        }
+        for (AddressRange range : trustedProxies) {
+            if (range.contains(bytes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * IP 地址段（单个 IP 或 CIDR）
+     */
+    private static final class AddressRange {
+
+        private final byte[] network;
+        private final int prefixLength;
+
+        private AddressRange(byte[] network, int prefixLength) {
+            this.network = network;
+            this.prefixLength = prefixLength;
+        }
+
+        static AddressRange parse(String value) {
+            int slash = value.indexOf('/');
+            String address = slash >= 0 ? value.substring(0, slash) : value;
+            byte[] bytes = toBytes(address);
+            if (bytes == null) {
+                throw new IllegalArgumentException("受信任代理地址不合法: " + value);
+            }
+            int prefixLength = slash >= 0 ? Integer.parseInt(value.substring(slash + 1)) : bytes.length * 8;
+            return new AddressRange(bytes, prefixLength);
+        }
+
+        boolean contains(byte[] address) {
+            if (address.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (address[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = (0xFF << (8 - remainingBits)) & 0xFF;
+            return (address[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+
+        /**
+         * 将 IP 字面量转换为字节数组，只接受 IP 字面量，不会触发 DNS 解析
+         *
+         * @param address IP 字面量
+         * @return 字节数组，不是合法 IP 字面量时返回 null
+         */
+        static byte[] toBytes(String address) {
+            if (address == null || address.isEmpty()) {
+                return null;
+            }
+            for (int i = 0; i < address.length(); i++) {
+                char c = address.charAt(i);
+                if (Character.digit(c, 16) < 0 && c != '.' && c != ':') {
+                    return null;
+                }
+            }
+            try {
+                return InetAddress.getByName(address).getAddress();
+            } catch (UnknownHostException ex) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package cn.springboot.starter.api_rate_limiter.core.key.web;
+
+import cn.springboot.starter.api_rate_limiter.core.key.KeyGenerator;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+
+/**
+ * 结合 {@link KeyResolver} 的限流键生成器
+ * 生成的键格式为 基础键 + ":" + 解析结果，解析结果以请求属性的形式缓存在当前请求中
+ *
+ * @author Yuan Shenjian
+ */
+public class ResolverKeyGenerator implements KeyGenerator {
+
+    /**
+     * 缓存解析结果的请求属性名前缀
+     */
+    private static final String ATTRIBUTE_PREFIX = ResolverKeyGenerator.class.getName() + ".";
+
+    /**
+     * 无法解析时使用的占位值
+     */
+    private static final String UNKNOWN = "unknown";
+
+    private final KeyGenerator delegate;
+    private final KeyResolver keyResolver;
+    private final String cacheAttribute;
+
+    /**
+     * 构造函数
+     *
+     * @param delegate 生成基础键的生成器
+     * @param resolverName 解析器的 Bean 名称
+     * @param keyResolver 限流键解析器
+     */
+    public ResolverKeyGenerator(KeyGenerator delegate, String resolverName, KeyResolver keyResolver) {
+        this.delegate = delegate;
+        this.keyResolver = keyResolver;
+        this.cacheAttribute = ATTRIBUTE_PREFIX + resolverName;
+    }
+
+    @Override
+    public String generate(Method method, Object[] args) {
+        return delegate.generate(method, args) + ":" + resolve();
+    }
+
+    /**
+     * 解析当前请求，同一请求内只解析一次
+     *
+     * @return 解析结果
+     */
+    private String resolve() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            throw new IllegalStateException("keyResolver 只能在 HTTP 请求线程中使用");
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        Object cached = request.getAttribute(cacheAttribute);
+        if (cached != null) {
+            return (String) cached;
+        }
+        String resolved = keyResolver.resolve(request);
+        if (resolved == null || resolved.isEmpty()) {
+            resolved = UNKNOWN;
+        }
+        request.setAttribute(cacheAttribute, resolved);
+        return resolved;
+    }
+}
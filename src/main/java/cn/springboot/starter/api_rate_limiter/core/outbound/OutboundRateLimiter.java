@@ -0,0 +1,139 @@
+package cn.springboot.starter.api_rate_limiter.core.outbound;
+
+import cn.springboot.starter.api_rate_limiter.config.RateLimiterProperties;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import cn.springboot.starter.api_rate_limiter.core.RateLimiterClient;
+import cn.springboot.starter.api_rate_limiter.core.exception.RateLimitException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 出站调用限流器
+ * 按 rate-limiter.outbound 下配置的命名限流规则，在调用第三方接口之前获取令牌。
+ * 每条规则对应一个全局共享的令牌桶，整个集群对同一合作方的调用共用一份配额；
+ * 规则配置了最长等待时间时排队等待令牌，否则立即失败
+ *
+ * @author Yuan Shenjian
+ */
+@Slf4j
+public class OutboundRateLimiter {
+
+    /**
+     * 出站限流键前缀
+     */
+    public static final String KEY_PREFIX = "rate_limiter:outbound:";
+
+    private final RateLimiterClient rateLimiterClient;
+    private final List<Rule> rules;
+
+    /**
+     * 构造函数
+     *
+     * @param rateLimiterClient 限流客户端
+     * @param limits 命名出站限流规则
+     */
+    public OutboundRateLimiter(RateLimiterClient rateLimiterClient, Map<String, RateLimiterProperties.Outbound> limits) {
+        this.rateLimiterClient = rateLimiterClient;
+        List<Rule> configured = new ArrayList<>(limits.size());
+        limits.forEach((name, limit) -> configured.add(new Rule(name, limit)));
+        this.rules = List.copyOf(configured);
+    }
+
+    /**
+     * 是否没有配置任何出站限流规则
+     *
+     * @return 没有规则时返回 true
+     */
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * 为一次出站调用获取所有匹配规则的令牌，需要等待时阻塞调用线程
+     *
+     * @param uri 请求地址
+     * @throws RateLimitException 任一规则的配额不足时抛出
+     */
+    public void acquire(URI uri) {
+        for (Rule rule : rules) {
+            if (rule.matches(uri) && !rateLimiterClient.tryAcquire(rule.spec, rule.key)) {
+                throw rejected(rule, uri);
+            }
+        }
+    }
+
+    /**
+     * 以异步方式为一次出站调用获取所有匹配规则的令牌
+     *
+     * @param uri 请求地址
+     * @return 获取成功时正常完成、配额不足时以 RateLimitException 失败的 Future
+     */
+    public CompletableFuture<Void> acquireAsync(URI uri) {
+        CompletableFuture<Void> result = CompletableFuture.completedFuture(null);
+        for (Rule rule : rules) {
+            if (rule.matches(uri)) {
+                result = result.thenCompose(ignored -> rateLimiterClient.tryAcquireAsync(rule.spec, rule.key, 1))
+                        .thenAccept(allowed -> {
+                            if (!allowed) {
+                                throw rejected(rule, uri);
+                            }
+                        });
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 创建配额不足的异常
+     *
+     * @param rule 出站限流规则
+     * @param uri 请求地址
+     * @return 限流异常
+     */
+    private static RateLimitException rejected(Rule rule, URI uri) {
+        log.warn("出站调用超出限流配额，规则: {}，地址: {}", rule.name, uri);
+        return new RateLimitException("调用外部接口过于频繁，超出限流规则 " + rule.name + " 的配额");
+    }
+
+    /**
+     * 出站限流规则
+     */
+    private static final class Rule {
+
+        private final String name;
+        private final String key;
+        private final List<String> hosts;
+        private final String pathPrefix;
+        private final RateLimitSpec spec;
+
+        private Rule(String name, RateLimiterProperties.Outbound limit) {
+            this.name = name;
+            this.key = KEY_PREFIX + name;
+            this.hosts = limit.getHosts().stream().map(host -> host.toLowerCase(Locale.ROOT)).toList();
+            this.pathPrefix = limit.getPathPrefix();
+            this.spec = RateLimitSpec.tokenBucket(limit.getCapacity(), limit.getRefillRate(), limit.getRefillIntervalSeconds())
+                    .withMaxWait(limit.getMaxWait().toMillis())
+                    .inGroup(limit.getGroup());
+        }
+
+        /**
+         * 判断请求地址是否匹配规则，未配置主机时匹配所有主机，未配置路径前缀时匹配所有路径
+         *
+         * @param uri 请求地址
+         * @return 是否匹配
+         */
+        private boolean matches(URI uri) {
+            if (!hosts.isEmpty() && (uri.getHost() == null || !hosts.contains(uri.getHost().toLowerCase(Locale.ROOT)))) {
+                return false;
+            }
+            return pathPrefix == null || pathPrefix.isEmpty()
+                    || (uri.getRawPath() != null && uri.getRawPath().startsWith(pathPrefix));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package cn.springboot.starter.api_rate_limiter.core.outbound;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * RestTemplate / RestClient 出站限流拦截器
+ * 发送请求前按请求地址获取匹配的出站限流规则的令牌，配额不足时抛出 RateLimitException，请求不会被发送
+ *
+ * @author Yuan Shenjian
+ */
+public class RateLimitingClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final OutboundRateLimiter outboundRateLimiter;
+
+    /**
+     * 构造函数
+     *
+     * @param outboundRateLimiter 出站调用限流器
+     */
+    public RateLimitingClientHttpRequestInterceptor(OutboundRateLimiter outboundRateLimiter) {
+        this.outboundRateLimiter = outboundRateLimiter;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        outboundRateLimiter.acquire(request.getURI());
+        return execution.execute(request, body);
+    }
+}
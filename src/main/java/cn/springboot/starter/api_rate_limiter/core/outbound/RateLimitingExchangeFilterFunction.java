@@ -0,0 +1,34 @@
+package cn.springboot.starter.api_rate_limiter.core.outbound;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebClient 出站限流过滤器
+ * 订阅时以异步方式获取匹配的出站限流规则的令牌，等待令牌不占用事件循环线程；
+ * 配额不足时以 RateLimitException 结束，请求不会被发送
+ *
+ * @author Yuan Shenjian
+ */
+public class RateLimitingExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private final OutboundRateLimiter outboundRateLimiter;
+
+    /**
+     * 构造函数
+     *
+     * @param outboundRateLimiter 出站调用限流器
+     */
+    public RateLimitingExchangeFilterFunction(OutboundRateLimiter outboundRateLimiter) {
+        this.outboundRateLimiter = outboundRateLimiter;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.fromFuture(() -> outboundRateLimiter.acquireAsync(request.url()))
+                .then(Mono.defer(() -> next.exchange(request)));
+    }
+}
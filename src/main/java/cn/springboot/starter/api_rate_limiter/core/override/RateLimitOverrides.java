@@ -0,0 +1,247 @@
+package cn.springboot.starter.api_rate_limiter.core.override;
+
+import cn.springboot.starter.api_rate_limiter.core.RateLimitAlgorithm;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按限流键覆盖限制数量
+ * 覆盖值保存在 Redis 哈希中（字段为限流键，值为限制数量），也可以在配置文件中声明，Redis 中的值优先。
+ * 每个实例在本地缓存完整的覆盖表，请求路径上只读本地缓存，不会为了查询限制数量额外访问 Redis；
+ * 修改覆盖值时通过发布订阅通知所有实例刷新对应的键，并定期全量刷新，弥补断线期间丢失的通知。
+ * 订阅注册在自动配置共享的监听容器上，容器的启动与关闭由 Spring 管理
+ *
+ * @author Yuan Shenjian
+ */
+@Slf4j
+public class RateLimitOverrides implements SmartLifecycle {
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, Long> declaredLimits;
+    private final String hashKey;
+    private final String channel;
+    private final Duration refreshInterval;
+    private final RedisMessageListenerContainer listenerContainer;
+    private volatile Map<String, Long> redisLimits = Map.of();
+    private volatile MessageListener listener;
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * 构造函数
+     *
+     * @param redisTemplate 保存覆盖值的 Redis 模板（为 null 时只使用配置文件中声明的覆盖值）
+     * @param declaredLimits 配置文件中声明的覆盖值
+     * @param hashKey 保存覆盖值的 Redis 哈希键
+     * @param channel 覆盖值变更的通知频道
+     * @param refreshInterval 全量刷新间隔
+     * @param listenerContainer 订阅变更通知的监听容器（为 null 时只依靠定期全量刷新）
+     */
+    public RateLimitOverrides(StringRedisTemplate redisTemplate, Map<String, Long> declaredLimits,
+                              String hashKey, String channel, Duration refreshInterval,
+                              RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.declaredLimits = Map.copyOf(declaredLimits);
+        this.hashKey = hashKey;
+        this.channel = channel;
+        this.refreshInterval = refreshInterval;
+        this.listenerContainer = listenerContainer;
+    }
+
+    /**
+     * 获取限流键的覆盖限制数量
+     *
+     * @param key 限流键
+     * @return 覆盖限制数量，没有覆盖时返回 null
+     */
+    public Long getLimit(String key) {
+        Long limit = redisLimits.get(key);
+        return limit != null ? limit : declaredLimits.get(key);
+    }
+
+    /**
+     * 将限流键的覆盖值应用到限流规格。本地计数草图以规格区分草图实例，不支持按键覆盖
+     *
+     * @param spec 限流规格
+     * @param key 限流键
+     * @return 应用覆盖值后的限流规格，没有覆盖时返回原规格
+     */
+    public RateLimitSpec apply(RateLimitSpec spec, String key) {
+        if (spec.getAlgorithm() == RateLimitAlgorithm.COUNT_MIN_SKETCH) {
+            return spec;
+        }
+        Long limit = getLimit(key);
+        return limit != null ? spec.withLimit(limit) : spec;
+    }
+
+    /**
+     * 设置限流键的覆盖限制数量并通知所有实例
+     *
+     * @param key 限流键
+     * @param limit 限制数量
+     */
+    public void setLimit(String key, long limit) {
+        Assert.isTrue(limit > 0, "覆盖的限制数量必须大于 0");
+        Assert.state(redisTemplate != null, "未配置 Redis，无法保存覆盖值");
+        redisTemplate.opsForHash().put(hashKey, key, String.valueOf(limit));
+        redisTemplate.convertAndSend(channel, key);
+    }
+
+    /**
+     * 删除限流键的覆盖限制数量并通知所有实例
+     *
+     * @param key 限流键
+     */
+    public void removeLimit(String key) {
+        Assert.state(redisTemplate != null, "未配置 Redis，无法删除覆盖值");
+        redisTemplate.opsForHash().delete(hashKey, key);
+        redisTemplate.convertAndSend(channel, key);
+    }
+
+    /**
+     * 从 Redis 全量加载覆盖表
+     */
+    public synchronized void refresh() {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(hashKey);
+        Map<String, Long> limits = new HashMap<>(entries.size());
+        entries.forEach((field, value) -> {
+            Long limit = parseLimit(String.valueOf(field), value);
+            if (limit != null) {
+                limits.put(String.valueOf(field), limit);
+            }
+        });
+        this.redisLimits = Map.copyOf(limits);
+    }
+
+    /**
+     * 重新加载单个限流键的覆盖值，以写时复制方式替换本地缓存
+     *
+     * @param key 限流键
+     */
+    private synchronized void refresh(String key) {
+        Long limit = parseLimit(key, redisTemplate.opsForHash().get(hashKey, key));
+        Map<String, Long> limits = new HashMap<>(redisLimits);
+        if (limit != null) {
+            limits.put(key, limit);
+        } else {
+            limits.remove(key);
+        }
+        this.redisLimits = Map.copyOf(limits);
+    }
+
+    @Override
+    public void start() {
+        if (redisTemplate == null) {
+            return;
+        }
+        safeRefresh();
+
+        if (listenerContainer != null) {
+            MessageListener changeListener = (message, pattern) -> {
+                String key = new String(message.getBody(), StandardCharsets.UTF_8);
+                try {
+                    if (key.isEmpty()) {
+                        refresh();
+                    } else {
+                        refresh(key);
+                    }
+                } catch (RuntimeException ex) {
+                    log.warn("刷新限流覆盖值失败，键值: {}，等待下一次全量刷新: {}", key, ex.getMessage());
+                }
+            };
+            try {
+                listenerContainer.addMessageListener(changeListener, new ChannelTopic(channel));
+                listenerContainer.start();
+            } catch (RuntimeException ex) {
+                // 订阅失败不影响启动，监听容器会自动重试订阅，期间依靠定期全量刷新
+                log.warn("订阅限流覆盖值变更通知失败: {}", ex.getMessage());
+            }
+            this.listener = changeListener;
+        }
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limiter-overrides");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = refreshInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::safeRefresh, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        this.executor = scheduler;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService scheduler = this.executor;
+        if (scheduler != null) {
+            this.executor = null;
+            scheduler.shutdownNow();
+        }
+        MessageListener changeListener = this.listener;
+        if (changeListener != null) {
+            this.listener = null;
+            try {
+                listenerContainer.removeMessageListener(changeListener);
+            } catch (RuntimeException ex) {
+                log.warn("取消限流覆盖值订阅失败: {}", ex.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // 早于 Web 服务器启动，接收流量前覆盖表已经加载完成
+        return 0;
+    }
+
+    /**
+     * 全量刷新一次覆盖表，异常只记录日志并保留当前缓存
+     */
+    private void safeRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException ex) {
+            log.warn("加载限流覆盖值失败，继续使用当前缓存: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * 解析覆盖限制数量，非法值记录日志并忽略
+     *
+     * @param key 限流键
+     * @param value 哈希中的值
+     * @return 限制数量，值不存在或不合法时返回 null
+     */
+    private static Long parseLimit(String key, Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            long limit = Long.parseLong(String.valueOf(value).trim());
+            if (limit > 0) {
+                return limit;
+            }
+        } catch (NumberFormatException ignored) {
+            // 与非正数一样按非法值处理
+        }
+        log.warn("忽略不合法的限流覆盖值，键值: {}，值: {}", key, value);
+        return null;
+    }
+}
@@ -0,0 +1,189 @@
+package cn.springboot.starter.api_rate_limiter.core.penalty;
+
+import cn.springboot.starter.api_rate_limiter.config.RateLimiterProperties;
+import cn.springboot.starter.api_rate_limiter.core.storage.script.PenaltyScriptFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 惩罚封禁
+ * 被限流后仍持续重试的限流键在时间窗口内被拒绝达到阈值后会被封禁，再次被封禁时封禁时长翻倍。
+ * 封禁状态只在 Redis 中保存一份并带有过期时间，封禁时通过发布订阅通知所有实例写入本地的过期缓存，
+ * 请求路径上只读本地缓存，被封禁的调用方在执行限流脚本之前就被拒绝，不访问 Redis。
+ * 拒绝次数在后台线程上异步提交，不增加被拒绝请求的延迟。封禁通知的订阅注册在自动配置共享的监听容器上
+ *
+ * @author Yuan Shenjian
+ */
+@Slf4j
+public class RateLimitPenaltyBox implements SmartLifecycle {
+
+    /**
+     * 后台提交队列的容量，队列已满时丢弃新的拒绝记录
+     */
+    private static final int QUEUE_CAPACITY = 1024;
+
+    /**
+     * 本地封禁缓存数量超过该值时清理已过期的条目
+     */
+    private static final int MAX_LOCAL_BANS = 10_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimiterProperties.Penalty penalty;
+    private final RedisScript<Long> penaltyScript;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Map<String, Long> bannedUntil = new ConcurrentHashMap<>();
+    private volatile MessageListener listener;
+    private volatile ThreadPoolExecutor executor;
+
+    /**
+     * 构造函数
+     *
+     * @param redisTemplate 保存封禁状态的 Redis 模板（为 null 时不会封禁任何键）
+     * @param penalty 惩罚封禁配置
+     * @param listenerContainer 订阅封禁通知的监听容器（为 null 时只在本实例的拒绝触发封禁时生效）
+     */
+    public RateLimitPenaltyBox(StringRedisTemplate redisTemplate, RateLimiterProperties.Penalty penalty,
+                               RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.penalty = penalty;
+        this.penaltyScript = new PenaltyScriptFactory().createPenaltyScript();
+        this.listenerContainer = listenerContainer;
+    }
+
+    /**
+     * 判断限流键是否处于封禁中，只读本地缓存
+     *
+     * @param key 限流键
+     * @return 处于封禁中时返回 true
+     */
+    public boolean isBanned(String key) {
+        Long until = bannedUntil.get(key);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        bannedUntil.remove(key, until);
+        return false;
+    }
+
+    /**
+     * 记录一次限流拒绝，在后台线程上累计拒绝次数，达到阈值时封禁该键
+     *
+     * @param key 被拒绝的限流键
+     */
+    public void recordRejection(String key) {
+        ThreadPoolExecutor current = this.executor;
+        if (current == null || isBanned(key)) {
+            return;
+        }
+        current.execute(() -> {
+            try {
+                Long ban = redisTemplate.execute(penaltyScript, List.of(penalty.getKeyPrefix() + key),
+                        String.valueOf(penalty.getThreshold()),
+                        String.valueOf(penalty.getWindow().toMillis()),
+                        String.valueOf(penalty.getBanDuration().toMillis()),
+                        String.valueOf(penalty.getMaxBanDuration().toMillis()),
+                        String.valueOf(penalty.getResetAfter().toMillis()),
+                        penalty.getChannel(),
+                        key);
+                if (ban != null && ban > 0) {
+                    ban(key, ban);
+                }
+            } catch (RuntimeException ex) {
+                log.warn("记录限流拒绝失败，键值: {}: {}", key, ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 在本地缓存中封禁限流键
+     *
+     * @param key 限流键
+     * @param banMillis 封禁时长（毫秒）
+     */
+    private void ban(String key, long banMillis) {
+        if (bannedUntil.size() > MAX_LOCAL_BANS) {
+            long now = System.currentTimeMillis();
+            bannedUntil.values().removeIf(until -> until <= now);
+        }
+        bannedUntil.merge(key, System.currentTimeMillis() + banMillis, Math::max);
+    }
+
+    @Override
+    public void start() {
+        if (redisTemplate == null) {
+            return;
+        }
+        if (listenerContainer != null) {
+            MessageListener banListener = (message, pattern) -> {
+                // 消息格式为 "<封禁时长毫秒>:<限流键>"，限流键本身可能包含 ":"
+                String body = new String(message.getBody(), StandardCharsets.UTF_8);
+                int separator = body.indexOf(':');
+                try {
+                    ban(body.substring(separator + 1), Long.parseLong(body.substring(0, separator)));
+                } catch (RuntimeException ex) {
+                    log.warn("忽略不合法的封禁通知: {}", body);
+                }
+            };
+            try {
+                listenerContainer.addMessageListener(banListener, new ChannelTopic(penalty.getChannel()));
+                listenerContainer.start();
+            } catch (RuntimeException ex) {
+                // 订阅失败不影响启动，监听容器会自动重试订阅，期间各实例在下一次拒绝时从脚本返回值得知封禁
+                log.warn("订阅封禁通知失败: {}", ex.getMessage());
+            }
+            this.listener = banListener;
+        }
+
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "rate-limiter-penalty");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    public void stop() {
+        ThreadPoolExecutor current = this.executor;
+        if (current != null) {
+            this.executor = null;
+            current.shutdownNow();
+        }
+        MessageListener banListener = this.listener;
+        if (banListener != null) {
+            this.listener = null;
+            try {
+                listenerContainer.removeMessageListener(banListener);
+            } catch (RuntimeException ex) {
+                log.warn("取消封禁通知订阅失败: {}", ex.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // 早于 Web 服务器启动
+        return 0;
+    }
+}
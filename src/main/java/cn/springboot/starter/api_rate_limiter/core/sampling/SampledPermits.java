@@ -0,0 +1,143 @@
+package cn.springboot.starter.api_rate_limiter.core.sampling;
+
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 采样限流的本地状态
+ * 每次访问 Redis 时按批量预取许可，之后的请求先消耗本地预取的许可；被拒绝后，随后的若干请求沿用拒绝判断，不再访问 Redis。
+ * 批量大小随判断结果自适应：连续放行时翻倍（接近限制时批量申请会被拒绝，从而减半），直到规格配置的采样上限，
+ * 因此远离限制时访问 Redis 的次数按采样上限成倍减少，接近限制时退化为逐个检查。
+ * <p>
+ * 误差上界：每个实例每个键最多有 sampleSize - 1 个预取后未用完的许可（少放行），
+ * 以及连续拒绝期间最多 sampleSize - 1 个本可放行却被推断拒绝的请求；预取的许可与推断的拒绝最多保留 {@link #DECISION_TTL_MILLIS} 毫秒
+ *
+ * @author Yuan Shenjian
+ */
+public class SampledPermits {
+
+    /**
+     * 预取的许可与推断的拒绝的有效时长（毫秒），避免跨窗口沿用过期的判断
+     */
+    static final long DECISION_TTL_MILLIS = 1000;
+
+    /**
+     * 本地状态数量超过该值时清理已过期的状态
+     */
+    private static final int MAX_STATES = 10_000;
+
+    private final Map<StateKey, State> states = new ConcurrentHashMap<>();
+
+    /**
+     * 尝试在本地完成判断
+     *
+     * @param spec 开启采样的限流规格
+     * @param key 限流键
+     * @param permits 许可数量
+     * @return 本地预取的许可足够时返回 true，沿用最近一次拒绝判断时返回 false，需要访问 Redis 时返回 null
+     */
+    public Boolean tryLocal(RateLimitSpec spec, String key, int permits) {
+        State state = states.get(new StateKey(spec, key));
+        if (state == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (state) {
+            if (now >= state.expiresAt) {
+                state.prepaid = 0;
+                state.inferredRejects = 0;
+                return null;
+            }
+            if (state.prepaid >= permits) {
+                state.prepaid -= permits;
+                return Boolean.TRUE;
+            }
+            if (state.inferredRejects > 0) {
+                state.inferredRejects--;
+                return Boolean.FALSE;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 计算本次访问 Redis 应申请的许可数量
+     *
+     * @param spec 开启采样的限流规格
+     * @param key 限流键
+     * @param permits 当前请求的许可数量
+     * @return 申请的许可数量，不小于 permits
+     */
+    public int batchSize(RateLimitSpec spec, String key, int permits) {
+        State state = states.get(new StateKey(spec, key));
+        if (state == null) {
+            return permits;
+        }
+        synchronized (state) {
+            return Math.max(permits, state.batchSize);
+        }
+    }
+
+    /**
+     * 记录一次访问 Redis 的判断结果，更新预取的许可、推断拒绝的数量和下一次的批量大小
+     *
+     * @param spec 开启采样的限流规格
+     * @param key 限流键
+     * @param permits 当前请求的许可数量
+     * @param batch 本次申请的许可数量
+     * @param allowed 是否获得了许可
+     */
+    public void record(RateLimitSpec spec, String key, int permits, int batch, boolean allowed) {
+        if (states.size() > MAX_STATES) {
+            evictExpired();
+        }
+        State state = states.computeIfAbsent(new StateKey(spec, key), ignored -> new State());
+        // 批量不超过采样上限，也不超过限制数量的一半，避免单次预取占满整个窗口
+        int maxBatch = (int) Math.max(1, Math.min(spec.getSampleSize(), spec.getLimit() / 2));
+        long now = System.currentTimeMillis();
+        synchronized (state) {
+            if (now >= state.expiresAt) {
+                state.prepaid = 0;
+                state.inferredRejects = 0;
+            }
+            state.expiresAt = now + DECISION_TTL_MILLIS;
+            if (allowed) {
+                state.prepaid += batch - permits;
+                state.inferredRejects = 0;
+                state.rejectStreak = 0;
+                state.batchSize = Math.min(maxBatch, state.batchSize * 2);
+            } else if (batch > permits) {
+                // 批量申请被拒绝只说明余量不足一个批量，由调用方改为按请求的许可数重新检查
+                state.batchSize = Math.max(1, state.batchSize / 2);
+            } else {
+                // 连续拒绝时推断拒绝的数量成倍增加，放行后重置
+                state.rejectStreak = Math.min(maxBatch, Math.max(1, state.rejectStreak * 2));
+                state.inferredRejects = state.rejectStreak - 1;
+                state.batchSize = 1;
+            }
+        }
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        states.values().removeIf(state -> {
+            synchronized (state) {
+                return now >= state.expiresAt;
+            }
+        });
+    }
+
+    private record StateKey(RateLimitSpec spec, String key) {
+    }
+
+    private static final class State {
+
+        private long prepaid;
+        private long inferredRejects;
+        private int rejectStreak;
+        private int batchSize = 1;
+        private long expiresAt;
+    }
+}
@@ -0,0 +1,198 @@
+package cn.springboot.starter.api_rate_limiter.core.sketch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Count-Min Sketch 计数器
+ * depth 行 × width 列的 long 计数器，保存在堆内 long[] 或堆外直接内存中，大小在创建时固定。
+ * 计数器通过 VarHandle 以 CAS 方式更新，采用保守更新（只抬高不足的计数器）以降低高估。
+ * 同一个键的判断与累加在分段锁内完成，并发请求不会读到相同的估算值而同时放行；
+ * 不同的键只会抬高共享的计数器，不会使任何键的估算值低于其实际计数
+ *
+ * @author Yuan Shenjian
+ */
+public final class CountMinSketch {
+
+    private static final VarHandle ARRAY_HANDLE = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle BUFFER_HANDLE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /**
+     * 分段锁数量
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    private final int width;
+    private final int depth;
+    private final long[] heapCounters;
+    private final ByteBuffer offHeapCounters;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    /**
+     * 构造函数
+     *
+     * @param width 每行计数器数量
+     * @param depth 行数
+     * @param offHeap 是否使用堆外内存
+     */
+    public CountMinSketch(int width, int depth, boolean offHeap) {
+        this.width = width;
+        this.depth = depth;
+        int size = Math.multiplyExact(width, depth);
+        if (offHeap) {
+            this.heapCounters = null;
+            this.offHeapCounters = ByteBuffer.allocateDirect(Math.multiplyExact(size, Long.BYTES)).order(ByteOrder.nativeOrder());
+        } else {
+            this.heapCounters = new long[size];
+            this.offHeapCounters = null;
+        }
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * 计算键在每一行中的计数器下标（按行展开后的全局下标），
+     * 使用 64 位哈希派生的双重哈希，Redis 端草图使用相同的下标
+     *
+     * @param item 键
+     * @param width 每行计数器数量
+     * @param depth 行数
+     * @return 每一行对应的计数器下标
+     */
+    public static int[] indexes(String item, int width, int depth) {
+        long hash = hash(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int[] indexes = new int[depth];
+        for (int row = 0; row < depth; row++) {
+            int combined = h1 + row * h2;
+            indexes[row] = row * width + Math.floorMod(combined, width);
+        }
+        return indexes;
+    }
+
+    /**
+     * 估算键的计数（各行计数器的最小值）
+     *
+     * @param indexes 键的计数器下标
+     * @return 估算计数
+     */
+    public long estimate(int[] indexes) {
+        long min = Long.MAX_VALUE;
+        for (int index : indexes) {
+            min = Math.min(min, get(index));
+        }
+        return min;
+    }
+
+    /**
+     * 估算值加上许可数不超过限制时，保守地累加计数并返回 true。
+     * 同一个键的计数器下标相同，落在同一个分段锁上，判断与累加对同一个键是原子的
+     *
+     * @param indexes 键的计数器下标
+     * @param permits 许可数量
+     * @param limit 限制数量
+     * @return 是否允许请求
+     */
+    public boolean tryAdd(int[] indexes, int permits, long limit) {
+        synchronized (locks[Math.floorMod(indexes[0], LOCK_STRIPES)]) {
+            long target = estimate(indexes) + permits;
+            if (target > limit) {
+                return false;
+            }
+            // 其他键可能并发抬高共享的计数器，CAS 保证计数器只增不减
+            for (int index : indexes) {
+                long current;
+                do {
+                    current = get(index);
+                } while (current < target && !compareAndSet(index, current, target));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 将所有计数器清零
+     */
+    public void clear() {
+        if (heapCounters != null) {
+            Arrays.fill(heapCounters, 0L);
+        } else {
+            for (int i = 0; i < width * depth; i++) {
+                BUFFER_HANDLE.setVolatile(offHeapCounters, i * Long.BYTES, 0L);
+            }
+        }
+    }
+
+    /**
+     * 计数器总数（width × depth）
+     *
+     * @return 计数器数量
+     */
+    public int size() {
+        return width * depth;
+    }
+
+    /**
+     * 将所有计数器按下标顺序写入缓冲区
+     *
+     * @param buffer 目标缓冲区
+     */
+    public void writeTo(ByteBuffer buffer) {
+        for (int i = 0; i < size(); i++) {
+            buffer.putLong(get(i));
+        }
+    }
+
+    /**
+     * 从缓冲区按下标顺序读取所有计数器，覆盖当前值
+     *
+     * @param buffer 源缓冲区
+     */
+    public void readFrom(ByteBuffer buffer) {
+        for (int i = 0; i < size(); i++) {
+            long value = buffer.getLong();
+            if (heapCounters != null) {
+                ARRAY_HANDLE.setVolatile(heapCounters, i, value);
+            } else {
+                BUFFER_HANDLE.setVolatile(offHeapCounters, i * Long.BYTES, value);
+            }
+        }
+    }
+
+    private long get(int index) {
+        if (heapCounters != null) {
+            return (long) ARRAY_HANDLE.getVolatile(heapCounters, index);
+        }
+        return (long) BUFFER_HANDLE.getVolatile(offHeapCounters, index * Long.BYTES);
+    }
+
+    private boolean compareAndSet(int index, long expected, long value) {
+        if (heapCounters != null) {
+            return ARRAY_HANDLE.compareAndSet(heapCounters, index, expected, value);
+        }
+        return BUFFER_HANDLE.compareAndSet(offHeapCounters, index * Long.BYTES, expected, value);
+    }
+
+    /**
+     * FNV-1a 64 位哈希加 SplitMix64 混淆，结果在各实例与各次运行之间保持稳定，
+     * 同一个键在不同实例上总能得到相同的计数器下标与窗口相位
+     *
+     * @param item 键
+     * @return 64 位哈希值
+     */
+    public static long hash(String item) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < item.length(); i++) {
+            hash ^= item.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
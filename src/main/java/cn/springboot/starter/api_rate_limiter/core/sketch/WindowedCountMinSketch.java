@@ -0,0 +1,110 @@
+package cn.springboot.starter.api_rate_limiter.core.sketch;
+
+import cn.springboot.starter.api_rate_limiter.core.CountMinSketchMode;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 按固定窗口轮换的本地计数草图限流器
+ * 预先分配两块草图交替使用，进入新窗口时清空较旧的一块，内存占用恒为 2 × width × depth 个计数器
+ *
+ * @author Yuan Shenjian
+ */
+public class WindowedCountMinSketch {
+
+    private final RateLimitSpec spec;
+    private final long windowMillis;
+    private final CountMinSketch[] sketches = new CountMinSketch[2];
+    private volatile long windowIndex;
+
+    /**
+     * 构造函数
+     *
+     * @param spec 计数草图限流规格
+     */
+    public WindowedCountMinSketch(RateLimitSpec spec) {
+        this.spec = spec;
+        this.windowMillis = spec.getWindowSize() * 1000;
+        boolean offHeap = spec.getSketchMode() == CountMinSketchMode.OFF_HEAP;
+        sketches[0] = new CountMinSketch(spec.getSketchWidth(), spec.getSketchDepth(), offHeap);
+        sketches[1] = new CountMinSketch(spec.getSketchWidth(), spec.getSketchDepth(), offHeap);
+        this.windowIndex = System.currentTimeMillis() / windowMillis;
+    }
+
+    /**
+     * 尝试为键获取许可
+     *
+     * @param key 限流键
+     * @param permits 许可数量
+     * @return 如果请求被允许则返回 true，否则返回 false
+     */
+    public boolean tryAcquire(String key, int permits) {
+        long current = System.currentTimeMillis() / windowMillis;
+        if (current != windowIndex) {
+            rotate(current);
+        }
+        int[] indexes = CountMinSketch.indexes(key, spec.getSketchWidth(), spec.getSketchDepth());
+        return sketches[(int) (current & 1)].tryAdd(indexes, permits, spec.getLimit());
+    }
+
+    /**
+     * 获取限流规格
+     *
+     * @return 计数草图限流规格
+     */
+    public RateLimitSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * 获取当前窗口序号（纪元毫秒 / 窗口毫秒数）
+     *
+     * @return 当前窗口序号
+     */
+    public long getWindowIndex() {
+        return windowIndex;
+    }
+
+    /**
+     * 将当前窗口的计数器写入缓冲区
+     *
+     * @param buffer 目标缓冲区
+     */
+    public void writeCurrentWindow(ByteBuffer buffer) {
+        sketches[(int) (windowIndex & 1)].writeTo(buffer);
+    }
+
+    /**
+     * 恢复某个窗口的计数器，只有该窗口仍是当前窗口时才会生效
+     *
+     * @param savedWindowIndex 快照中的窗口序号
+     * @param buffer 源缓冲区
+     * @return 是否已恢复
+     */
+    public synchronized boolean restoreWindow(long savedWindowIndex, ByteBuffer buffer) {
+        long current = System.currentTimeMillis() / windowMillis;
+        if (savedWindowIndex != current) {
+            return false;
+        }
+        if (current != windowIndex) {
+            rotate(current);
+        }
+        sketches[(int) (current & 1)].readFrom(buffer);
+        return true;
+    }
+
+    /**
+     * 进入新窗口时清空本窗口将要使用的草图
+     *
+     * @param current 当前窗口序号
+     */
+    private synchronized void rotate(long current) {
+        if (current == windowIndex) {
+            return;
+        }
+        // 上一窗口的草图保留到下次轮换，窗口边界上仍在写入旧窗口的线程不会污染新窗口
+        sketches[(int) (current & 1)].clear();
+        windowIndex = current;
+    }
+}
@@ -0,0 +1,138 @@
+package cn.springboot.starter.api_rate_limiter.core.snapshot;
+
+import cn.springboot.starter.api_rate_limiter.core.CountMinSketchMode;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import cn.springboot.starter.api_rate_limiter.core.sketch.WindowedCountMinSketch;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * 本地限流状态快照
+ * 以紧凑的二进制格式通过内存映射文件读写进程内的计数草图，用于重启或滚动发布后快速恢复配额。
+ * 文件布局（大端序）：
+ * <pre>
+ * 头部：  int 魔数 | int 版本 | long 写入时间（毫秒） | int 条目数
+ * 条目：  long limit | long windowSize | int width | int depth | byte mode | long 窗口序号 | long[width × depth] 计数器
+ * </pre>
+ * 写入时先写临时文件再原子替换，读取时跳过窗口已经结束的条目
+ *
+ * @author Yuan Shenjian
+ */
+public final class LocalStateSnapshot {
+
+    private static final int MAGIC = 0x524C5353;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES * 3 + Long.BYTES;
+    private static final int ENTRY_HEADER_BYTES = Long.BYTES * 3 + Integer.BYTES * 2 + 1;
+
+    private LocalStateSnapshot() {
+    }
+
+    /**
+     * 将计数草图写入快照文件
+     *
+     * @param path 快照文件路径
+     * @param sketches 需要保存的计数草图
+     * @return 写入的条目数
+     * @throws IOException 文件读写失败时抛出
+     */
+    public static int write(Path path, Collection<WindowedCountMinSketch> sketches) throws IOException {
+        long size = HEADER_BYTES;
+        for (WindowedCountMinSketch sketch : sketches) {
+            size += entryBytes(sketch.getSpec());
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis()).putInt(sketches.size());
+            for (WindowedCountMinSketch sketch : sketches) {
+                RateLimitSpec spec = sketch.getSpec();
+                buffer.putLong(spec.getLimit())
+                        .putLong(spec.getWindowSize())
+                        .putInt(spec.getSketchWidth())
+                        .putInt(spec.getSketchDepth())
+                        .put((byte) spec.getSketchMode().ordinal())
+                        .putLong(sketch.getWindowIndex());
+                sketch.writeCurrentWindow(buffer);
+                count++;
+            }
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /**
+     * 从快照文件恢复计数草图，窗口已经结束的条目会被丢弃
+     *
+     * @param path 快照文件路径
+     * @param sketchFactory 根据限流规格获取（或创建）计数草图
+     * @return 恢复的条目数，文件不存在或格式不兼容时返回 0
+     * @throws IOException 文件读取失败时抛出
+     */
+    public static int read(Path path, Function<RateLimitSpec, WindowedCountMinSketch> sketchFactory) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return 0;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return 0;
+            }
+            buffer.getLong();
+            int entries = buffer.getInt();
+            CountMinSketchMode[] modes = CountMinSketchMode.values();
+            int restored = 0;
+            for (int i = 0; i < entries && buffer.remaining() >= ENTRY_HEADER_BYTES; i++) {
+                long limit = buffer.getLong();
+                long windowSize = buffer.getLong();
+                int width = buffer.getInt();
+                int depth = buffer.getInt();
+                int mode = buffer.get();
+                long windowIndex = buffer.getLong();
+                int counterBytes = width * depth * Long.BYTES;
+                if (mode < 0 || mode >= modes.length || buffer.remaining() < counterBytes) {
+                    return restored;
+                }
+                int next = buffer.position() + counterBytes;
+                boolean current = windowSize > 0 && windowIndex == System.currentTimeMillis() / (windowSize * 1000);
+                if (current) {
+                    RateLimitSpec spec = RateLimitSpec.countMinSketch(limit, windowSize, width, depth, modes[mode]);
+                    if (sketchFactory.apply(spec).restoreWindow(windowIndex, buffer)) {
+                        restored++;
+                    }
+                }
+                buffer.position(next);
+            }
+            return restored;
+        }
+    }
+
+    /**
+     * 计算一个条目占用的字节数
+     *
+     * @param spec 计数草图限流规格
+     * @return 字节数
+     */
+    private static long entryBytes(RateLimitSpec spec) {
+        return ENTRY_HEADER_BYTES + (long) spec.getSketchWidth() * spec.getSketchDepth() * Long.BYTES;
+    }
+}
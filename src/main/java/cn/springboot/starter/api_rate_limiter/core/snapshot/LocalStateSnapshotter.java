@@ -0,0 +1,96 @@
+package cn.springboot.starter.api_rate_limiter.core.snapshot;
+
+import cn.springboot.starter.api_rate_limiter.core.RateLimiterClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地限流状态快照调度器
+ * 启动时（早于 Web 服务器）从快照文件恢复进程内状态，运行期间定期写入快照，停止时（晚于 Web 服务器）写入最后一次快照。
+ * 快照只包含本地计数草图；本地同步的固定窗口计数（{@code SyncedWindowCounters}）同样是进程内状态，但不在快照范围内：
+ * 窗口总数保存在 Redis 中，停止时会同步最后一批增量，重启后第一次同步即可取回总数
+ *
+ * @author Yuan Shenjian
+ */
+@Slf4j
+public class LocalStateSnapshotter implements SmartLifecycle {
+
+    private final RateLimiterClient rateLimiterClient;
+    private final Path path;
+    private final Duration interval;
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * 构造函数
+     *
+     * @param rateLimiterClient 编程式限流客户端
+     * @param path 快照文件路径
+     * @param interval 快照间隔
+     */
+    public LocalStateSnapshotter(RateLimiterClient rateLimiterClient, Path path, Duration interval) {
+        this.rateLimiterClient = rateLimiterClient;
+        this.path = path;
+        this.interval = interval;
+    }
+
+    @Override
+    public void start() {
+        long startTime = System.nanoTime();
+        try {
+            int restored = rateLimiterClient.restoreSnapshot(path);
+            log.info("已从 {} 恢复本地限流状态 {} 条，耗时 {} ms", path, restored,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        } catch (IOException | RuntimeException ex) {
+            log.warn("恢复本地限流状态失败，将以空状态启动: {}", ex.getMessage());
+        }
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limiter-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshot, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        this.executor = scheduler;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService scheduler = this.executor;
+        if (scheduler == null) {
+            return;
+        }
+        this.executor = null;
+        scheduler.shutdownNow();
+        snapshot();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // 早于 Web 服务器启动、晚于其停止，恢复完成前不接收流量，停止时所有请求都已计入快照
+        return 0;
+    }
+
+    /**
+     * 写入一次快照，异常只记录日志
+     */
+    private void snapshot() {
+        try {
+            rateLimiterClient.writeSnapshot(path);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("写入本地限流状态快照失败: {}", ex.getMessage());
+        }
+    }
+}
@@ -1,18 +1,39 @@
 package cn.springboot.starter.api_rate_limiter.core.storage;
 
+import cn.springboot.starter.api_rate_limiter.core.storage.script.RateLimitFunctionLibrary;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.async.RedisScriptingAsyncCommands;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 /**
  * 基于Redis的限流存储实现
+ * 默认通过 EVALSHA/EVAL 执行限流脚本，配置了函数库时通过 FCALL 调用同一脚本注册的函数，
+ * 使用 Lettuce 驱动时还支持不阻塞调用线程的异步执行
  *
  * @author Yuan Shenjian
  */
 public class RedisRateLimitStorage {
     private final StringRedisTemplate redisTemplate;
     private final RedisScript<Long> rateLimitScript;
+    private final RateLimitFunctionLibrary functionLibrary;
+    private final String functionName;
+    private final boolean asyncSupported;
 
     /**
      * 构造函数
@@ -21,8 +42,26 @@ public class RedisRateLimitStorage {
      * @param rateLimitScript 限流脚本
      */
     public RedisRateLimitStorage(StringRedisTemplate redisTemplate, RedisScript<Long> rateLimitScript) {
+        this(redisTemplate, rateLimitScript, null, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param redisTemplate Redis模板
+     * @param rateLimitScript 限流脚本
+     * @param functionLibrary 限流函数库（为 null 时使用 EVAL 模式）
+     * @param functionName 脚本在函数库中注册的函数名
+     */
+    public RedisRateLimitStorage(StringRedisTemplate redisTemplate, RedisScript<Long> rateLimitScript,
+                                 RateLimitFunctionLibrary functionLibrary, String functionName) {
         this.redisTemplate = redisTemplate;
         this.rateLimitScript = rateLimitScript;
+        this.functionLibrary = functionLibrary;
+        this.functionName = functionName;
+        // 只有共享原生连接时，回调返回后连接仍然可用，异步命令的结果才能安全地在回调之外等待
+        this.asyncSupported = redisTemplate.getConnectionFactory() instanceof LettuceConnectionFactory connectionFactory
+                && connectionFactory.getShareNativeConnection();
     }
 
     /**
@@ -35,11 +74,10 @@ public class RedisRateLimitStorage {
      * @return 是否允许请求
      */
     public boolean isAllowed(String key, long limit, long windowSizeInSeconds, int permits) {
-        Long result = redisTemplate.execute(rateLimitScript, List.of(key),
+        return isAllowed(key, List.of(
                 String.valueOf(limit),
                 String.valueOf(windowSizeInSeconds),
-                String.valueOf(permits));
-        return result == 1L;
+                String.valueOf(permits)));
     }
 
     /**
@@ -53,12 +91,11 @@ public class RedisRateLimitStorage {
      * @return 是否允许请求
      */
     public boolean isAllowedWithSubWindows(String key, long limit, long windowSizeInSeconds, int subWindows, int permits) {
-        Long result = redisTemplate.execute(rateLimitScript, List.of(key),
+        return isAllowed(key, List.of(
                 String.valueOf(limit),
                 String.valueOf(windowSizeInSeconds),
                 String.valueOf(subWindows),
-                String.valueOf(permits));
-        return result == 1L;
+                String.valueOf(permits)));
     }
 
     /**
@@ -71,12 +108,10 @@ public class RedisRateLimitStorage {
      * @return 是否允许请求
      */
     public boolean isAllowedForTokenBucket(String key, long capacity, long refillRate, int permits) {
-        Long result = redisTemplate.execute(rateLimitScript, List.of(key),
+        return isAllowed(key, List.of(
                 String.valueOf(capacity),
                 String.valueOf(refillRate),
-                String.valueOf(permits));
-
-        return result == 1L;
+                String.valueOf(permits)));
     }
 
     /**
@@ -90,13 +125,11 @@ public class RedisRateLimitStorage {
      * @return 是否允许请求
      */
     public boolean isAllowedForTokenBucket(String key, long capacity, long refillAmount, long refillIntervalSeconds, int permits) {
-        Long result = redisTemplate.execute(rateLimitScript, List.of(key),
+        return isAllowed(key, List.of(
                 String.valueOf(capacity),
                 String.valueOf(refillAmount),
                 String.valueOf(refillIntervalSeconds),
-                String.valueOf(permits));
-
-        return result == 1L;
+                String.valueOf(permits)));
     }
 
     /**
@@ -109,11 +142,258 @@ public class RedisRateLimitStorage {
      * @return 是否允许请求
      */
     public boolean isAllowedForLeakyBucket(String key, long capacity, long leakRate, int permits) {
-        Long result = redisTemplate.execute(rateLimitScript, List.of(key),
+        return isAllowed(key, List.of(
                 String.valueOf(capacity),
                 String.valueOf(leakRate),
-                String.valueOf(permits));
+                String.valueOf(permits)));
+    }
+
+    /**
+     * 将限流脚本加载到 Redis 脚本缓存中（SCRIPT LOAD），
+     * 集群模式下在所有主节点上执行，保证落在任意分片的 EVALSHA 都能命中；函数库模式下加载整个函数库（FUNCTION LOAD）
+     */
+    public void loadScript() {
+        if (functionLibrary != null) {
+            functionLibrary.load(redisTemplate);
+            return;
+        }
+        byte[] scriptBytes = serialize(rateLimitScript.getScriptAsString());
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            if (connection.getNativeConnection() instanceof RedisAdvancedClusterAsyncCommands<?, ?> cluster) {
+                @SuppressWarnings("unchecked")
+                RedisAdvancedClusterAsyncCommands<byte[], byte[]> commands = (RedisAdvancedClusterAsyncCommands<byte[], byte[]>) cluster;
+                await(commands.upstream().commands().scriptLoad(scriptBytes).toCompletableFuture());
+                return null;
+            }
+            return connection.scriptingCommands().scriptLoad(scriptBytes);
+        });
+    }
+
+    /**
+     * 使用脚本参数判断请求是否被允许
+     *
+     * @param key 限流键
+     * @param args 按脚本 ARGV 顺序排列的参数
+     * @return 是否允许请求
+     */
+    public boolean isAllowed(String key, List<String> args) {
+        if (functionLibrary != null) {
+            Long result = functionLibrary.call(redisTemplate, functionName, key, args);
+            return result != null && result == 1L;
+        }
+        Long result = redisTemplate.execute(rateLimitScript, List.of(key), args.toArray());
+        return result != null && result == 1L;
+    }
+
+    /**
+     * 使用脚本参数执行脚本并返回原始结果，用于返回值不只表示允许与否的脚本（例如预约脚本返回等待时间）
+     *
+     * @param key 限流键
+     * @param args 按脚本 ARGV 顺序排列的参数
+     * @return 脚本返回值
+     */
+    public Long execute(String key, List<String> args) {
+        if (functionLibrary != null) {
+            return functionLibrary.call(redisTemplate, functionName, key, args);
+        }
+        return redisTemplate.execute(rateLimitScript, List.of(key), args.toArray());
+    }
 
-        return result == 1L;
+    /**
+     * 以非阻塞方式执行脚本，直接使用 Lettuce 的异步命令，调用线程只负责发送命令，不等待结果。
+     * EVALSHA 遇到 NOSCRIPT 时以 EVAL 异步重试，函数库模式下函数不存在时异步加载函数库后重试。
+     * 非 Lettuce 驱动或未共享原生连接时退化为在指定执行器上阻塞执行
+     *
+     * @param key 限流键
+     * @param args 按脚本 ARGV 顺序排列的参数
+     * @param fallbackExecutor 无法使用异步命令时执行阻塞调用的执行器
+     * @return 脚本返回值的 Future
+     */
+    public CompletableFuture<Long> executeAsync(String key, List<String> args, Executor fallbackExecutor) {
+        if (!asyncSupported) {
+            return CompletableFuture.supplyAsync(() -> execute(key, args), fallbackExecutor);
+        }
+        if (functionLibrary != null) {
+            return functionLibrary.callAsync(redisTemplate, functionName, key, args);
+        }
+        byte[][] keys = {serialize(key)};
+        byte[][] argBytes = new byte[args.size()][];
+        for (int i = 0; i < args.size(); i++) {
+            argBytes[i] = serialize(args.get(i));
+        }
+        return redisTemplate.execute((RedisCallback<CompletableFuture<Long>>) connection -> {
+            RedisScriptingAsyncCommands<byte[], byte[]> commands = scriptingCommands(connection.getNativeConnection());
+            CompletableFuture<Long> evalSha = commands.<Long>evalsha(rateLimitScript.getSha1(), ScriptOutputType.INTEGER, keys, argBytes)
+                    .toCompletableFuture();
+            return evalSha.exceptionallyCompose(ex -> isNoScriptError(ex)
+                    ? commands.<Long>eval(serialize(rateLimitScript.getScriptAsString()), ScriptOutputType.INTEGER, keys, argBytes)
+                            .toCompletableFuture()
+                    : CompletableFuture.failedFuture(ex));
+        });
+    }
+
+    /**
+     * 在一次管道往返中对多个键执行同一脚本
+     * 结果顺序与传入的键顺序一致，重复的键会分别消耗许可
+     *
+     * @param keys 限流键列表
+     * @param args 与键一一对应、按脚本 ARGV 顺序排列的参数
+     * @return 每个键是否被允许
+     */
+    public List<Boolean> isAllowedAll(List<String> keys, List<List<String>> args) {
+        List<Long> results = executeAll(keys, args);
+        List<Boolean> allowed = new ArrayList<>(results.size());
+        for (Long result : results) {
+            allowed.add(result != null && result == 1L);
+        }
+        return allowed;
+    }
+
+    /**
+     * 在一次管道往返中对多个键执行脚本，每个键使用各自的参数
+     *
+     * @param keys 限流键列表
+     * @param args 与键一一对应、按脚本 ARGV 顺序排列的参数
+     * @return 与键顺序一致的脚本返回值
+     */
+    public List<Long> executeAll(List<String> keys, List<List<String>> args) {
+        List<?> results;
+        if (functionLibrary != null) {
+            results = functionLibrary.callAll(redisTemplate, functionName, keys, args);
+        } else {
+            try {
+                results = executePipelined(keys, args);
+            } catch (RedisPipelineException ex) {
+                results = retryMissingScript(keys, args, ex);
+            }
+        }
+
+        List<Long> values = new ArrayList<>(results.size());
+        for (Object result : results) {
+            values.add(result instanceof Long value ? value : null);
+        }
+        return values;
+    }
+
+    /**
+     * 以 EVALSHA 管道方式执行脚本
+     *
+     * @param keys 限流键列表
+     * @param args 与键一一对应的脚本参数
+     * @return 管道执行结果
+     */
+    private List<Object> executePipelined(List<String> keys, List<List<String>> args) {
+        RedisSerializer<String> serializer = redisTemplate.getStringSerializer();
+        String sha1 = rateLimitScript.getSha1();
+        return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < keys.size(); i++) {
+                List<String> keyArgs = args.get(i);
+                byte[][] keysAndArgs = new byte[keyArgs.size() + 1][];
+                keysAndArgs[0] = serializer.serialize(keys.get(i));
+                for (int j = 0; j < keyArgs.size(); j++) {
+                    keysAndArgs[j + 1] = serializer.serialize(keyArgs.get(j));
+                }
+                connection.scriptingCommands().evalSha(sha1, ReturnType.INTEGER, 1, keysAndArgs);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 脚本尚未缓存在 Redis 中时（NOSCRIPT），加载脚本并仅重试失败的键，
+     * 已成功执行的键不会被重复计数
+     *
+     * @param keys 限流键列表
+     * @param args 与键一一对应的脚本参数
+     * @param ex 管道执行异常
+     * @return 合并后的执行结果
+     */
+    private List<Object> retryMissingScript(List<String> keys, List<List<String>> args, RedisPipelineException ex) {
+        List<Object> results = new ArrayList<>(ex.getPipelineResult());
+        List<Integer> retryIndexes = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) instanceof Exception failure) {
+                if (!isNoScriptError(failure)) {
+                    throw ex;
+                }
+                retryIndexes.add(i);
+            }
+        }
+        if (retryIndexes.isEmpty() || results.size() != keys.size()) {
+            throw ex;
+        }
+
+        loadScript();
+
+        List<String> retryKeys = new ArrayList<>(retryIndexes.size());
+        List<List<String>> retryArgs = new ArrayList<>(retryIndexes.size());
+        for (Integer index : retryIndexes) {
+            retryKeys.add(keys.get(index));
+            retryArgs.add(args.get(index));
+        }
+        List<Object> retried = executePipelined(retryKeys, retryArgs);
+        for (int i = 0; i < retryIndexes.size(); i++) {
+            results.set(retryIndexes.get(i), retried.get(i));
+        }
+        return results;
+    }
+
+    /**
+     * 使用模板的字符串序列化器序列化参数
+     *
+     * @param value 字符串
+     * @return 字节数组
+     */
+    private byte[] serialize(String value) {
+        return redisTemplate.getStringSerializer().serialize(value);
+    }
+
+    /**
+     * 等待集群命令完成
+     *
+     * @param future 命令结果
+     */
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RedisSystemException("等待 SCRIPT LOAD 结果时被中断", ex);
+        } catch (ExecutionException | CompletionException ex) {
+            throw new RedisSystemException("SCRIPT LOAD 执行失败: " + ex.getCause().getMessage(), ex.getCause());
+        }
+    }
+
+    /**
+     * 获取 Lettuce 原生的脚本命令接口
+     *
+     * @param nativeConnection 原生连接
+     * @return 脚本命令接口
+     */
+    @SuppressWarnings("unchecked")
+    private static RedisScriptingAsyncCommands<byte[], byte[]> scriptingCommands(Object nativeConnection) {
+        if (nativeConnection instanceof RedisScriptingAsyncCommands<?, ?> commands) {
+            return (RedisScriptingAsyncCommands<byte[], byte[]>) commands;
+        }
+        throw new IllegalStateException("异步限流检查需要 Lettuce 驱动，当前连接类型: "
+                + (nativeConnection != null ? nativeConnection.getClass().getName() : null));
+    }
+
+    /**
+     * 判断异常是否由 NOSCRIPT 错误引起
+     *
+     * @param failure 异常
+     * @return 是否为 NOSCRIPT 错误
+     */
+    private static boolean isNoScriptError(Throwable failure) {
+        Throwable current = failure;
+        while (current != null) {
+            String message = current.getMessage();
+            if (message != null && message.contains("NOSCRIPT")) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package cn.springboot.starter.api_rate_limiter.core.storage.script;
+
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * 并发限流脚本工厂实现
+ * 有序集合的成员为租约标识、分数为租约到期时间（毫秒），获取、续期与释放共用同一脚本
+ *
+ * @author Yuan Shenjian
+ */
+public class ConcurrencyScriptFactory implements RateLimitScriptFactory {
+
+    @Override
+    public RedisScript<Long> createRateLimitScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(getConcurrencyScript());
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * 获取并发限流脚本内容
+     *
+     * @return 脚本内容
+     */
+    private static String getConcurrencyScript() {
+        return """
+            -- 并发限流脚本
+            -- KEYS[1] = 限流器的键（有序集合）
+            -- ARGV[1] = 最大并发数
+            -- ARGV[2] = 租约时长（秒）
+            -- ARGV[3] = 租约标识
+            -- ARGV[4] = 操作：acquire、renew 或 release
+
+            local key = KEYS[1]
+            local max_in_flight = tonumber(ARGV[1])
+            local lease_seconds = tonumber(ARGV[2])
+            local lease_id = ARGV[3]
+
+            if ARGV[4] == 'release' then
+                return redis.call('ZREM', key, lease_id)
+            end
+
+            local current_time = redis.call('TIME')
+            local now_ms = tonumber(current_time[1]) * 1000 + math.floor(tonumber(current_time[2]) / 1000)
+
+            -- 续期只针对仍然有效的租约，已过期的租约可能已被其他请求回收并占用了槽位
+            if ARGV[4] == 'renew' then
+                local expires_at = redis.call('ZSCORE', key, lease_id)
+                if expires_at and tonumber(expires_at) >= now_ms then
+                    redis.call('ZADD', key, 'XX', now_ms + lease_seconds * 1000, lease_id)
+                    redis.call('PEXPIRE', key, lease_seconds * 1000 * 2)
+                    return 1  -- 续期成功
+                end
+                return 0  -- 租约已失效
+            end
+
+            -- 回收已过期的租约（例如持有租约的节点已崩溃）
+            redis.call('ZREMRANGEBYSCORE', key, '-inf', now_ms)
+
+            if redis.call('ZCARD', key) < max_in_flight then
+                redis.call('ZADD', key, now_ms + lease_seconds * 1000, lease_id)
+                redis.call('PEXPIRE', key, lease_seconds * 1000 * 2)
+                return 1  -- 获取到槽位
+            end
+            return 0  -- 并发已满
+            """;
+    }
+}
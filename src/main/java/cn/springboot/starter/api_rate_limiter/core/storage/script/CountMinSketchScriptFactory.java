@@ -0,0 +1,83 @@
+package cn.springboot.starter.api_rate_limiter.core.storage.script;
+
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * 计数草图脚本工厂实现
+ * 每个窗口使用一个字符串，通过 BITFIELD 以 32 位无符号计数器保存整个草图
+ *
+ * @author Yuan Shenjian
+ */
+public class CountMinSketchScriptFactory implements RateLimitScriptFactory {
+
+    @Override
+    public RedisScript<Long> createRateLimitScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(getCountMinSketchScript());
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * 获取计数草图脚本内容
+     *
+     * @return 脚本内容
+     */
+    private static String getCountMinSketchScript() {
+        return """
+            -- 计数草图限流脚本
+            -- KEYS[1] = 草图键前缀（包含哈希标签，窗口键与其位于同一槽位）
+            -- ARGV[1] = 窗口内每个键允许的最大请求数（限制）
+            -- ARGV[2] = 窗口大小（秒）
+            -- ARGV[3] = 需要获取的许可数
+            -- ARGV[4..] = 键在每一行中的计数器下标
+
+            local limit = tonumber(ARGV[1])
+            local window_size = tonumber(ARGV[2])
+            local permits = tonumber(ARGV[3])
+
+            local current_time = redis.call('TIME')
+            local window_index = math.floor(tonumber(current_time[1]) / window_size)
+            local key = KEYS[1] .. ':' .. window_index
+
+            -- 读取各行计数器，估算值为最小值
+            local get_args = {}
+            for i = 4, #ARGV do
+                table.insert(get_args, 'GET')
+                table.insert(get_args, 'u32')
+                table.insert(get_args, '#' .. ARGV[i])
+            end
+            local counters = redis.call('BITFIELD', key, unpack(get_args))
+            local estimate = counters[1]
+            for i = 2, #counters do
+                if counters[i] < estimate then
+                    estimate = counters[i]
+                end
+            end
+
+            local target = estimate + permits
+            if target > limit then
+                return 0  -- 请求拒绝
+            end
+
+            -- 保守更新：只把低于目标值的计数器抬高到目标值
+            local set_args = {}
+            for i = 1, #counters do
+                if counters[i] < target then
+                    table.insert(set_args, 'SET')
+                    table.insert(set_args, 'u32')
+                    table.insert(set_args, '#' .. ARGV[i + 3])
+                    table.insert(set_args, target)
+                end
+            end
+            if #set_args > 0 then
+                redis.call('BITFIELD', key, unpack(set_args))
+            end
+            if redis.call('TTL', key) < 0 then
+                redis.call('EXPIRE', key, window_size * 2)
+            end
+            return 1  -- 请求允许
+            """;
+    }
+}
@@ -18,6 +18,19 @@ public class FixedWindowCounterScriptFactory implements RateLimitScriptFactory {
         return script;
     }
 
+    /**
+     * 创建本地计数同步脚本。与限流脚本使用相同的键格式（"count:window_start"），
+     * 将实例本地已放行的增量累加到调用方传入的窗口并返回全局计数，Redis 中的窗口状态仍是唯一的事实来源
+     *
+     * @return 同步脚本，返回当前窗口的全局计数
+     */
+    public RedisScript<Long> createSyncScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(getFixedWindowSyncScript());
+        script.setResultType(Long.class);
+        return script;
+    }
+
     /**
      * 获取固定窗口计数器脚本内容
      *
@@ -30,16 +43,20 @@ public class FixedWindowCounterScriptFactory implements RateLimitScriptFactory {
             -- ARGV[1] = 窗口内允许的最大请求数（限制）
             -- ARGV[2] = 窗口大小（秒）
             -- ARGV[3] = 需要获取的许可数
+            -- ARGV[4] = 窗口相位（秒），由调用方计算，未错开窗口边界时为 0
 
             local key = KEYS[1]
             local limit = tonumber(ARGV[1])
             local window_size = tonumber(ARGV[2])
             local permits = tonumber(ARGV[3])
+            local phase = tonumber(ARGV[4])
+            -- 键在写入后最多一个窗口内有效，再加上相位使过期时刻随键错开
+            local ttl_ms = (window_size + phase) * 1000
 
             -- 计算当前窗口开始时间（秒）
             local current_time = redis.call('TIME')
             local current_timestamp = tonumber(current_time[1])
-            local window_start = math.floor(current_timestamp / window_size) * window_size
+            local window_start = math.floor((current_timestamp - phase) / window_size) * window_size + phase
 
             -- 获取存储在Redis中的当前计数和窗口开始时间
             local stored_data = redis.call('GET', key)
@@ -57,7 +74,7 @@ public class FixedWindowCounterScriptFactory implements RateLimitScriptFactory {
                 -- 检查是否是新窗口
                 if window_start > stored_window_start then
                     -- 为新窗口重置计数器
-                    redis.call('SET', key, permits .. ':' .. window_start)
+                    redis.call('SET', key, permits .. ':' .. window_start, 'PX', ttl_ms)
                     -- 检查许可是否在限制范围内
                     if permits <= limit then
                         return 1  -- 请求允许
@@ -68,7 +85,7 @@ public class FixedWindowCounterScriptFactory implements RateLimitScriptFactory {
                     -- 同一窗口，增加计数
                     local new_count = stored_count + permits
                     if new_count <= limit then
-                        redis.call('SET', key, new_count .. ':' .. stored_window_start)
+                        redis.call('SET', key, new_count .. ':' .. stored_window_start, 'PX', ttl_ms)
                         return 1  -- 请求允许
                     else
                         return 0  -- 请求拒绝
@@ -76,7 +93,7 @@ public class FixedWindowCounterScriptFactory implements RateLimitScriptFactory {
                 end
             else
                 -- 尚未存储数据，使用第一个请求初始化
-                redis.call('SET', key, permits .. ':' .. window_start)
+                redis.call('SET', key, permits .. ':' .. window_start, 'PX', ttl_ms)
                 -- 检查许可是否在限制范围内
                 if permits <= limit then
                     return 1  -- 请求允许
@@ -86,4 +103,47 @@ public class FixedWindowCounterScriptFactory implements RateLimitScriptFactory {
             end
             """;
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取本地计数同步脚本内容
+     *
+     * @return 脚本内容
+     */
+    private static String getFixedWindowSyncScript() {
+        return """
+            -- 固定窗口本地计数同步脚本
+            -- KEYS[1] = 限流器的键
+            -- ARGV[1] = 窗口大小（秒）
+            -- ARGV[2] = 本地已放行、尚未同步的许可数
+            -- ARGV[3] = 本地判断所在窗口的起点（秒），与限流脚本相同，按键的相位偏移
+            -- ARGV[4] = 窗口相位（秒）
+
+            local key = KEYS[1]
+            local window_size = tonumber(ARGV[1])
+            local delta = tonumber(ARGV[2])
+            local window_start = tonumber(ARGV[3])
+            local phase = tonumber(ARGV[4])
+
+            local count = 0
+            local stored_data = redis.call('GET', key)
+            if stored_data then
+                local separator = string.find(stored_data, ':')
+                local stored_count = tonumber(string.sub(stored_data, 1, separator - 1))
+                local stored_window_start = tonumber(string.sub(stored_data, separator + 1))
+                if stored_window_start > window_start then
+                    -- Redis 已进入更新的窗口（本实例时钟落后），旧窗口的增量不再写入，返回新窗口的计数使本地判断偏保守
+                    return stored_count
+                elseif stored_window_start == window_start then
+                    count = stored_count
+                end
+            end
+
+            -- 只有存在增量时才写入，纯读取不会改变窗口状态
+            if delta > 0 then
+                count = count + delta
+                redis.call('SET', key, count .. ':' .. window_start, 'PX', (window_size + phase) * 1000)
+            end
+            return count
+            """;
+    }
+}
@@ -18,6 +18,19 @@ public class LeakyBucketScriptFactory implements RateLimitScriptFactory {
         return script;
     }
 
+    /**
+     * 创建预约脚本。桶满时仍然把请求放入桶中排队，返回其排到出水口需要等待的毫秒数，
+     * 等待时间超过上限时不做任何修改并返回 -1。与限流脚本共用同一个哈希结构
+     *
+     * @return 预约脚本
+     */
+    public RedisScript<Long> createReserveScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(getLeakyBucketReserveScript());
+        script.setResultType(Long.class);
+        return script;
+    }
+
     /**
      * 获取漏桶脚本内容
      *
@@ -69,16 +82,73 @@ public class LeakyBucketScriptFactory implements RateLimitScriptFactory {
             -- 更新桶中的请求数（减去已处理的请求）
             local new_current_size = math.max(0, current_size - leaked_requests)
 
+            -- 满桶漏空所需时长的两倍后过期，再加上由键的哈希得到的固定偏移，同一时刻写入的大量键不会在同一秒集中过期
+            local ttl = math.max(2, math.ceil(capacity / leak_rate) * 2)
+            ttl = ttl + tonumber(string.sub(redis.sha1hex(key), 1, 8), 16) % ttl
+
             -- 检查添加新请求后是否会超过容量
             if new_current_size + permits <= capacity then
                 -- 添加新请求到桶中
                 redis.call('HMSET', key, 'current_size', new_current_size + permits, 'last_process_time', current_time)
+                redis.call('EXPIRE', key, ttl)
                 return 1  -- 请求允许
             else
                 -- 桶已满，拒绝请求，但仍更新处理时间
                 redis.call('HMSET', key, 'current_size', new_current_size, 'last_process_time', current_time)
+                redis.call('EXPIRE', key, ttl)
                 return 0  -- 请求拒绝
             end
             """;
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取漏桶预约脚本内容
+     *
+     * @return 脚本内容
+     */
+    private static String getLeakyBucketReserveScript() {
+        return """
+            -- 漏桶预约脚本
+            -- KEYS[1] = 限流器的键
+            -- ARGV[1] = 桶容量（最大请求数）
+            -- ARGV[2] = 泄漏速率（每秒处理请求数）
+            -- ARGV[3] = 需要获取的许可数
+            -- ARGV[4] = 最长等待时间（毫秒）
+            -- 返回值：需要等待的毫秒数，0 表示立即可用，-1 表示等待时间超过上限
+
+            local key = KEYS[1]
+            local capacity = tonumber(ARGV[1])
+            local leak_rate = tonumber(ARGV[2])
+            local permits = tonumber(ARGV[3])
+            local max_wait = tonumber(ARGV[4])
+
+            local key_type = redis.call('TYPE', key)['ok']
+            if key_type ~= 'hash' and key_type ~= 'none' then
+                redis.call('DEL', key)
+            end
+
+            local current_time = tonumber(redis.call('TIME')[1])
+            local bucket_state = redis.call('HMGET', key, 'current_size', 'last_process_time')
+            local current_size = tonumber(bucket_state[1]) or 0
+            local last_process_time = tonumber(bucket_state[2]) or current_time
+
+            local leaked_requests = math.floor((current_time - last_process_time) * leak_rate)
+            local new_size = math.max(0, current_size - leaked_requests)
+
+            -- 超出容量的部分需要先以泄漏速率流出，桶中的请求数可以暂时超过容量，表示正在排队的预约
+            local overflow = new_size + permits - capacity
+            local wait_ms = 0
+            if overflow > 0 then
+                wait_ms = math.ceil(overflow * 1000 / leak_rate)
+                if wait_ms > max_wait then
+                    return -1  -- 等待时间超过上限，拒绝且不预约
+                end
+            end
+
+            redis.call('HMSET', key, 'current_size', new_size + permits, 'last_process_time', current_time)
+            -- 过期时间加上由键的哈希得到的固定偏移，错开大量键的过期时刻
+            redis.call('EXPIRE', key, math.ceil((new_size + permits) / leak_rate) + 60 + tonumber(string.sub(redis.sha1hex(key), 1, 8), 16) % 60)
+            return wait_ms
+            """;
+    }
+}
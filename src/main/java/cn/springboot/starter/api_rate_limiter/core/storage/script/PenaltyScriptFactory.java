@@ -0,0 +1,94 @@
+package cn.springboot.starter.api_rate_limiter.core.storage.script;
+
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * 惩罚封禁脚本工厂
+ * 脚本在限流键被拒绝时累计拒绝次数，时间窗口内达到阈值后封禁该键，封禁时长随封禁等级翻倍
+ *
+ * @author Yuan Shenjian
+ */
+public class PenaltyScriptFactory {
+
+    /**
+     * 创建惩罚封禁脚本
+     *
+     * @return 脚本，返回剩余封禁时长（毫秒），未被封禁时返回 0
+     */
+    public RedisScript<Long> createPenaltyScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(getPenaltyScript());
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * 获取惩罚封禁脚本内容
+     *
+     * @return 脚本内容
+     */
+    private static String getPenaltyScript() {
+        return """
+            -- 惩罚封禁脚本
+            -- KEYS[1] = 惩罚状态键
+            -- ARGV[1] = 触发封禁的拒绝次数
+            -- ARGV[2] = 统计拒绝次数的时间窗口（毫秒）
+            -- ARGV[3] = 首次封禁时长（毫秒）
+            -- ARGV[4] = 最长封禁时长（毫秒）
+            -- ARGV[5] = 封禁等级的保留时长（毫秒），封禁结束后超过该时长未再次封禁时等级清零
+            -- ARGV[6] = 封禁通知频道
+            -- ARGV[7] = 限流键
+
+            local key = KEYS[1]
+            local threshold = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            local base_ban = tonumber(ARGV[3])
+            local max_ban = tonumber(ARGV[4])
+            local reset_after = tonumber(ARGV[5])
+
+            -- 检查键的类型，如果不是hash类型则删除它
+            local key_type = redis.call('TYPE', key)['ok']
+            if key_type ~= 'hash' and key_type ~= 'none' then
+                redis.call('DEL', key)
+            end
+
+            local current_time = redis.call('TIME')
+            local now = tonumber(current_time[1]) * 1000 + math.floor(tonumber(current_time[2]) / 1000)
+
+            local state = redis.call('HMGET', key, 'strikes', 'strikes_since', 'level', 'banned_until')
+            local strikes = tonumber(state[1]) or 0
+            local strikes_since = tonumber(state[2])
+            local level = tonumber(state[3]) or 0
+            local banned_until = tonumber(state[4]) or 0
+
+            -- 已被其他实例封禁时返回剩余时长，调用方据此同步本地缓存
+            if banned_until > now then
+                return banned_until - now
+            end
+
+            -- 超出统计窗口后重新计数
+            if strikes_since == nil or now - strikes_since >= window then
+                strikes = 0
+                strikes_since = now
+            end
+            strikes = strikes + 1
+
+            if strikes < threshold then
+                redis.call('HSET', key, 'strikes', strikes, 'strikes_since', strikes_since)
+                if redis.call('PTTL', key) < window then
+                    redis.call('PEXPIRE', key, window)
+                end
+                return 0
+            end
+
+            -- 达到阈值，封禁时长随等级翻倍，不超过最长封禁时长
+            level = level + 1
+            local ban = math.min(base_ban * math.pow(2, level - 1), max_ban)
+            redis.call('HSET', key, 'strikes', 0, 'strikes_since', now, 'level', level, 'banned_until', now + ban)
+            redis.call('PEXPIRE', key, ban + reset_after)
+            redis.call('PUBLISH', ARGV[6], ban .. ':' .. ARGV[7])
+            return ban
+            """;
+    }
+}
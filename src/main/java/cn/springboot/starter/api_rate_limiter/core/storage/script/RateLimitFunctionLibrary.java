@@ -0,0 +1,317 @@
+package cn.springboot.starter.api_rate_limiter.core.storage.script;
+
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.async.RedisFunctionAsyncCommands;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
+import lombok.Getter;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * 限流函数库（Redis 7+ Functions）
+ * 将所有限流脚本注册为同一个 Lua 函数库，通过 FUNCTION LOAD 加载、FCALL 调用。
+ * 函数库随 RDB/AOF 持久化并复制到从节点，故障转移或重启后不会出现 NOSCRIPT 风暴。
+ * 库名和函数名中包含由脚本内容计算出的版本号，滚动发布时新旧版本可以同时存在。
+ * 该模式依赖 Lettuce 驱动的原生 Functions 命令
+ *
+ * @author Yuan Shenjian
+ */
+public class RateLimitFunctionLibrary {
+
+    /**
+     * 函数库名称前缀
+     */
+    public static final String LIBRARY_PREFIX = "api_rate_limiter_";
+
+    @Getter
+    private final String libraryName;
+
+    @Getter
+    private final String libraryCode;
+
+    private final Map<String, String> functionNames = new LinkedHashMap<>();
+
+    /**
+     * 构造函数
+     *
+     * @param scripts 函数标识与脚本内容的映射（函数标识只能包含小写字母、数字和下划线）
+     */
+    public RateLimitFunctionLibrary(Map<String, String> scripts) {
+        String version = computeVersion(scripts);
+        this.libraryName = LIBRARY_PREFIX + version;
+
+        StringBuilder code = new StringBuilder("#!lua name=").append(libraryName).append('\n');
+        scripts.forEach((id, script) -> {
+            String functionName = libraryName + "_" + id;
+            functionNames.put(id, functionName);
+            // 脚本体以 KEYS/ARGV 为参数名包装成函数，与 EVAL 模式共用同一份脚本
+            code.append("\nredis.register_function('").append(functionName).append("', function(KEYS, ARGV)\n")
+                    .append(script)
+                    .append("\nend)\n");
+        });
+        this.libraryCode = code.toString();
+    }
+
+    /**
+     * 获取函数标识对应的函数名
+     *
+     * @param id 函数标识
+     * @return 函数名，不存在时返回 null
+     */
+    public String getFunctionName(String id) {
+        return functionNames.get(id);
+    }
+
+    /**
+     * 加载函数库（FUNCTION LOAD REPLACE），集群模式下在所有主节点上加载
+     *
+     * @param redisTemplate Redis模板
+     */
+    public void load(StringRedisTemplate redisTemplate) {
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            Object nativeConnection = connection.getNativeConnection();
+            if (nativeConnection instanceof RedisAdvancedClusterAsyncCommands<?, ?> cluster) {
+                await(cluster.upstream().commands().functionLoad(libraryCode, true).toCompletableFuture());
+            } else {
+                await(functionCommands(nativeConnection).functionLoad(libraryCode, true));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 调用函数（FCALL），函数不存在时（例如 FUNCTION FLUSH 之后）重新加载函数库并重试一次
+     *
+     * @param redisTemplate Redis模板
+     * @param functionName 函数名
+     * @param key 限流键
+     * @param args 函数参数
+     * @return 函数返回值
+     */
+    public Long call(StringRedisTemplate redisTemplate, String functionName, String key, List<String> args) {
+        return callAll(redisTemplate, functionName, List.of(key), List.of(args)).get(0);
+    }
+
+    /**
+     * 以非阻塞方式调用函数（FCALL），函数不存在时异步加载函数库并重试一次
+     *
+     * @param redisTemplate Redis模板
+     * @param functionName 函数名
+     * @param key 限流键
+     * @param args 函数参数
+     * @return 函数返回值的 Future
+     */
+    public CompletableFuture<Long> callAsync(StringRedisTemplate redisTemplate, String functionName, String key, List<String> args) {
+        return fcallAsync(redisTemplate, functionName, key, args)
+                .exceptionallyCompose(ex -> isFunctionNotFound(ex)
+                        ? loadAsync(redisTemplate).thenCompose(ignored -> fcallAsync(redisTemplate, functionName, key, args))
+                        : CompletableFuture.failedFuture(ex));
+    }
+
+    /**
+     * 异步发送一条 FCALL
+     *
+     * @param redisTemplate Redis模板
+     * @param functionName 函数名
+     * @param key 限流键
+     * @param args 函数参数
+     * @return 函数返回值的 Future
+     */
+    private CompletableFuture<Long> fcallAsync(StringRedisTemplate redisTemplate, String functionName, String key, List<String> args) {
+        byte[][] keyBytes = {key.getBytes(StandardCharsets.UTF_8)};
+        byte[][] argBytes = new byte[args.size()][];
+        for (int i = 0; i < args.size(); i++) {
+            argBytes[i] = args.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        return redisTemplate.execute((RedisCallback<CompletableFuture<Long>>) connection ->
+                functionCommands(connection.getNativeConnection())
+                        .<Long>fcall(functionName, ScriptOutputType.INTEGER, keyBytes, argBytes)
+                        .toCompletableFuture());
+    }
+
+    /**
+     * 异步加载函数库（FUNCTION LOAD REPLACE），集群模式下在所有主节点上加载
+     *
+     * @param redisTemplate Redis模板
+     * @return 加载完成的 Future
+     */
+    private CompletableFuture<?> loadAsync(StringRedisTemplate redisTemplate) {
+        return redisTemplate.execute((RedisCallback<CompletableFuture<?>>) connection -> {
+            Object nativeConnection = connection.getNativeConnection();
+            if (nativeConnection instanceof RedisAdvancedClusterAsyncCommands<?, ?> cluster) {
+                return cluster.upstream().commands().functionLoad(libraryCode, true).toCompletableFuture();
+            }
+            return functionCommands(nativeConnection).functionLoad(libraryCode, true).toCompletableFuture();
+        });
+    }
+
+    /**
+     * 对多个键批量调用同一函数，命令以异步方式连续发送，相当于一次管道往返。
+     * 函数不存在时只对失败的键重试，已成功执行的键不会被重复计数
+     *
+     * @param redisTemplate Redis模板
+     * @param functionName 函数名
+     * @param keys 限流键列表
+     * @param args 与键一一对应的函数参数
+     * @return 与键顺序一致的函数返回值
+     */
+    public List<Long> callAll(StringRedisTemplate redisTemplate, String functionName, List<String> keys, List<List<String>> args) {
+        List<Object> results = doCallAll(redisTemplate, functionName, keys, args);
+
+        List<Integer> retryIndexes = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) instanceof Throwable failure) {
+                if (!isFunctionNotFound(failure)) {
+                    throw new RedisSystemException("Redis Functions 命令执行失败: " + failure.getMessage(), failure);
+                }
+                retryIndexes.add(i);
+            }
+        }
+        if (!retryIndexes.isEmpty()) {
+            load(redisTemplate);
+            List<String> retryKeys = new ArrayList<>(retryIndexes.size());
+            List<List<String>> retryArgs = new ArrayList<>(retryIndexes.size());
+            for (Integer index : retryIndexes) {
+                retryKeys.add(keys.get(index));
+                retryArgs.add(args.get(index));
+            }
+            List<Object> retried = doCallAll(redisTemplate, functionName, retryKeys, retryArgs);
+            for (int i = 0; i < retryIndexes.size(); i++) {
+                if (retried.get(i) instanceof Throwable failure) {
+                    throw new RedisSystemException("Redis Functions 命令执行失败: " + failure.getMessage(), failure);
+                }
+                results.set(retryIndexes.get(i), retried.get(i));
+            }
+        }
+
+        List<Long> values = new ArrayList<>(results.size());
+        for (Object result : results) {
+            values.add((Long) result);
+        }
+        return values;
+    }
+
+    /**
+     * 批量发送 FCALL 并等待所有结果
+     *
+     * @param redisTemplate Redis模板
+     * @param functionName 函数名
+     * @param keys 限流键列表
+     * @param args 与键一一对应的函数参数
+     * @return 每个键的函数返回值，执行失败的位置为对应的异常
+     */
+    private List<Object> doCallAll(StringRedisTemplate redisTemplate, String functionName, List<String> keys, List<List<String>> args) {
+        return redisTemplate.execute((RedisCallback<List<Object>>) connection -> {
+            RedisFunctionAsyncCommands<byte[], byte[]> commands = functionCommands(connection.getNativeConnection());
+            List<RedisFuture<Long>> futures = new ArrayList<>(keys.size());
+            List<String> previousArgs = null;
+            byte[][] argBytes = null;
+            for (int i = 0; i < keys.size(); i++) {
+                // 批量调用通常共用同一份参数，只在参数变化时重新编码
+                if (args.get(i) != previousArgs) {
+                    previousArgs = args.get(i);
+                    argBytes = new byte[previousArgs.size()][];
+                    for (int j = 0; j < previousArgs.size(); j++) {
+                        argBytes[j] = previousArgs.get(j).getBytes(StandardCharsets.UTF_8);
+                    }
+                }
+                byte[][] keyBytes = {keys.get(i).getBytes(StandardCharsets.UTF_8)};
+                futures.add(commands.fcall(functionName, ScriptOutputType.INTEGER, keyBytes, argBytes));
+            }
+            List<Object> results = new ArrayList<>(futures.size());
+            for (RedisFuture<Long> future : futures) {
+                try {
+                    results.add(await(future));
+                } catch (RedisSystemException ex) {
+                    results.add(ex.getCause() != null ? ex.getCause() : ex);
+                }
+            }
+            return results;
+        });
+    }
+
+    /**
+     * 获取 Lettuce 原生的 Functions 命令接口
+     *
+     * @param nativeConnection 原生连接
+     * @return Functions 命令接口
+     */
+    @SuppressWarnings("unchecked")
+    private static RedisFunctionAsyncCommands<byte[], byte[]> functionCommands(Object nativeConnection) {
+        if (nativeConnection instanceof RedisFunctionAsyncCommands<?, ?> commands) {
+            return (RedisFunctionAsyncCommands<byte[], byte[]>) commands;
+        }
+        throw new IllegalStateException("Redis Functions 模式需要 Lettuce 驱动，当前连接类型: "
+                + (nativeConnection != null ? nativeConnection.getClass().getName() : null));
+    }
+
+    /**
+     * 等待异步命令完成
+     *
+     * @param future 异步结果
+     * @param <T> 结果类型
+     * @return 命令结果
+     */
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RedisSystemException("等待 Redis Functions 命令结果时被中断", ex);
+        } catch (ExecutionException | CompletionException ex) {
+            throw new RedisSystemException("Redis Functions 命令执行失败: " + ex.getCause().getMessage(), ex.getCause());
+        }
+    }
+
+    /**
+     * 判断异常是否由函数不存在引起
+     *
+     * @param ex 异常
+     * @return 是否为函数不存在错误
+     */
+    private static boolean isFunctionNotFound(Throwable ex) {
+        Throwable current = ex;
+        while (current != null) {
+            String message = current.getMessage();
+            if (message != null && message.contains("Function not found")) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * 根据脚本内容计算函数库版本号
+     *
+     * @param scripts 函数标识与脚本内容的映射
+     * @return 版本号（SHA-1 前 8 位）
+     */
+    private static String computeVersion(Map<String, String> scripts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            scripts.forEach((id, script) -> {
+                digest.update(id.getBytes(StandardCharsets.UTF_8));
+                digest.update(script.getBytes(StandardCharsets.UTF_8));
+            });
+            return HexFormat.of().formatHex(digest.digest()).substring(0, 8);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-1 不可用", ex);
+        }
+    }
+}
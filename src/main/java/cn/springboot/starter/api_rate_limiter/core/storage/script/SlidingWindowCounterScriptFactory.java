@@ -31,6 +31,7 @@ public class SlidingWindowCounterScriptFactory implements RateLimitScriptFactory
             -- ARGV[2] = 窗口大小（秒）
             -- ARGV[3] = 子窗口数量
             -- ARGV[4] = 需要获取的许可数
+            -- ARGV[5] = 窗口相位（秒），由调用方计算，未错开窗口边界时为 0
 
             local key = KEYS[1]
             local limit = tonumber(ARGV[1])
@@ -40,7 +41,8 @@ public class SlidingWindowCounterScriptFactory implements RateLimitScriptFactory
 
             -- 计算子窗口大小
             local sub_window_size = window_size / sub_windows
-            local current_time = tonumber(redis.call('TIME')[1])
+            -- 子窗口边界按相位平移，子窗口键也随之在不同时刻过期
+            local current_time = tonumber(redis.call('TIME')[1]) - tonumber(ARGV[5])
 
             -- 计算当前子窗口索引
             local current_sub_window = math.floor(current_time / sub_window_size)
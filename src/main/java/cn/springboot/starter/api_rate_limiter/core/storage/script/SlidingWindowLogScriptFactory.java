@@ -58,18 +58,22 @@ public class SlidingWindowLogScriptFactory implements RateLimitScriptFactory {
             -- 清理过期的条目
             redis.call('ZREMRANGEBYSCORE', key, 0, window_start)
 
+            -- 窗口大小的两倍后过期，再加上由键的哈希得到的固定偏移，同一时刻写入的大量键不会在同一秒集中过期
+            local ttl = window_size * 2
+            ttl = ttl + tonumber(string.sub(redis.sha1hex(key), 1, 8), 16) % ttl
+
             -- 检查是否超过限制
             if current_count + permits <= limit then
                 -- 添加当前请求的时间戳到有序集合中
                 redis.call('ZADD', key, current_time, current_time .. ':' .. math.random(1000000))
 
                 -- 设置键的过期时间，防止无限增长
-                redis.call('EXPIRE', key, window_size * 2)
+                redis.call('EXPIRE', key, ttl)
 
                 return 1  -- 请求允许
             else
                 -- 不添加时间戳，但仍然清理过期条目并设置过期时间
-                redis.call('EXPIRE', key, window_size * 2)
+                redis.call('EXPIRE', key, ttl)
 
                 return 0  -- 请求拒绝
             end
@@ -19,6 +19,32 @@ public class TokenBucketScriptFactory implements RateLimitScriptFactory {
         return script;
     }
 
+    /**
+     * 创建预约脚本。令牌不足时预支未来的令牌（令牌数可以为负），返回需要等待的毫秒数，
+     * 等待时间超过上限时不做任何修改并返回 -1。与限流脚本共用同一个哈希结构
+     *
+     * @return 预约脚本
+     */
+    public RedisScript<Long> createReserveScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(getTokenBucketReserveScript());
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * 创建预热（慢启动）脚本。冷启动时桶容量和填充速率都只有配置值的 1/3，
+     * 在预热时长内线性提升到配置值；闲置超过预热时长后重新预热
+     *
+     * @return 预热脚本
+     */
+    public RedisScript<Long> createWarmupScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(getTokenBucketWarmupScript());
+        script.setResultType(Long.class);
+        return script;
+    }
+
     /**
      * 获取增强版令牌桶脚本内容
      *
@@ -76,16 +102,156 @@ public class TokenBucketScriptFactory implements RateLimitScriptFactory {
             -- 计算下次填充时间（基于上次填充时间）
             local next_refill_time = last_refill_time + (elapsed_intervals + 1) * refill_interval
 
+            -- 桶填满所需时长的两倍后过期，再加上由键的哈希得到的固定偏移，同一时刻写入的大量键不会在同一秒集中过期
+            local ttl = math.max(refill_interval * 2, math.ceil(capacity / refill_amount) * refill_interval * 2)
+            ttl = ttl + tonumber(string.sub(redis.sha1hex(key), 1, 8), 16) % ttl
+
             -- 检查是否有足够的令牌用于请求
             if new_tokens >= permits then
                 -- 扣除令牌并更新下次填充时间
                 redis.call('HMSET', key, 'tokens', new_tokens - permits, 'last_refill_time', current_time)
+                redis.call('EXPIRE', key, ttl)
                 return 1  -- 请求允许
             else
                 -- 即使请求被拒绝也要更新时间（防止滥用）
                 redis.call('HMSET', key, 'tokens', new_tokens, 'last_refill_time', current_time)
+                redis.call('EXPIRE', key, ttl)
                 return 0  -- 请求拒绝
             end
             """;
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取令牌桶预约脚本内容
+     *
+     * @return 脚本内容
+     */
+    private static String getTokenBucketReserveScript() {
+        return """
+            -- 令牌桶预约脚本
+            -- KEYS[1] = 限流器的键
+            -- ARGV[1] = 桶容量（最大令牌数）
+            -- ARGV[2] = 填充数量（在指定时间单位内填充的令牌数）
+            -- ARGV[3] = 填充间隔（秒）
+            -- ARGV[4] = 需要获取的许可数
+            -- ARGV[5] = 最长等待时间（毫秒）
+            -- 返回值：需要等待的毫秒数，0 表示立即可用，-1 表示等待时间超过上限
+
+            local key = KEYS[1]
+            local capacity = tonumber(ARGV[1])
+            local refill_amount = tonumber(ARGV[2])
+            local refill_interval = tonumber(ARGV[3])
+            local permits = tonumber(ARGV[4])
+            local max_wait = tonumber(ARGV[5])
+
+            local key_type = redis.call('TYPE', key)['ok']
+            if key_type ~= 'hash' and key_type ~= 'none' then
+                redis.call('DEL', key)
+            end
+
+            local current_time = redis.call('TIME')
+            local now_seconds = tonumber(current_time[1])
+            local now_ms = now_seconds * 1000 + math.floor(tonumber(current_time[2]) / 1000)
+
+            local bucket_state = redis.call('HMGET', key, 'tokens', 'last_refill_time')
+            local tokens = tonumber(bucket_state[1]) or capacity
+            local last_refill_time = tonumber(bucket_state[2]) or now_seconds
+
+            -- 按完整的填充周期补充令牌，并保留周期相位，避免频繁调用吞掉不足一个周期的时间
+            local elapsed_intervals = math.floor((now_seconds - last_refill_time) / refill_interval)
+            if elapsed_intervals > 0 then
+                tokens = math.min(capacity, tokens + elapsed_intervals * refill_amount)
+                last_refill_time = last_refill_time + elapsed_intervals * refill_interval
+            end
+
+            local remaining = tokens - permits
+            local wait_ms = 0
+            if remaining < 0 then
+                -- 计算偿还欠下的令牌需要的填充周期数，以及最后一个周期的到达时间
+                local intervals_needed = math.ceil(-remaining / refill_amount)
+                wait_ms = (last_refill_time + intervals_needed * refill_interval) * 1000 - now_ms
+                if wait_ms > max_wait then
+                    return -1  -- 等待时间超过上限，拒绝且不预约
+                end
+            end
+
+            redis.call('HMSET', key, 'tokens', remaining, 'last_refill_time', last_refill_time)
+            -- 过期时间加上由键的哈希得到的固定偏移，错开大量键的过期时刻
+            local ttl = math.max(refill_interval * 2, math.ceil(capacity / refill_amount) * refill_interval * 2)
+            redis.call('EXPIRE', key, ttl + tonumber(string.sub(redis.sha1hex(key), 1, 8), 16) % ttl)
+            return math.max(0, wait_ms)
+            """;
+    }
+
+    /**
+     * 获取令牌桶预热脚本内容
+     *
+     * @return 脚本内容
+     */
+    private static String getTokenBucketWarmupScript() {
+        return """
+            -- 令牌桶预热（慢启动）脚本
+            -- KEYS[1] = 限流器的键
+            -- ARGV[1] = 桶容量（最大令牌数）
+            -- ARGV[2] = 填充数量（在指定时间单位内填充的令牌数）
+            -- ARGV[3] = 填充间隔（秒）
+            -- ARGV[4] = 需要获取的许可数
+            -- ARGV[5] = 预热时长（秒）
+            -- 返回值：1 表示允许，0 表示拒绝
+
+            local key = KEYS[1]
+            local capacity = tonumber(ARGV[1])
+            local refill_amount = tonumber(ARGV[2])
+            local refill_interval = tonumber(ARGV[3])
+            local permits = tonumber(ARGV[4])
+            local warmup = tonumber(ARGV[5])
+            local cold_factor = 3
+
+            local key_type = redis.call('TYPE', key)['ok']
+            if key_type ~= 'hash' and key_type ~= 'none' then
+                redis.call('DEL', key)
+            end
+
+            local current_time = redis.call('TIME')
+            local now = tonumber(current_time[1]) + tonumber(current_time[2]) / 1000000
+
+            local state = redis.call('HMGET', key, 'tokens', 'last_refill_time', 'warm_since', 'last_seen')
+            local tokens = tonumber(state[1])
+            local last_refill_time = tonumber(state[2])
+            local warm_since = tonumber(state[3])
+            local last_seen = tonumber(state[4])
+
+            -- 预热进度对应的系数，从 1/cold_factor 线性增长到 1
+            local function warm_factor(at)
+                local progress = math.min(1, math.max(0, (at - warm_since) / warmup))
+                return (1 + (cold_factor - 1) * progress) / cold_factor
+            end
+
+            local cold = tokens == nil or last_refill_time == nil or warm_since == nil or last_seen == nil
+                or now - last_seen >= warmup
+            if cold then
+                -- 首次使用或闲置超过预热时长：以冷启动容量重新开始预热
+                warm_since = now
+                tokens = capacity / cold_factor
+            else
+                -- 填充速率随预热进度变化，按区间两端系数的平均值积分
+                local elapsed = math.max(0, now - last_refill_time)
+                local average_factor = (warm_factor(last_refill_time) + warm_factor(now)) / 2
+                tokens = tokens + elapsed * refill_amount / refill_interval * average_factor
+            end
+            tokens = math.min(capacity * warm_factor(now), tokens)
+
+            local allowed = 0
+            if tokens >= permits then
+                tokens = tokens - permits
+                allowed = 1
+            end
+
+            redis.call('HMSET', key, 'tokens', tokens, 'last_refill_time', now, 'warm_since', warm_since, 'last_seen', now)
+            -- 过期时间加上由键的哈希得到的固定偏移，错开大量键的过期时刻
+            local ttl = math.max(2, math.ceil(math.max(warmup, capacity / refill_amount * refill_interval)) * 2)
+            redis.call('EXPIRE', key, ttl + tonumber(string.sub(redis.sha1hex(key), 1, 8), 16) % ttl)
+            return allowed
+            """;
+    }
+}
@@ -0,0 +1,84 @@
+package cn.springboot.starter.api_rate_limiter.core.storage.script;
+
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * 加权滑动窗口脚本工厂实现
+ * 每个键是一个哈希，只保存当前窗口序号、当前窗口计数与上一窗口计数，内存占用固定且每次判断只执行一次脚本
+ *
+ * @author Yuan Shenjian
+ */
+public class WeightedSlidingWindowScriptFactory implements RateLimitScriptFactory {
+
+    @Override
+    public RedisScript<Long> createRateLimitScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(getWeightedSlidingWindowScript());
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * 获取加权滑动窗口脚本内容
+     *
+     * @return 脚本内容
+     */
+    private static String getWeightedSlidingWindowScript() {
+        return """
+            -- 加权滑动窗口限流脚本
+            -- KEYS[1] = 限流器的键
+            -- ARGV[1] = 窗口内允许的最大请求数（限制）
+            -- ARGV[2] = 窗口大小（秒）
+            -- ARGV[3] = 需要获取的许可数
+            -- ARGV[4] = 窗口相位（秒），由调用方计算，未错开窗口边界时为 0
+
+            local key = KEYS[1]
+            local limit = tonumber(ARGV[1])
+            local window_size = tonumber(ARGV[2])
+            local permits = tonumber(ARGV[3])
+
+            -- 检查键的类型，如果不是hash类型则删除它
+            local key_type = redis.call('TYPE', key)['ok']
+            if key_type ~= 'hash' and key_type ~= 'none' then
+                redis.call('DEL', key)
+            end
+
+            -- 以毫秒计算当前窗口序号与窗口内已过去的比例
+            local current_time = redis.call('TIME')
+            local now_ms = tonumber(current_time[1]) * 1000 + math.floor(tonumber(current_time[2]) / 1000)
+            local window_ms = window_size * 1000
+            now_ms = now_ms - tonumber(ARGV[4]) * 1000
+            local window = math.floor(now_ms / window_ms)
+            local elapsed = (now_ms - window * window_ms) / window_ms
+
+            -- 读取已保存的窗口序号与计数
+            local state = redis.call('HMGET', key, 'window', 'curr', 'prev')
+            local stored_window = tonumber(state[1])
+            local curr = tonumber(state[2]) or 0
+            local prev = tonumber(state[3]) or 0
+
+            -- 进入新窗口时滚动计数：紧邻的上一窗口计数保留为 prev，间隔超过一个窗口时两者都清零
+            if stored_window == nil or stored_window < window - 1 then
+                prev = 0
+                curr = 0
+            elseif stored_window == window - 1 then
+                prev = curr
+                curr = 0
+            end
+
+            -- 上一窗口的计数按未被滑出的比例计入估算值
+            local estimate = prev * (1 - elapsed) + curr
+
+            if estimate + permits <= limit then
+                curr = curr + permits
+                redis.call('HSET', key, 'window', window, 'curr', curr, 'prev', prev)
+                -- 上一窗口的计数最多在两个窗口内有效
+                redis.call('PEXPIRE', key, window_ms * 2)
+                return 1  -- 请求允许
+            else
+                return 0  -- 请求拒绝
+            end
+            """;
+    }
+}
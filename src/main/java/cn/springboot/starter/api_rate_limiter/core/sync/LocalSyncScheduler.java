@@ -0,0 +1,79 @@
+package cn.springboot.starter.api_rate_limiter.core.sync;
+
+import cn.springboot.starter.api_rate_limiter.core.RateLimiterClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地计数同步调度器
+ * 使用单个守护线程按固定间隔把本地计数同步到 Redis，停止时执行最后一次同步，避免丢失已放行的增量
+ *
+ * @author Yuan Shenjian
+ */
+@Slf4j
+public class LocalSyncScheduler implements SmartLifecycle {
+
+    private final RateLimiterClient rateLimiterClient;
+    private final Duration interval;
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * 构造函数
+     *
+     * @param rateLimiterClient 编程式限流客户端
+     * @param interval 同步间隔
+     */
+    public LocalSyncScheduler(RateLimiterClient rateLimiterClient, Duration interval) {
+        this.rateLimiterClient = rateLimiterClient;
+        this.interval = interval;
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limiter-local-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        this.executor = scheduler;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService scheduler = this.executor;
+        if (scheduler == null) {
+            return;
+        }
+        this.executor = null;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(interval.toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * 执行一次同步，异常只记录日志，保证调度任务不会因单次失败而终止
+     */
+    private void flush() {
+        try {
+            rateLimiterClient.flushLocalCounters();
+        } catch (RuntimeException ex) {
+            log.warn("本地限流计数同步失败: {}", ex.getMessage());
+        }
+    }
+}
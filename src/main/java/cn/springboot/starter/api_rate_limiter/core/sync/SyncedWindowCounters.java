@@ -0,0 +1,203 @@
+package cn.springboot.starter.api_rate_limiter.core.sync;
+
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import cn.springboot.starter.api_rate_limiter.core.storage.RedisRateLimitStorage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地计数、定期同步的固定窗口计数器
+ * 每个实例在本地使用 LongAdder 计数并依据最近一次同步得到的全局计数做出判断，请求路径上不访问 Redis；
+ * 由调度线程定期调用 {@link #flush()}，在一次管道往返中把各键的本地增量累加到 Redis 并读回全局计数。
+ * 判断结果是最终一致的：同步间隔内各实例可能合计多放行 实例数 × 同步间隔内的请求量
+ *
+ * @author Yuan Shenjian
+ */
+@Slf4j
+public class SyncedWindowCounters {
+
+    private final RedisRateLimitStorage syncStorage;
+    private final Map<CounterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     *
+     * @param syncStorage 执行同步脚本的存储
+     */
+    public SyncedWindowCounters(RedisRateLimitStorage syncStorage) {
+        this.syncStorage = syncStorage;
+    }
+
+    /**
+     * 依据本地计数、正在同步的增量与最近一次同步的全局计数尝试获取许可
+     *
+     * @param spec 限流规格（固定窗口）
+     * @param key 限流键
+     * @param permits 许可数量
+     * @return 如果请求被允许则返回 true，否则返回 false
+     */
+    public boolean tryAcquire(RateLimitSpec spec, String key, int permits) {
+        long now = System.currentTimeMillis();
+        long windowMillis = spec.getWindowSize() * 1000;
+        long phaseMillis = spec.windowPhase(key) * 1000;
+        while (true) {
+            Counter counter = counters.computeIfAbsent(new CounterKey(key, windowMillis, phaseMillis),
+                    k -> new Counter(windowMillis, phaseMillis, now));
+            counter.rollIfNeeded(now);
+            counter.lastAccess = now;
+            if (counter.globalCount + counter.inFlight + counter.pending.sum() + permits > spec.getLimit()) {
+                return false;
+            }
+            counter.pending.add(permits);
+            if (!counter.evicted) {
+                return true;
+            }
+            // 计数器在判断期间被清理，撤回增量后在新的计数器上重新判断
+            counter.pending.add(-permits);
+        }
+    }
+
+    /**
+     * 将所有键的本地增量同步到 Redis 并刷新全局计数，长时间未访问且没有增量的键会被清理。
+     * 增量在同步往返期间计入 inFlight，直到收到全局计数；同步失败时增量会保留到下一次同步。
+     * 本地窗口起点与相位作为参数传给同步脚本，增量总是累加到本地判断所在的窗口
+     */
+    public void flush() {
+        if (counters.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<String> keys = new ArrayList<>(counters.size());
+        List<Counter> flushed = new ArrayList<>(counters.size());
+        List<Long> deltas = new ArrayList<>(counters.size());
+        List<Long> windows = new ArrayList<>(counters.size());
+        List<List<String>> args = new ArrayList<>(counters.size());
+        for (Map.Entry<CounterKey, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            long delta;
+            long windowStart;
+            synchronized (counter) {
+                if (counter.pending.sum() == 0 && counter.inFlight == 0 && now - counter.lastAccess > counter.windowMillis * 2) {
+                    // 先标记再复查增量：tryAcquire 先写增量再读标记，两边至少有一方能看到对方的写入。
+                    // 复查发现增量时说明有请求在第一次检查之后写入且可能没有看到标记，保留计数器留待下次同步
+                    counter.evicted = true;
+                    if (counter.pending.sum() == 0) {
+                        counters.remove(entry.getKey(), counter);
+                    } else {
+                        counter.evicted = false;
+                    }
+                    continue;
+                }
+                delta = counter.pending.sumThenReset();
+                counter.inFlight += delta;
+                windowStart = counter.windowStart;
+            }
+            keys.add(entry.getKey().key());
+            flushed.add(counter);
+            deltas.add(delta);
+            windows.add(windowStart);
+            args.add(List.of(String.valueOf(counter.windowMillis / 1000), String.valueOf(delta),
+                    String.valueOf(windowStart / 1000), String.valueOf(counter.phaseMillis / 1000)));
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        List<Long> totals = null;
+        try {
+            totals = syncStorage.executeAll(keys, args);
+        } catch (RuntimeException ex) {
+            log.warn("本地限流计数同步到 Redis 失败，{} 个键的增量将在下次同步时重试: {}", keys.size(), ex.getMessage());
+        }
+        for (int i = 0; i < flushed.size(); i++) {
+            Counter counter = flushed.get(i);
+            Long total = totals != null && i < totals.size() ? totals.get(i) : null;
+            synchronized (counter) {
+                // 同步期间本地已进入新窗口时，旧窗口的结果与增量都不再适用
+                if (counter.windowStart != windows.get(i)) {
+                    continue;
+                }
+                counter.inFlight -= deltas.get(i);
+                if (total != null) {
+                    counter.globalCount = total;
+                } else {
+                    counter.pending.add(deltas.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * 当前在本地跟踪的键数量
+     *
+     * @return 键数量
+     */
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * 本地计数器的键，窗口大小或相位不同的规格即使限流键相同也使用各自的计数器
+     *
+     * @param key 限流键
+     * @param windowMillis 窗口大小（毫秒）
+     * @param phaseMillis 窗口相位（毫秒）
+     */
+    private record CounterKey(String key, long windowMillis, long phaseMillis) {
+    }
+
+    /**
+     * 单个键的本地计数状态
+     */
+    private static final class Counter {
+
+        private final long windowMillis;
+        private final long phaseMillis;
+        private final LongAdder pending = new LongAdder();
+        private volatile long windowStart;
+        private volatile long globalCount;
+        private volatile long inFlight;
+        private volatile long lastAccess;
+        private volatile boolean evicted;
+
+        private Counter(long windowMillis, long phaseMillis, long now) {
+            this.windowMillis = windowMillis;
+            this.phaseMillis = phaseMillis;
+            this.windowStart = currentWindowStart(now);
+        }
+
+        /**
+         * 本地时钟进入新窗口时清零全局计数，并丢弃上一窗口尚未同步的增量，避免计入新窗口
+         *
+         * @param now 当前时间（毫秒）
+         */
+        private void rollIfNeeded(long now) {
+            long current = currentWindowStart(now);
+            if (current > windowStart) {
+                synchronized (this) {
+                    if (current > windowStart) {
+                        windowStart = current;
+                        globalCount = 0;
+                        inFlight = 0;
+                        pending.reset();
+                    }
+                }
+            }
+        }
+
+        /**
+         * 与固定窗口脚本相同的窗口定义：对齐边界偏移键的相位
+         *
+         * @param now 当前时间（毫秒）
+         * @return 当前窗口起点（毫秒）
+         */
+        private long currentWindowStart(long now) {
+            return Math.floorDiv(now - phaseMillis, windowMillis) * windowMillis + phaseMillis;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package cn.springboot.starter.api_rate_limiter;
+
+import cn.springboot.starter.api_rate_limiter.core.ConcurrencyLease;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import cn.springboot.starter.api_rate_limiter.core.RateLimiterClient;
+import cn.springboot.starter.api_rate_limiter.core.storage.script.LeakyBucketScriptFactory;
+import cn.springboot.starter.api_rate_limiter.core.storage.script.PenaltyScriptFactory;
+import cn.springboot.starter.api_rate_limiter.core.storage.script.TokenBucketScriptFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 直接通过 {@link RateLimiterClient} 驱动限流脚本，并读取 Redis 中保存的状态验证脚本的计算结果
+ */
+@SpringBootTest(classes = RateLimiterIntegrationTest.TestApplication.class)
+public class RateLimitScriptIntegrationTest {
+
+    private static final String KEY_PREFIX = "script_test:";
+
+    @Autowired
+    private RateLimiterClient rateLimiterClient;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    public void testStaggeredFixedWindowAlignsToPhase() {
+        RateLimitSpec spec = RateLimitSpec.fixedWindow(5, 60).withStaggeredWindow();
+        String key = KEY_PREFIX + "fixed:staggered";
+        long phase = spec.windowPhase(key);
+
+        assertTrue(rateLimiterClient.tryAcquire(spec, key, 1));
+
+        String value = redisTemplate.opsForValue().get(key);
+        long windowStart = Long.parseLong(value.substring(value.indexOf(':') + 1));
+        long now = serverTime();
+        assertEquals(phase, Math.floorMod(windowStart, 60), "窗口起点应该偏移键的相位");
+        assertTrue(windowStart <= now && now < windowStart + 60, "当前时间应该落在窗口内");
+        Long ttl = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+        assertTrue(ttl != null && ttl > 0 && ttl <= (60 + phase) * 1000, "键应该设置窗口加相位的过期时间");
+    }
+
+    @Test
+    public void testConcurrencyLeaseAcquireAndRelease() {
+        RateLimitSpec spec = RateLimitSpec.concurrency(2, 60);
+        String key = KEY_PREFIX + "concurrency:release";
+
+        ConcurrencyLease first = rateLimiterClient.tryAcquireLease(spec, key);
+        ConcurrencyLease second = rateLimiterClient.tryAcquireLease(spec, key);
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(rateLimiterClient.tryAcquireLease(spec, key), "槽位已满时应该拒绝");
+
+        first.close();
+        assertNull(redisTemplate.opsForZSet().score(key, first.getLeaseId()), "释放后租约应该从有序集合中移除");
+        ConcurrencyLease third = rateLimiterClient.tryAcquireLease(spec, key);
+        assertNotNull(third, "释放后应该可以重新获取槽位");
+        second.close();
+        third.close();
+    }
+
+    @Test
+    public void testConcurrencyLeaseReclaimsExpiredLeases() {
+        RateLimitSpec spec = RateLimitSpec.concurrency(1, 60);
+        String key = KEY_PREFIX + "concurrency:reclaim";
+        // 模拟崩溃节点留下的已过期租约
+        redisTemplate.opsForZSet().add(key, "crashed", 0);
+
+        ConcurrencyLease lease = rateLimiterClient.tryAcquireLease(spec, key);
+        assertNotNull(lease, "已过期的租约应该被回收");
+        assertNull(redisTemplate.opsForZSet().score(key, "crashed"));
+        lease.close();
+    }
+
+    @Test
+    public void testConcurrencyLeaseIsRenewedWhileHeld() throws InterruptedException {
+        RateLimitSpec spec = RateLimitSpec.concurrency(1, 1);
+        String key = KEY_PREFIX + "concurrency:renew";
+
+        try (ConcurrencyLease lease = rateLimiterClient.tryAcquireLease(spec, key)) {
+            assertNotNull(lease);
+            Thread.sleep(2500);
+            Double expiresAt = redisTemplate.opsForZSet().score(key, lease.getLeaseId());
+            assertNotNull(expiresAt, "持有期间租约应该被续期而不是过期");
+            assertTrue(expiresAt >= serverTime() * 1000, "续期后的到期时间应该晚于当前时间");
+            assertNull(rateLimiterClient.tryAcquireLease(spec, key), "续期的租约仍然占用槽位");
+        }
+    }
+
+    @Test
+    public void testPenaltyBanEscalatesAndIsCapped() {
+        RedisScript<Long> script = new PenaltyScriptFactory().createPenaltyScript();
+        String key = KEY_PREFIX + "penalty:escalate";
+        // 阈值 2 次，首次封禁 1 秒，最长 3 秒
+        assertEquals(0L, penalty(script, key), "未达到阈值时不封禁");
+        assertEquals(1000L, penalty(script, key), "首次封禁使用基础时长");
+
+        Long remaining = penalty(script, key);
+        assertTrue(remaining > 0 && remaining <= 1000, "封禁期间返回剩余封禁时长");
+
+        assertEquals(2000L, strikeUntilBanned(script, key), "再次封禁时长翻倍");
+        assertEquals(3000L, strikeUntilBanned(script, key), "封禁时长不超过 maxBanDuration");
+        assertEquals("3", redisTemplate.opsForHash().get(key, "level"));
+        Long ttl = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+        assertTrue(ttl != null && ttl > 3000 && ttl <= 3000 + 60_000, "状态键的过期时间为封禁时长加等级保留时长");
+    }
+
+    @Test
+    public void testTokenBucketReserveReturnsWaitAndRejectsBeyondMaxWait() {
+        RedisScript<Long> script = new TokenBucketScriptFactory().createReserveScript();
+        String key = KEY_PREFIX + "token:reserve";
+        RateLimitSpec spec = RateLimitSpec.tokenBucket(2, 1, 1).withMaxWait(5000);
+
+        assertEquals(0L, execute(script, key, spec.reserveScriptArgs(key, 1)));
+        assertEquals(0L, execute(script, key, spec.reserveScriptArgs(key, 1)));
+        Long wait = execute(script, key, spec.reserveScriptArgs(key, 1));
+        assertTrue(wait > 0 && wait <= 1000, "令牌耗尽后预约下一个填充周期，实际等待 " + wait);
+        assertEquals("-1", redisTemplate.opsForHash().get(key, "tokens"), "预约的令牌以负数记账");
+
+        String slowKey = KEY_PREFIX + "token:reserve:slow";
+        RateLimitSpec slow = RateLimitSpec.tokenBucket(1, 1, 10).withMaxWait(5000);
+        assertEquals(0L, execute(script, slowKey, slow.reserveScriptArgs(slowKey, 1)));
+        assertEquals(-1L, execute(script, slowKey, slow.reserveScriptArgs(slowKey, 1)), "等待超过 maxWait 时拒绝");
+        assertEquals("0", redisTemplate.opsForHash().get(slowKey, "tokens"), "被拒绝的预约不应该扣减令牌");
+    }
+
+    @Test
+    public void testLeakyBucketReserveQueuesUpToMaxWait() {
+        RedisScript<Long> script = new LeakyBucketScriptFactory().createReserveScript();
+        String key = KEY_PREFIX + "leaky:reserve";
+        RateLimitSpec spec = RateLimitSpec.leakyBucket(2, 1).withMaxWait(2500);
+
+        assertEquals(0L, execute(script, key, spec.reserveScriptArgs(key, 1)));
+        assertEquals(0L, execute(script, key, spec.reserveScriptArgs(key, 1)));
+        assertEquals(1000L, execute(script, key, spec.reserveScriptArgs(key, 1)), "超出容量的请求按泄漏速率排队");
+        assertEquals(2000L, execute(script, key, spec.reserveScriptArgs(key, 1)));
+        assertEquals(-1L, execute(script, key, spec.reserveScriptArgs(key, 1)), "等待超过 maxWait 时拒绝");
+        assertEquals("4", redisTemplate.opsForHash().get(key, "current_size"), "被拒绝的预约不应该进入队列");
+    }
+
+    @Test
+    public void testTokenBucketWarmupRampsFromColdCapacity() {
+        // 填充极慢，测试期间补充的令牌可以忽略
+        RateLimitSpec spec = RateLimitSpec.tokenBucket(30, 1, 3600).withWarmup(60);
+        String key = KEY_PREFIX + "token:warmup";
+
+        assertEquals(10, acquireUntilRejected(spec, key), "冷启动时容量只有配置值的 1/3");
+
+        // 把预热起点拨回半个预热时长，并给足令牌，可用容量应该按进度线性提升到 (1 + 2 × 0.5) / 3 = 2/3
+        double now = serverTime();
+        redisTemplate.opsForHash().putAll(key, Map.of(
+                "tokens", "100",
+                "last_refill_time", String.valueOf(now),
+                "warm_since", String.valueOf(now - 30),
+                "last_seen", String.valueOf(now)));
+        assertEquals(20, acquireUntilRejected(spec, key), "预热进行到一半时容量为配置值的 2/3");
+
+        // 闲置超过预热时长后重新冷启动
+        redisTemplate.opsForHash().put(key, "last_seen", String.valueOf(now - 60));
+        assertEquals(10, acquireUntilRejected(spec, key), "闲置超过预热时长后应该回到冷启动容量");
+    }
+
+    @Test
+    public void testWeightedSlidingWindowWeighsPreviousWindow() {
+        // 窗口足够长，测试期间窗口内已过去的比例几乎不变
+        RateLimitSpec spec = RateLimitSpec.weightedSlidingWindow(200, 3600);
+        String key = KEY_PREFIX + "weighted:estimate";
+        long windowMillis = 3600_000L;
+        long nowMillis = serverTimeMillis();
+        long window = nowMillis / windowMillis;
+        double elapsed = (double) (nowMillis - window * windowMillis) / windowMillis;
+        // 上一窗口计数 100，进入当前窗口后滚动为 prev
+        redisTemplate.opsForHash().putAll(key, Map.of("window", String.valueOf(window - 1), "curr", "100", "prev", "0"));
+
+        int acquired = acquireUntilRejected(spec, key, 300);
+
+        // 估算值 prev × (1 - elapsed) + curr 不超过限制
+        int expected = (int) Math.floor(200 - 100 * (1 - elapsed));
+        assertTrue(Math.abs(acquired - expected) <= 1, "期望约 " + expected + " 个许可，实际 " + acquired);
+        assertEquals("100", redisTemplate.opsForHash().get(key, "prev"), "上一窗口的计数应该滚动为 prev");
+        assertEquals(String.valueOf(window), redisTemplate.opsForHash().get(key, "window"));
+        assertEquals(String.valueOf(acquired), redisTemplate.opsForHash().get(key, "curr"));
+    }
+
+    @Test
+    public void testWeightedSlidingWindowResetsAfterIdleWindow() {
+        RateLimitSpec spec = RateLimitSpec.weightedSlidingWindow(5, 3600);
+        String key = KEY_PREFIX + "weighted:idle";
+        long window = serverTimeMillis() / 3600_000L;
+        // 间隔超过一个窗口，旧的计数都不再计入
+        redisTemplate.opsForHash().putAll(key, Map.of("window", String.valueOf(window - 2), "curr", "5", "prev", "5"));
+
+        assertEquals(5, acquireUntilRejected(spec, key, 100));
+        assertEquals("0", redisTemplate.opsForHash().get(key, "prev"));
+    }
+
+    @AfterEach
+    public void cleanupRedisKeys() {
+        Set<String> keys = redisTemplate.keys(KEY_PREFIX + "*");
+        if (keys != null && !keys.isEmpty()) {
+            redisTemplate.delete(keys);
+        }
+    }
+
+    /**
+     * 结束当前封禁后连续拒绝直到再次封禁
+     */
+    private Long strikeUntilBanned(RedisScript<Long> script, String key) {
+        redisTemplate.opsForHash().put(key, "banned_until", "0");
+        assertEquals(0L, penalty(script, key));
+        return penalty(script, key);
+    }
+
+    private int acquireUntilRejected(RateLimitSpec spec, String key) {
+        return acquireUntilRejected(spec, key, 100);
+    }
+
+    private int acquireUntilRejected(RateLimitSpec spec, String key, int max) {
+        int acquired = 0;
+        while (acquired < max && rateLimiterClient.tryAcquire(spec, key)) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    private Long execute(RedisScript<Long> script, String key, List<String> args) {
+        return redisTemplate.execute(script, List.of(key), args.toArray());
+    }
+
+    private Long penalty(RedisScript<Long> script, String key) {
+        return redisTemplate.execute(script, List.of(key), "2", "10000", "1000", "3000", "60000",
+                KEY_PREFIX + "penalty:banned", key);
+    }
+
+    private long serverTime() {
+        return redisTemplate.execute((RedisCallback<Long>) connection -> connection.serverCommands().time(TimeUnit.SECONDS));
+    }
+
+    private long serverTimeMillis() {
+        return redisTemplate.execute((RedisCallback<Long>) connection -> connection.serverCommands().time(TimeUnit.MILLISECONDS));
+    }
+}
@@ -140,6 +140,22 @@ public class RateLimiterIntegrationTest {
         assertEquals(429, response.getStatusCodeValue(), "第6个请求应该被限流");
     }
 
+    @Test
+    public void testFixedWindowRateLimiterWithKeyParams() {
+        String url = "/test/fixed-window-params?userId=test6";
+
+        // 发送3个请求，应该都成功（限制是3次）
+        for (int i = 0; i < 3; i++) {
+            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            assertEquals(200, response.getStatusCodeValue(), "第" + (i + 1) + "个请求应该成功");
+        }
+
+        // 第4个请求应该被限流，且键由 keyPrefix + 参数直接拼接而成
+        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+        assertEquals(429, response.getStatusCodeValue(), "第4个请求应该被限流");
+        assertTrue(Boolean.TRUE.equals(redisTemplate.hasKey("fixed_params:test6")), "限流键应该由参数直接生成");
+    }
+
     /**
      * 测试结束后清理 Redis 中的限流键
      */
@@ -152,7 +168,8 @@ public class RateLimiterIntegrationTest {
                 "sliding_counter:*",
                 "token_bucket:*",
                 "leaky_bucket:*",
-                "sliding_log:*"
+                "sliding_log:*",
+                "fixed_params:*"
             };
 
             // 遍历每个模式并删除匹配的键
@@ -187,6 +204,13 @@ public class RateLimiterIntegrationTest {
             return "固定窗口限流测试成功 - 用户: " + userId + ", 时间: " + System.currentTimeMillis();
         }
 
+        // 基于参数名生成键的固定窗口限流测试
+        @GetMapping("/test/fixed-window-params")
+        @FixedWindowRateLimiter(keyPrefix = "fixed_params:", keyParams = "userId", limit = 3, windowSize = 60, message = "固定窗口限流：请求过于频繁")
+        public String fixedWindowParamsTest(@RequestParam String userId) {
+            return "固定窗口限流测试成功 - 用户: " + userId + ", 时间: " + System.currentTimeMillis();
+        }
+
         // 滑动窗口计数器限流测试
         @GetMapping("/test/sliding-window-counter")
         @SlidingWindowCounterRateLimiter(key = "'sliding_counter:' + #userId", limit = 5, windowSize = 60, message = "滑动窗口计数器限流：请求过于频繁")
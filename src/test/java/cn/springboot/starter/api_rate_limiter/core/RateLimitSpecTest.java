@@ -0,0 +1,51 @@
+package cn.springboot.starter.api_rate_limiter.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimitSpecTest {
+
+    @Test
+    public void testWindowPhaseIsZeroWithoutStagger() {
+        RateLimitSpec spec = RateLimitSpec.fixedWindow(10, 60);
+        assertEquals(0, spec.windowPhase("user:1"));
+        assertEquals(List.of("10", "60", "1", "0"), spec.scriptArgs("user:1", 1));
+    }
+
+    @Test
+    public void testWindowPhaseIsStableAndWithinWindow() {
+        RateLimitSpec spec = RateLimitSpec.fixedWindow(10, 60).withStaggeredWindow();
+        for (int i = 0; i < 1000; i++) {
+            long phase = spec.windowPhase("user:" + i);
+            assertTrue(phase >= 0 && phase < 60, "相位应该落在 [0, windowSize) 内");
+            assertEquals(phase, spec.windowPhase("user:" + i), "同一个键的相位应该稳定");
+        }
+    }
+
+    @Test
+    public void testWindowPhaseSpreadsKeysAcrossWindow() {
+        RateLimitSpec spec = RateLimitSpec.weightedSlidingWindow(10, 60).withStaggeredWindow();
+        Set<Long> phases = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            phases.add(spec.windowPhase("user:" + i));
+        }
+        assertEquals(60, phases.size(), "大量键的相位应该覆盖整个窗口");
+    }
+
+    @Test
+    public void testScriptArgsCarryPhase() {
+        RateLimitSpec fixed = RateLimitSpec.fixedWindow(10, 60).withStaggeredWindow();
+        assertEquals(String.valueOf(fixed.windowPhase("user:1")), fixed.scriptArgs("user:1", 2).get(3));
+
+        RateLimitSpec counter = RateLimitSpec.slidingWindowCounter(10, 60, 6).withStaggeredWindow();
+        List<String> args = counter.scriptArgs("user:1", 2);
+        assertEquals(List.of("10", "60", "6", "2"), args.subList(0, 4));
+        assertEquals(String.valueOf(counter.windowPhase("user:1")), args.get(4));
+    }
+}
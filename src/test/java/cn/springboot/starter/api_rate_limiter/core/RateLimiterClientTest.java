@@ -0,0 +1,123 @@
+package cn.springboot.starter.api_rate_limiter.core;
+
+import cn.springboot.starter.api_rate_limiter.config.RateLimiterProperties;
+import cn.springboot.starter.api_rate_limiter.core.storage.script.ConcurrencyScriptFactory;
+import cn.springboot.starter.api_rate_limiter.core.storage.script.FixedWindowCounterScriptFactory;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RateLimiterClientTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisAsyncCommands<byte[], byte[]> commands = mock(RedisAsyncCommands.class);
+    private final List<CompletableFuture<Long>> replies = new CopyOnWriteArrayList<>();
+    private final List<String> operations = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testAsyncBulkheadRejectsWhenFull() {
+        RateLimiterClient client = lettuceClient(2);
+        RateLimitSpec spec = RateLimitSpec.fixedWindow(10, 60);
+
+        CompletableFuture<Boolean> first = client.tryAcquireAsync(spec, "a", 1);
+        CompletableFuture<Boolean> second = client.tryAcquireAsync(spec, "b", 1);
+        CompletableFuture<Boolean> third = client.tryAcquireAsync(spec, "c", 1);
+
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+        assertTrue(third.isDone(), "在途请求数已满时应该立即返回");
+        assertFalse(third.join(), "在途请求数已满时应该拒绝");
+        assertEquals(2, replies.size(), "被拒绝的检查不应该发送到 Redis");
+
+        replies.get(0).complete(1L);
+        assertTrue(first.join());
+        CompletableFuture<Boolean> fourth = client.tryAcquireAsync(spec, "d", 1);
+        assertFalse(fourth.isDone(), "完成一个检查后应该释放一个配额");
+        assertEquals(3, replies.size());
+    }
+
+    @Test
+    public void testAsyncBulkheadReleasedOnFailure() {
+        RateLimiterClient client = lettuceClient(1);
+        RateLimitSpec spec = RateLimitSpec.fixedWindow(10, 60);
+
+        CompletableFuture<Boolean> first = client.tryAcquireAsync(spec, "a", 1);
+        replies.get(0).completeExceptionally(new IllegalStateException("连接断开"));
+        assertTrue(first.isCompletedExceptionally());
+
+        client.tryAcquireAsync(spec, "b", 1);
+        assertEquals(2, replies.size(), "失败的检查也应该释放配额");
+    }
+
+    @Test
+    public void testLeaseIsRenewedUntilClosed() throws Exception {
+        RateLimiterClient client = lettuceClient(16);
+        try {
+            ConcurrencyLease lease = client.tryAcquireLease(RateLimitSpec.concurrency(5, 1), "export");
+            assertTrue(lease != null);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!operations.contains("renew") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertTrue(operations.contains("renew"), "持有租约期间应该定期续期");
+            replies.forEach(reply -> reply.complete(1L));
+
+            lease.close();
+            int renewals = operations.size();
+            Thread.sleep(800);
+            assertEquals(renewals, operations.size(), "关闭租约后应该停止续期");
+        } finally {
+            client.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private RateLimiterClient lettuceClient(int maxInFlight) {
+        when(commands.<Long>evalsha(anyString(), eq(ScriptOutputType.INTEGER), any(byte[][].class), any(byte[][].class)))
+                .thenAnswer(invocation -> {
+                    byte[][] args = (byte[][]) invocation.getRawArguments()[3];
+                    operations.add(new String(args[args.length - 1]));
+                    CompletableFuture<Long> reply = new CompletableFuture<>();
+                    replies.add(reply);
+                    RedisFuture<Long> future = mock(RedisFuture.class);
+                    when(future.toCompletableFuture()).thenReturn(reply);
+                    return future;
+                });
+        LettuceConnectionFactory connectionFactory = mock(LettuceConnectionFactory.class);
+        when(connectionFactory.getShareNativeConnection()).thenReturn(true);
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.getNativeConnection()).thenReturn(commands);
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        when(template.getConnectionFactory()).thenReturn(connectionFactory);
+        when(template.getStringSerializer()).thenReturn(RedisSerializer.string());
+        when(template.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection));
+        when(template.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+        return new RateLimiterClient(template, Map.of(), Map.of(RateLimitAlgorithm.FIXED_WINDOW, new FixedWindowCounterScriptFactory(),
+                RateLimitAlgorithm.CONCURRENCY, new ConcurrencyScriptFactory()), Runnable::run, RateLimiterProperties.ScriptMode.EVAL, maxInFlight);
+    }
+}
@@ -0,0 +1,100 @@
+package cn.springboot.starter.api_rate_limiter.core.adaptive;
+
+import cn.springboot.starter.api_rate_limiter.config.RateLimiterProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AdaptiveLimitControllerTest {
+
+    private double saturation;
+
+    @Test
+    public void testOverloadDecreasesMultiplicativelyDownToMinFactor() {
+        AdaptiveLimitController controller = controller();
+        saturation = 0.95;
+
+        controller.evaluate();
+        assertEquals(0.5, controller.getFactor());
+        controller.evaluate();
+        assertEquals(0.25, controller.getFactor());
+        controller.evaluate();
+        assertEquals(0.125, controller.getFactor());
+        controller.evaluate();
+        assertEquals(0.1, controller.getFactor(), "系数不能低于下限");
+        controller.evaluate();
+        assertEquals(0.1, controller.getFactor());
+    }
+
+    @Test
+    public void testRecoveryIncreasesAdditivelyUpToOne() {
+        AdaptiveLimitController controller = controller();
+        saturation = 0.95;
+        controller.evaluate();
+        controller.evaluate();
+        assertEquals(0.25, controller.getFactor());
+
+        saturation = 0.2;
+        controller.evaluate();
+        assertEquals(0.5, controller.getFactor());
+        controller.evaluate();
+        assertEquals(0.75, controller.getFactor());
+        controller.evaluate();
+        assertEquals(1.0, controller.getFactor());
+        controller.evaluate();
+        assertEquals(1.0, controller.getFactor(), "系数不能超过 1");
+    }
+
+    @Test
+    public void testLatencyPercentileAboveThresholdIsOverload() {
+        AdaptiveLimitController controller = controller();
+        for (int i = 0; i < 90; i++) {
+            controller.recordLatency(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        for (int i = 0; i < 10; i++) {
+            controller.recordLatency(TimeUnit.SECONDS.toNanos(1));
+        }
+        controller.evaluate();
+        assertEquals(0.5, controller.getFactor(), "95 分位耗时超过阈值时应该收紧");
+
+        // 直方图在每次评估后清空，快速请求不再触发收紧
+        for (int i = 0; i < 100; i++) {
+            controller.recordLatency(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        controller.evaluate();
+        assertEquals(0.75, controller.getFactor());
+    }
+
+    @Test
+    public void testEffectiveLimitAppliesFactorAndNeverDropsBelowOne() {
+        AdaptiveLimitController controller = controller();
+        assertEquals(100, controller.effectiveLimit(100));
+
+        saturation = 0.95;
+        controller.evaluate();
+        assertEquals(50, controller.effectiveLimit(100));
+        assertEquals(1, controller.effectiveLimit(1));
+
+        for (int i = 0; i < 5; i++) {
+            controller.evaluate();
+        }
+        assertEquals(10, controller.effectiveLimit(100));
+        assertEquals(1, controller.effectiveLimit(3), "生效的限制不能小于 1");
+    }
+
+    private AdaptiveLimitController controller() {
+        RateLimiterProperties.Adaptive properties = new RateLimiterProperties.Adaptive();
+        properties.setDecreaseFactor(0.5);
+        properties.setIncreaseStep(0.25);
+        properties.setMinFactor(0.1);
+        properties.setSaturationThreshold(0.9);
+        properties.setLatencyThreshold(Duration.ofMillis(500));
+        // 忽略测试进程自身的 GC 停顿
+        properties.setGcThreshold(Double.MAX_VALUE);
+        return new AdaptiveLimitController(properties, List.of(() -> saturation));
+    }
+}
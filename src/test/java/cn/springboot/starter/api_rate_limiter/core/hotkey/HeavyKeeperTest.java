@@ -0,0 +1,118 @@
+package cn.springboot.starter.api_rate_limiter.core.hotkey;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HeavyKeeperTest {
+
+    @Test
+    public void testTopOrdersByCountDescending() {
+        HeavyKeeper keeper = new HeavyKeeper(1024);
+        add(keeper, "api:cold", 10);
+        add(keeper, "api:hot", 1000);
+        add(keeper, "api:warm", 100);
+
+        List<HotKey> top = keeper.top(3);
+        assertEquals(3, top.size());
+        assertEquals("api:hot", top.get(0).getKey());
+        assertEquals("api:warm", top.get(1).getKey());
+        assertEquals("api:cold", top.get(2).getKey());
+        assertEquals(1000, top.get(0).getCount());
+        assertEquals(100, top.get(1).getCount());
+        assertEquals(10, top.get(2).getCount());
+    }
+
+    @Test
+    public void testTopIsTruncatedToLimit() {
+        HeavyKeeper keeper = new HeavyKeeper(1024);
+        for (int i = 0; i < 10; i++) {
+            add(keeper, "key:" + i, i + 1);
+        }
+        List<HotKey> top = keeper.top(3);
+        assertEquals(3, top.size());
+        assertTrue(top.get(0).getCount() >= top.get(1).getCount());
+        assertTrue(top.get(1).getCount() >= top.get(2).getCount());
+    }
+
+    @Test
+    public void testLightOccupantIsDecayedAndReplaced() {
+        // 每行只有一个槽位，所有键都会冲突
+        HeavyKeeper keeper = new HeavyKeeper(2);
+        add(keeper, "api:old", 3);
+        add(keeper, "api:new", 1000);
+
+        List<HotKey> top = keeper.top(10);
+        assertEquals("api:new", top.get(0).getKey());
+        assertFalse(top.stream().anyMatch(hotKey -> hotKey.getKey().equals("api:old")), "计数较小的旧键应该被衰减并替换");
+    }
+
+    @Test
+    public void testHeavyOccupantResistsDecay() {
+        HeavyKeeper keeper = new HeavyKeeper(2);
+        add(keeper, "api:heavy", 200);
+        add(keeper, "api:light", 50);
+
+        List<HotKey> top = keeper.top(10);
+        assertEquals("api:heavy", top.get(0).getKey());
+        // 衰减概率为 1.08^-count，计数很大的键几乎不会被衰减
+        assertTrue(top.get(0).getCount() >= 195, "热点键的计数不应该被明显衰减");
+        assertTrue(top.get(0).getCount() <= 200, "计数不应该高于实际出现次数");
+    }
+
+    @Test
+    public void testEveryRowIsUpdated() {
+        // 每行只有一个槽位，热点键应该同时占据两行，后来的键在任何一行都没有空位
+        HeavyKeeper keeper = new HeavyKeeper(2);
+        add(keeper, "api:hot", 10);
+        add(keeper, "api:other", 1);
+
+        List<HotKey> top = keeper.top(10);
+        assertEquals(1, top.size());
+        assertEquals("api:hot", top.get(0).getKey());
+    }
+
+    @Test
+    public void testDecayHalvesCountsAndDropsColdKeys() {
+        HeavyKeeper keeper = new HeavyKeeper(1024);
+        add(keeper, "api:hot", 100);
+        add(keeper, "api:cold", 1);
+
+        keeper.decay();
+
+        List<HotKey> top = keeper.top(10);
+        assertEquals(1, top.size(), "计数归零的键应该被清除");
+        assertEquals("api:hot", top.get(0).getKey());
+        assertEquals(50, top.get(0).getCount());
+    }
+
+    @Test
+    public void testCountsDecayAfterInterval() throws InterruptedException {
+        HeavyKeeper keeper = new HeavyKeeper(1024, 50);
+        add(keeper, "api:old", 100);
+        Thread.sleep(80);
+        add(keeper, "api:new", 1);
+
+        List<HotKey> top = keeper.top(10);
+        assertEquals("api:old", top.get(0).getKey());
+        assertEquals(50, top.get(0).getCount(), "经过一个衰减周期后计数应该减半");
+    }
+
+    @Test
+    public void testResetClearsCounts() {
+        HeavyKeeper keeper = new HeavyKeeper(64);
+        add(keeper, "api:hot", 10);
+        keeper.reset();
+        assertTrue(keeper.top(10).isEmpty());
+    }
+
+    private static void add(HeavyKeeper keeper, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            keeper.add(key);
+        }
+    }
+}
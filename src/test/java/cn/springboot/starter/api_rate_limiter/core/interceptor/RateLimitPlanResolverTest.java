@@ -0,0 +1,117 @@
+package cn.springboot.starter.api_rate_limiter.core.interceptor;
+
+import cn.springboot.starter.api_rate_limiter.config.RateLimiterProperties;
+import cn.springboot.starter.api_rate_limiter.core.ConcurrencyLimiter;
+import cn.springboot.starter.api_rate_limiter.core.FixedWindowRateLimiter;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitAlgorithm;
+import cn.springboot.starter.api_rate_limiter.core.TokenBucketRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimitPlanResolverTest {
+
+    @Test
+    public void testPlanIsCachedPerMethodAndTargetClass() throws Exception {
+        RateLimitPlanResolver resolver = new RateLimitPlanResolver();
+        Method method = method("orders");
+
+        RateLimitPlan plan = resolver.resolve(method, Service.class);
+
+        assertSame(plan, resolver.resolve(method, Service.class), "同一方法与目标类应该复用缓存的计划");
+        assertNotSame(plan, resolver.resolve(method, SubService.class), "不同的目标类分别缓存");
+        assertNotSame(plan, resolver.resolve(method("layered"), Service.class));
+    }
+
+    @Test
+    public void testMultipleAnnotationsAreCheckedInFixedOrder() throws Exception {
+        RateLimitPlan plan = new RateLimitPlanResolver().resolve(method("layered"), Service.class);
+
+        // 检查顺序由 ANNOTATION_TYPES 决定，与注解的声明顺序无关
+        List<RateLimitAlgorithm> algorithms = plan.getChecks().stream().map(check -> check.getSpec().getAlgorithm()).toList();
+        assertEquals(List.of(RateLimitAlgorithm.FIXED_WINDOW, RateLimitAlgorithm.TOKEN_BUCKET, RateLimitAlgorithm.CONCURRENCY),
+                algorithms);
+        assertEquals("layered:token", plan.getChecks().get(1).getKeyGenerator().generate(method("layered"), new Object[0]));
+    }
+
+    @Test
+    public void testUpdateRulesRebuildsCachedPlans() throws Exception {
+        RateLimitPlanResolver resolver = new RateLimitPlanResolver();
+        Method method = method("orders");
+        RateLimitPlan before = resolver.resolve(method, Service.class);
+        assertEquals(10, before.getChecks().get(0).getSpec().getLimit());
+
+        resolver.updateRules(Map.of("orders", rule(5L, null)));
+
+        RateLimitPlan after = resolver.resolve(method, Service.class);
+        assertNotSame(before, after, "更新规则后应该替换已缓存的计划");
+        assertEquals(5, after.getChecks().get(0).getSpec().getLimit());
+        assertEquals(60, after.getChecks().get(0).getSpec().getWindowSize(), "规则未配置的参数应该使用注解中的值");
+        assertSame(after, resolver.resolve(method, Service.class));
+    }
+
+    @Test
+    public void testInvalidRulesKeepPreviousPlans() throws Exception {
+        RateLimitPlanResolver resolver = new RateLimitPlanResolver(Map.of("orders", rule(5L, null)));
+        Method method = method("orders");
+        RateLimitPlan before = resolver.resolve(method, Service.class);
+
+        assertThrows(IllegalStateException.class, () -> resolver.updateRules(Map.of("orders", rule(5L, 0L))));
+
+        assertSame(before, resolver.resolve(method, Service.class), "新规则不合法时应该保留原有计划");
+        assertEquals(5, resolver.resolve(method, Service.class).getChecks().get(0).getSpec().getLimit());
+    }
+
+    @Test
+    public void testUnknownRuleFallsBackToAnnotationAndIsReported() throws Exception {
+        RateLimitPlanResolver resolver = new RateLimitPlanResolver(Map.of("orders", rule(5L, null)));
+        Method method = method("missing");
+
+        assertEquals(10, resolver.resolve(method, Service.class).getChecks().get(0).getSpec().getLimit());
+        assertEquals(Set.of("no-such-rule"), resolver.findUnknownRules(method));
+        assertTrue(resolver.findUnknownRules(method("orders")).isEmpty());
+    }
+
+    static RateLimiterProperties.Rule rule(Long limit, Long windowSize) {
+        RateLimiterProperties.Rule rule = new RateLimiterProperties.Rule();
+        rule.setLimit(limit);
+        rule.setWindowSize(windowSize);
+        return rule;
+    }
+
+    private static Method method(String name) throws NoSuchMethodException {
+        return Service.class.getMethod(name);
+    }
+
+    public static class Service {
+
+        @FixedWindowRateLimiter(keyPrefix = "orders", limit = 10, windowSize = 60, rule = "orders")
+        public String orders() {
+            return "ok";
+        }
+
+        @FixedWindowRateLimiter(keyPrefix = "missing", limit = 10, windowSize = 60, rule = "no-such-rule")
+        public String missing() {
+            return "ok";
+        }
+
+        @ConcurrencyLimiter(keyPrefix = "layered:concurrency", maxInFlight = 2)
+        @TokenBucketRateLimiter(keyPrefix = "layered:token", capacity = 5, refillRate = 1)
+        @FixedWindowRateLimiter(keyPrefix = "layered:fixed", limit = 10, windowSize = 60)
+        public String layered() {
+            return "ok";
+        }
+    }
+
+    public static class SubService extends Service {
+    }
+}
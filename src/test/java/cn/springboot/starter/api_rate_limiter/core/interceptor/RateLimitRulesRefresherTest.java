@@ -0,0 +1,59 @@
+package cn.springboot.starter.api_rate_limiter.core.interceptor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimitRulesRefresherTest {
+
+    private final RateLimitPlanResolver resolver = new RateLimitPlanResolver();
+    private final MockEnvironment environment = new MockEnvironment();
+    private final RateLimitRulesRefresher refresher = new RateLimitRulesRefresher(resolver, environment);
+
+    @Test
+    public void testRefreshRebindsRulesFromEnvironment() throws Exception {
+        Method method = RateLimitPlanResolverTest.Service.class.getMethod("orders");
+        assertEquals(10, limit(method));
+
+        environment.setProperty("rate-limiter.rules.orders.limit", "3");
+        assertTrue(refresher.refresh());
+        assertEquals(3, limit(method));
+
+        environment.setProperty("rate-limiter.rules.orders.limit", "7");
+        assertTrue(refresher.refresh());
+        assertEquals(7, limit(method));
+    }
+
+    @Test
+    public void testInvalidRulesAreRejected() throws Exception {
+        Method method = RateLimitPlanResolverTest.Service.class.getMethod("orders");
+        environment.setProperty("rate-limiter.rules.orders.limit", "3");
+        assertTrue(refresher.refresh());
+        assertEquals(3, limit(method));
+
+        environment.setProperty("rate-limiter.rules.orders.window-size", "0");
+        assertFalse(refresher.refresh());
+        assertEquals(3, limit(method), "新规则不合法时应该继续使用原有规则");
+    }
+
+    @Test
+    public void testUnrelatedEventsAreIgnored() throws Exception {
+        Method method = RateLimitPlanResolverTest.Service.class.getMethod("orders");
+        assertEquals(10, limit(method));
+
+        environment.setProperty("rate-limiter.rules.orders.limit", "3");
+        refresher.onApplicationEvent(new ApplicationEvent(this) {
+        });
+        assertEquals(10, limit(method), "只有环境变更事件才会触发刷新");
+    }
+
+    private long limit(Method method) {
+        return resolver.resolve(method, RateLimitPlanResolverTest.Service.class).getChecks().get(0).getSpec().getLimit();
+    }
+}
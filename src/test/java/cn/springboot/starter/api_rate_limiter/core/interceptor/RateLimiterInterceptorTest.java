@@ -0,0 +1,116 @@
+package cn.springboot.starter.api_rate_limiter.core.interceptor;
+
+import cn.springboot.starter.api_rate_limiter.config.RateLimiterProperties;
+import cn.springboot.starter.api_rate_limiter.core.ConcurrencyLease;
+import cn.springboot.starter.api_rate_limiter.core.ConcurrencyLimiter;
+import cn.springboot.starter.api_rate_limiter.core.FixedWindowRateLimiter;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import cn.springboot.starter.api_rate_limiter.core.RateLimiterClient;
+import cn.springboot.starter.api_rate_limiter.core.exception.RateLimitException;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RateLimiterInterceptorTest {
+
+    private final RateLimiterClient client = mock(RateLimiterClient.class);
+    private final RateLimiterInterceptor interceptor = RateLimiterInterceptor.builder(new RateLimitPlanResolver(), () -> client,
+            new RateLimiterProperties()).build();
+    private final Service service = new Service();
+
+    @Test
+    public void testAsyncMethodRunsOnAsyncExecutorAfterCheck() throws Throwable {
+        CompletableFuture<Boolean> check = new CompletableFuture<>();
+        when(client.tryAcquireAsync(any(RateLimitSpec.class), eq("quote"), anyInt())).thenReturn(check);
+        AtomicInteger executed = new AtomicInteger();
+        Executor executor = command -> {
+            executed.incrementAndGet();
+            command.run();
+        };
+        when(client.getAsyncExecutor()).thenReturn(executor);
+
+        CompletableFuture<?> result = (CompletableFuture<?>) interceptor.invoke(invocation("quote"));
+        assertFalse(result.isDone());
+        assertEquals(0, service.calls.get(), "检查完成前不应该调用方法");
+
+        check.complete(true);
+        assertEquals("ok", result.join());
+        assertEquals(1, service.calls.get());
+        assertEquals(1, executed.get(), "等待 Redis 的检查完成后方法应该在异步执行器上调用");
+    }
+
+    @Test
+    public void testAsyncRejectionFailsFuture() throws Throwable {
+        when(client.tryAcquireAsync(any(RateLimitSpec.class), eq("quote"), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+
+        CompletableFuture<?> result = (CompletableFuture<?>) interceptor.invoke(invocation("quote"));
+
+        CompletionException ex = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(RateLimitException.class, ex.getCause());
+        assertEquals(0, service.calls.get());
+    }
+
+    @Test
+    public void testLeaseReleasedAsynchronouslyAfterResult() throws Throwable {
+        AtomicInteger blockingReleases = new AtomicInteger();
+        AtomicInteger asyncReleases = new AtomicInteger();
+        ConcurrencyLease lease = new ConcurrencyLease("report", "lease-1", blockingReleases::incrementAndGet, () -> {
+            asyncReleases.incrementAndGet();
+            return CompletableFuture.completedFuture(1L);
+        });
+        when(client.tryAcquireLeaseAsync(any(RateLimitSpec.class), eq("report")))
+                .thenReturn(CompletableFuture.completedFuture(lease));
+
+        CompletableFuture<?> result = (CompletableFuture<?>) interceptor.invoke(invocation("report"));
+        assertFalse(result.isDone());
+        assertEquals(0, asyncReleases.get(), "方法返回的 Future 完成前不应该释放槽位");
+
+        service.report.complete("done");
+        assertEquals("done", result.join());
+        assertEquals(1, asyncReleases.get());
+        assertEquals(0, blockingReleases.get(), "异步方法应该以异步命令释放槽位");
+    }
+
+    private MethodInvocation invocation(String methodName) throws Throwable {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.getMethod()).thenReturn(Service.class.getMethod(methodName));
+        when(invocation.getThis()).thenReturn(service);
+        when(invocation.getArguments()).thenReturn(new Object[0]);
+        when(invocation.proceed()).thenAnswer(ignored -> Service.class.getMethod(methodName).invoke(service));
+        return invocation;
+    }
+
+    public static class Service {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CompletableFuture<String> report = new CompletableFuture<>();
+
+        @FixedWindowRateLimiter(keyPrefix = "quote", limit = 5)
+        public CompletableFuture<String> quote() {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("ok");
+        }
+
+        @ConcurrencyLimiter(keyPrefix = "report", maxInFlight = 2)
+        public CompletableFuture<String> report() {
+            calls.incrementAndGet();
+            return report;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package cn.springboot.starter.api_rate_limiter.core.key;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterNameDiscoverer;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ParameterKeyGeneratorTest {
+
+    private final ParameterNameDiscoverer discoverer = mock(ParameterNameDiscoverer.class);
+
+    @Test
+    public void testResolvesParameterNames() throws Exception {
+        Method method = method();
+        when(discoverer.getParameterNames(method)).thenReturn(new String[]{"tenantId", "userId", "page"});
+
+        KeyGenerator generator = new ParameterKeyGenerator(method, "orders:", new String[]{"userId", "tenantId"}, discoverer);
+
+        assertEquals("orders:42:acme", generator.generate(method, new Object[]{"acme", 42L, 1}));
+    }
+
+    @Test
+    public void testResolvesParameterIndexesWithoutNames() throws Exception {
+        Method method = method();
+
+        KeyGenerator generator = new ParameterKeyGenerator(method, "orders:", new String[]{"2", "0"}, discoverer);
+
+        assertEquals("orders:1:acme", generator.generate(method, new Object[]{"acme", 42L, 1}));
+    }
+
+    @Test
+    public void testMixesNamesAndIndexes() throws Exception {
+        Method method = method();
+        when(discoverer.getParameterNames(method)).thenReturn(new String[]{"tenantId", "userId", "page"});
+
+        KeyGenerator generator = new ParameterKeyGenerator(method, "orders:", new String[]{"0", "userId"}, discoverer);
+
+        assertEquals("orders:acme:null", generator.generate(method, new Object[]{"acme", null, 1}));
+    }
+
+    @Test
+    public void testRejectsInvalidKeyParams() throws Exception {
+        Method method = method();
+        when(discoverer.getParameterNames(method)).thenReturn(new String[]{"tenantId", "userId", "page"});
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParameterKeyGenerator(method, "orders:", new String[]{"3"}, discoverer), "下标越界");
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParameterKeyGenerator(method, "orders:", new String[]{"orderId"}, discoverer), "参数名不存在");
+    }
+
+    @Test
+    public void testRejectsNamesWhenParameterNamesUnavailable() throws Exception {
+        Method method = method();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParameterKeyGenerator(method, "orders:", new String[]{"userId"}, discoverer));
+    }
+
+    private static Method method() throws NoSuchMethodException {
+        return ParameterKeyGeneratorTest.class.getDeclaredMethod("listOrders", String.class, Long.class, int.class);
+    }
+
+    @SuppressWarnings("unused")
+    private static void listOrders(String tenantId, Long userId, int page) {
+    }
+}
@@ -0,0 +1,79 @@
+package cn.springboot.starter.api_rate_limiter.core.key.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RemoteAddressKeyResolverTest {
+
+    private final RemoteAddressKeyResolver resolver = new RemoteAddressKeyResolver(List.of("10.0.0.0/8", "192.168.1.1"));
+
+    @Test
+    public void testHeaderIsIgnoredWithoutTrustedProxies() {
+        RemoteAddressKeyResolver untrusting = new RemoteAddressKeyResolver(List.of());
+        assertEquals("203.0.113.7", untrusting.resolve(request("203.0.113.7", "1.2.3.4")));
+    }
+
+    @Test
+    public void testSpoofedHeaderFromUntrustedClientIsIgnored() {
+        // 客户端直接连接并自行携带 X-Forwarded-For
+        assertEquals("203.0.113.7", resolver.resolve(request("203.0.113.7", "10.1.2.3")));
+        assertEquals("203.0.113.7", resolver.resolve(request("203.0.113.7", "198.51.100.1")));
+    }
+
+    @Test
+    public void testClientAddressBehindSingleTrustedProxy() {
+        assertEquals("198.51.100.1", resolver.resolve(request("10.0.0.5", "198.51.100.1")));
+        assertEquals("10.0.0.5", resolver.resolve(request("10.0.0.5", null)), "没有请求头时使用直接连接方地址");
+    }
+
+    @Test
+    public void testMultipleProxiesAreSkippedFromTheRight() {
+        assertEquals("198.51.100.1",
+                resolver.resolve(request("10.0.0.5", "198.51.100.1, 192.168.1.1, 10.20.30.40")));
+    }
+
+    @Test
+    public void testForgedLeftmostHopIsNotTrusted() {
+        // 客户端在请求头中伪造了最左侧的地址，受信任代理把真实的客户端地址追加在其右侧
+        assertEquals("198.51.100.1",
+                resolver.resolve(request("10.0.0.5", "1.1.1.1, 198.51.100.1, 10.20.30.40")));
+    }
+
+    @Test
+    public void testNonAddressHopIsTreatedAsUntrusted() {
+        assertEquals("unknown", resolver.resolve(request("10.0.0.5", "198.51.100.1, unknown")));
+    }
+
+    @Test
+    public void testAllTrustedHopsFallBackToLeftmost() {
+        assertEquals("10.1.1.1", resolver.resolve(request("10.0.0.5", "10.1.1.1, 10.2.2.2")));
+    }
+
+    @Test
+    public void testCidrBoundaries() {
+        RemoteAddressKeyResolver narrow = new RemoteAddressKeyResolver(List.of("172.16.0.0/12", "2001:db8::/32"));
+        assertEquals("198.51.100.1", narrow.resolve(request("172.31.255.255", "198.51.100.1")));
+        assertEquals("172.32.0.1", narrow.resolve(request("172.32.0.1", "198.51.100.1")), "网段之外的地址不受信任");
+        assertEquals("198.51.100.1", narrow.resolve(request("2001:db8::1", "198.51.100.1")));
+        assertEquals("2001:db9::1", narrow.resolve(request("2001:db9::1", "198.51.100.1")));
+    }
+
+    @Test
+    public void testInvalidTrustedProxyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RemoteAddressKeyResolver(List.of("proxy.example.com")));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
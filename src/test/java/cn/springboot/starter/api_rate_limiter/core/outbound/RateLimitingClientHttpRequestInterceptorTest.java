@@ -0,0 +1,92 @@
+package cn.springboot.starter.api_rate_limiter.core.outbound;
+
+import cn.springboot.starter.api_rate_limiter.config.RateLimiterProperties;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import cn.springboot.starter.api_rate_limiter.core.RateLimiterClient;
+import cn.springboot.starter.api_rate_limiter.core.exception.RateLimitException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class RateLimitingClientHttpRequestInterceptorTest {
+
+    private final RateLimiterClient rateLimiterClient = mock(RateLimiterClient.class);
+    private final ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+
+    @Test
+    public void testWaitingRulePassesMaxWaitAndSendsRequest() throws Exception {
+        when(rateLimiterClient.tryAcquire(any(RateLimitSpec.class), anyString())).thenReturn(true);
+        ClientHttpResponse response = mock(ClientHttpResponse.class);
+        HttpRequest request = request("https://api.partner.com/v1/orders");
+        when(execution.execute(request, new byte[0])).thenReturn(response);
+
+        ClientHttpResponse result = interceptor(Duration.ofMillis(500)).intercept(request, new byte[0], execution);
+
+        assertSame(response, result);
+        ArgumentCaptor<RateLimitSpec> spec = ArgumentCaptor.forClass(RateLimitSpec.class);
+        verify(rateLimiterClient).tryAcquire(spec.capture(), eq(OutboundRateLimiter.KEY_PREFIX + "partner"));
+        assertEquals(500L, spec.getValue().getMaxWaitMillis(), "配置了最长等待时间的规则应该排队等待令牌");
+    }
+
+    @Test
+    public void testRejectingRuleThrowsWithoutSendingRequest() throws Exception {
+        when(rateLimiterClient.tryAcquire(any(RateLimitSpec.class), anyString())).thenReturn(false);
+        HttpRequest request = request("https://api.partner.com/v1/orders");
+
+        assertThrows(RateLimitException.class, () -> interceptor(Duration.ZERO).intercept(request, new byte[0], execution));
+
+        ArgumentCaptor<RateLimitSpec> spec = ArgumentCaptor.forClass(RateLimitSpec.class);
+        verify(rateLimiterClient).tryAcquire(spec.capture(), anyString());
+        assertEquals(0L, spec.getValue().getMaxWaitMillis(), "未配置最长等待时间的规则应该立即失败");
+        verify(execution, never()).execute(any(), any());
+    }
+
+    @Test
+    public void testUnmatchedRequestBypassesLimiter() throws Exception {
+        HttpRequest otherHost = request("https://api.other.com/v1/orders");
+        HttpRequest otherPath = request("https://API.PARTNER.COM/internal/health");
+
+        interceptor(Duration.ZERO).intercept(otherHost, new byte[0], execution);
+        interceptor(Duration.ZERO).intercept(otherPath, new byte[0], execution);
+
+        verifyNoInteractions(rateLimiterClient);
+        verify(execution).execute(otherHost, new byte[0]);
+        verify(execution).execute(otherPath, new byte[0]);
+    }
+
+    private RateLimitingClientHttpRequestInterceptor interceptor(Duration maxWait) {
+        RateLimiterProperties.Outbound limit = new RateLimiterProperties.Outbound();
+        limit.setHosts(List.of("api.partner.com"));
+        limit.setPathPrefix("/v1/");
+        limit.setMaxWait(maxWait);
+        Map<String, RateLimiterProperties.Outbound> limits = new LinkedHashMap<>();
+        limits.put("partner", limit);
+        return new RateLimitingClientHttpRequestInterceptor(new OutboundRateLimiter(rateLimiterClient, limits));
+    }
+
+    private static HttpRequest request(String uri) {
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getURI()).thenReturn(URI.create(uri));
+        return request;
+    }
+}
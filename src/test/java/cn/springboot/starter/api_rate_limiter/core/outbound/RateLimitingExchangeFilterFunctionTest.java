@@ -0,0 +1,93 @@
+package cn.springboot.starter.api_rate_limiter.core.outbound;
+
+import cn.springboot.starter.api_rate_limiter.config.RateLimiterProperties;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import cn.springboot.starter.api_rate_limiter.core.RateLimiterClient;
+import cn.springboot.starter.api_rate_limiter.core.exception.RateLimitException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class RateLimitingExchangeFilterFunctionTest {
+
+    private final RateLimiterClient rateLimiterClient = mock(RateLimiterClient.class);
+    private final ExchangeFunction next = mock(ExchangeFunction.class);
+    private final ClientResponse response = mock(ClientResponse.class);
+
+    @Test
+    public void testWaitingForTokenDoesNotBlockSubscriber() {
+        CompletableFuture<Boolean> acquired = new CompletableFuture<>();
+        when(rateLimiterClient.tryAcquireAsync(any(RateLimitSpec.class), anyString(), anyInt())).thenReturn(acquired);
+        ClientRequest request = request("https://api.partner.com/v1/orders");
+        when(next.exchange(request)).thenReturn(Mono.just(response));
+        AtomicReference<ClientResponse> result = new AtomicReference<>();
+
+        filter().filter(request, next).subscribe(result::set);
+
+        // 令牌尚未就绪时订阅立即返回，请求不会被发送
+        assertNull(result.get());
+        verify(next, never()).exchange(any());
+
+        acquired.complete(true);
+
+        assertSame(response, result.get());
+        verify(next).exchange(request);
+    }
+
+    @Test
+    public void testRejectionFailsWithoutSendingRequest() {
+        when(rateLimiterClient.tryAcquireAsync(any(RateLimitSpec.class), anyString(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+        ClientRequest request = request("https://api.partner.com/v1/orders");
+
+        Mono<ClientResponse> result = filter().filter(request, next);
+
+        assertThrows(RateLimitException.class, result::block);
+        verify(next, never()).exchange(any());
+    }
+
+    @Test
+    public void testUnmatchedRequestBypassesLimiter() {
+        ClientRequest request = request("https://api.other.com/v1/orders");
+        when(next.exchange(request)).thenReturn(Mono.just(response));
+
+        assertSame(response, filter().filter(request, next).block());
+        verifyNoInteractions(rateLimiterClient);
+    }
+
+    private RateLimitingExchangeFilterFunction filter() {
+        RateLimiterProperties.Outbound limit = new RateLimiterProperties.Outbound();
+        limit.setHosts(List.of("api.partner.com"));
+        limit.setMaxWait(Duration.ofMillis(500));
+        Map<String, RateLimiterProperties.Outbound> limits = new LinkedHashMap<>();
+        limits.put("partner", limit);
+        return new RateLimitingExchangeFilterFunction(new OutboundRateLimiter(rateLimiterClient, limits));
+    }
+
+    private static ClientRequest request(String uri) {
+        return ClientRequest.create(HttpMethod.GET, URI.create(uri)).build();
+    }
+}
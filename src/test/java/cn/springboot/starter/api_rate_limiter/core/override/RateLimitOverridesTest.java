@@ -0,0 +1,60 @@
+package cn.springboot.starter.api_rate_limiter.core.override;
+
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RateLimitOverridesTest {
+
+    @SuppressWarnings("unchecked")
+    private final HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+    @Test
+    public void testRefreshParsesLimitsAndIgnoresInvalidValues() {
+        Map<Object, Object> entries = new LinkedHashMap<>();
+        entries.put("api:a", "5");
+        entries.put("api:b", " 7 ");
+        entries.put("api:zero", "0");
+        entries.put("api:negative", "-3");
+        entries.put("api:text", "unlimited");
+        RateLimitOverrides overrides = overrides(entries, Map.of("api:zero", 9L));
+
+        overrides.refresh();
+
+        assertEquals(5L, overrides.getLimit("api:a"));
+        assertEquals(7L, overrides.getLimit("api:b"), "值两端的空白应该被忽略");
+        assertEquals(9L, overrides.getLimit("api:zero"), "非法值应该被忽略并回退到配置文件中声明的值");
+        assertNull(overrides.getLimit("api:negative"));
+        assertNull(overrides.getLimit("api:text"));
+    }
+
+    @Test
+    public void testRedisLimitTakesPrecedenceOverDeclaredLimit() {
+        RateLimitOverrides overrides = overrides(Map.of("api:a", "50"), Map.of("api:a", 5L, "api:b", 8L));
+        overrides.refresh();
+
+        RateLimitSpec spec = RateLimitSpec.fixedWindow(10, 60);
+        assertEquals(50, overrides.apply(spec, "api:a").getLimit());
+        assertEquals(8, overrides.apply(spec, "api:b").getLimit());
+        assertSame(spec, overrides.apply(spec, "api:c"), "没有覆盖值时返回原规格");
+    }
+
+    private RateLimitOverrides overrides(Map<Object, Object> entries, Map<String, Long> declared) {
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("rate_limiter:overrides")).thenReturn(entries);
+        return new RateLimitOverrides(redisTemplate, declared, "rate_limiter:overrides", "rate_limiter:overrides:changed",
+                Duration.ofMinutes(5), null);
+    }
+}
@@ -0,0 +1,115 @@
+package cn.springboot.starter.api_rate_limiter.core.sampling;
+
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SampledPermitsTest {
+
+    private static final RateLimitSpec SPEC = RateLimitSpec.fixedWindow(1000, 60).withSampling(16);
+
+    @Test
+    public void testUnknownKeyGoesToRedis() {
+        SampledPermits sampled = new SampledPermits();
+        assertNull(sampled.tryLocal(SPEC, "key", 1));
+        assertEquals(3, sampled.batchSize(SPEC, "key", 3));
+    }
+
+    @Test
+    public void testPrepaidPermitsAreConsumedLocally() {
+        SampledPermits sampled = new SampledPermits();
+        sampled.record(SPEC, "key", 1, 1, true);
+        assertEquals(2, sampled.batchSize(SPEC, "key", 1));
+        assertNull(sampled.tryLocal(SPEC, "key", 1), "单个许可的批量没有剩余的预取许可");
+
+        sampled.record(SPEC, "key", 1, 2, true);
+        assertEquals(Boolean.TRUE, sampled.tryLocal(SPEC, "key", 1));
+        assertNull(sampled.tryLocal(SPEC, "key", 1), "预取的许可用完后需要访问 Redis");
+
+        sampled.record(SPEC, "key", 1, 4, true);
+        assertNull(sampled.tryLocal(SPEC, "key", 4), "预取的许可不足时需要访问 Redis");
+        assertEquals(Boolean.TRUE, sampled.tryLocal(SPEC, "key", 3));
+    }
+
+    @Test
+    public void testBatchSizeDoublesUpToSampleSize() {
+        SampledPermits sampled = new SampledPermits();
+        int[] expected = {2, 4, 8, 16, 16};
+        for (int size : expected) {
+            sampled.record(SPEC, "key", 1, 1, true);
+            assertEquals(size, sampled.batchSize(SPEC, "key", 1));
+        }
+    }
+
+    @Test
+    public void testBatchSizeIsCappedByHalfTheLimit() {
+        RateLimitSpec spec = RateLimitSpec.fixedWindow(10, 60).withSampling(16);
+        SampledPermits sampled = new SampledPermits();
+        for (int i = 0; i < 5; i++) {
+            sampled.record(spec, "key", 1, 1, true);
+        }
+        assertEquals(5, sampled.batchSize(spec, "key", 1));
+    }
+
+    @Test
+    public void testRejectedBatchHalvesWithoutInferringRejects() {
+        SampledPermits sampled = new SampledPermits();
+        sampled.record(SPEC, "key", 1, 1, true);
+        sampled.record(SPEC, "key", 1, 1, true);
+        assertEquals(4, sampled.batchSize(SPEC, "key", 1));
+
+        sampled.record(SPEC, "key", 1, 4, false);
+        assertEquals(2, sampled.batchSize(SPEC, "key", 1));
+        assertNull(sampled.tryLocal(SPEC, "key", 1), "批量申请被拒绝后应该按单个许可重新检查");
+    }
+
+    @Test
+    public void testInferredRejectsGrowWithRejectStreak() {
+        SampledPermits sampled = new SampledPermits();
+        sampled.record(SPEC, "key", 1, 1, false);
+        assertNull(sampled.tryLocal(SPEC, "key", 1), "第一次拒绝不推断后续请求");
+
+        sampled.record(SPEC, "key", 1, 1, false);
+        assertEquals(Boolean.FALSE, sampled.tryLocal(SPEC, "key", 1));
+        assertNull(sampled.tryLocal(SPEC, "key", 1));
+
+        sampled.record(SPEC, "key", 1, 1, false);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Boolean.FALSE, sampled.tryLocal(SPEC, "key", 1));
+        }
+        assertNull(sampled.tryLocal(SPEC, "key", 1));
+        assertEquals(1, sampled.batchSize(SPEC, "key", 1));
+
+        sampled.record(SPEC, "key", 1, 1, true);
+        sampled.record(SPEC, "key", 1, 1, false);
+        assertNull(sampled.tryLocal(SPEC, "key", 1), "放行后重新计算连续拒绝次数");
+    }
+
+    @Test
+    public void testDecisionsExpire() throws InterruptedException {
+        SampledPermits sampled = new SampledPermits();
+        sampled.record(SPEC, "prepaid", 1, 4, true);
+        sampled.record(SPEC, "rejected", 1, 1, false);
+        sampled.record(SPEC, "rejected", 1, 1, false);
+
+        Thread.sleep(SampledPermits.DECISION_TTL_MILLIS + 100);
+        assertNull(sampled.tryLocal(SPEC, "prepaid", 1), "过期的预取许可不能继续使用");
+        assertNull(sampled.tryLocal(SPEC, "rejected", 1), "过期的推断拒绝不能继续沿用");
+
+        // 过期后记录的新结果不累加旧的预取许可
+        sampled.record(SPEC, "prepaid", 1, 1, true);
+        assertNull(sampled.tryLocal(SPEC, "prepaid", 1));
+    }
+
+    @Test
+    public void testStateIsSeparatedBySpecAndKey() {
+        SampledPermits sampled = new SampledPermits();
+        RateLimitSpec other = RateLimitSpec.fixedWindow(500, 60).withSampling(16);
+        sampled.record(SPEC, "key", 1, 4, true);
+        assertNull(sampled.tryLocal(SPEC, "other", 1));
+        assertNull(sampled.tryLocal(other, "key", 1));
+        assertEquals(Boolean.TRUE, sampled.tryLocal(SPEC, "key", 1));
+    }
+}
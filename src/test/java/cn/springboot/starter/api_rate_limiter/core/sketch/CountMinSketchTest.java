@@ -0,0 +1,117 @@
+package cn.springboot.starter.api_rate_limiter.core.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CountMinSketchTest {
+
+    @Test
+    public void testIndexesAreStableAndWithinRows() {
+        int[] first = CountMinSketch.indexes("ip:10.0.0.1", 1024, 4);
+        int[] second = CountMinSketch.indexes("ip:10.0.0.1", 1024, 4);
+        assertArrayEquals(first, second, "同一个键的下标应该稳定");
+        for (int row = 0; row < first.length; row++) {
+            assertTrue(first[row] >= row * 1024 && first[row] < (row + 1) * 1024, "下标应该落在对应的行内");
+        }
+    }
+
+    @Test
+    public void testTryAddEnforcesLimit() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4, false);
+        int[] indexes = CountMinSketch.indexes("user:1", 1024, 4);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(sketch.tryAdd(indexes, 1, 5), "第" + (i + 1) + "个请求应该被允许");
+        }
+        assertFalse(sketch.tryAdd(indexes, 1, 5), "超过限制的请求应该被拒绝");
+        assertEquals(5, sketch.estimate(indexes));
+    }
+
+    @Test
+    public void testPermitsLargerThanRemainingAreRejected() {
+        CountMinSketch sketch = new CountMinSketch(64, 2, true);
+        int[] indexes = CountMinSketch.indexes("user:2", 64, 2);
+        assertTrue(sketch.tryAdd(indexes, 3, 5));
+        assertFalse(sketch.tryAdd(indexes, 3, 5), "剩余许可不足时应该拒绝");
+        assertTrue(sketch.tryAdd(indexes, 2, 5));
+        assertEquals(5, sketch.estimate(indexes));
+    }
+
+    @Test
+    public void testEstimateNeverUndercountsWithCollisions() {
+        // 宽度很小，键之间必然发生冲突
+        CountMinSketch sketch = new CountMinSketch(8, 2, false);
+        int[] counts = new int[100];
+        for (int round = 0; round < 3; round++) {
+            for (int key = 0; key < counts.length; key++) {
+                if (sketch.tryAdd(CountMinSketch.indexes("key:" + key, 8, 2), 1, Long.MAX_VALUE)) {
+                    counts[key]++;
+                }
+            }
+        }
+        for (int key = 0; key < counts.length; key++) {
+            assertTrue(sketch.estimate(CountMinSketch.indexes("key:" + key, 8, 2)) >= counts[key], "估算值不应该低于实际计数");
+        }
+    }
+
+    @Test
+    public void testConcurrentTryAddNeverAdmitsMoreThanLimit() throws Exception {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            CountMinSketch sketch = new CountMinSketch(256, 4, offHeap);
+            int[] indexes = CountMinSketch.indexes("attacker", 256, 4);
+            int threads = 16;
+            long limit = 1000;
+            AtomicInteger admitted = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < 500; i++) {
+                            if (sketch.tryAdd(indexes, 1, limit)) {
+                                admitted.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            assertEquals(limit, admitted.get(), "并发请求放行的数量应该恰好等于限制");
+            assertEquals(limit, sketch.estimate(indexes), "计数不应该丢失");
+        }
+    }
+
+    @Test
+    public void testClearAndSnapshotRoundTrip() {
+        CountMinSketch sketch = new CountMinSketch(16, 2, false);
+        int[] indexes = CountMinSketch.indexes("user:3", 16, 2);
+        sketch.tryAdd(indexes, 4, 10);
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(sketch.size() * Long.BYTES);
+        sketch.writeTo(buffer);
+        sketch.clear();
+        assertEquals(0, sketch.estimate(indexes));
+        buffer.flip();
+        sketch.readFrom(buffer);
+        assertEquals(4, sketch.estimate(indexes));
+    }
+}
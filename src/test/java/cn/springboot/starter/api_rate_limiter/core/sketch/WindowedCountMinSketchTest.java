@@ -0,0 +1,78 @@
+package cn.springboot.starter.api_rate_limiter.core.sketch;
+
+import cn.springboot.starter.api_rate_limiter.core.CountMinSketchMode;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WindowedCountMinSketchTest {
+
+    @Test
+    public void testLimitIsEnforcedPerKey() {
+        WindowedCountMinSketch sketch = new WindowedCountMinSketch(
+                RateLimitSpec.countMinSketch(3, 60, 1024, 4, CountMinSketchMode.HEAP));
+        awayFromWindowBoundary(60_000);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(sketch.tryAcquire("ip:1", 1));
+        }
+        assertFalse(sketch.tryAcquire("ip:1", 1), "超过限制的请求应该被拒绝");
+        assertTrue(sketch.tryAcquire("ip:2", 1), "其他键不受影响");
+    }
+
+    @Test
+    public void testNewWindowStartsFromZero() throws InterruptedException {
+        WindowedCountMinSketch sketch = new WindowedCountMinSketch(
+                RateLimitSpec.countMinSketch(2, 1, 1024, 4, CountMinSketchMode.OFF_HEAP));
+        awayFromWindowBoundary(1000);
+        assertTrue(sketch.tryAcquire("ip:1", 2));
+        assertFalse(sketch.tryAcquire("ip:1", 1));
+        long window = sketch.getWindowIndex();
+
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000 + 50);
+        assertTrue(sketch.tryAcquire("ip:1", 2), "进入新窗口后计数应该清零");
+        assertEquals(window + 1, sketch.getWindowIndex());
+
+        // 再轮换一次，复用的草图必须已经被清空
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000 + 50);
+        assertTrue(sketch.tryAcquire("ip:1", 2), "复用的草图应该在轮换时清空");
+    }
+
+    @Test
+    public void testRestoreOnlyAppliesToCurrentWindow() {
+        RateLimitSpec spec = RateLimitSpec.countMinSketch(5, 60, 64, 2, CountMinSketchMode.HEAP);
+        awayFromWindowBoundary(60_000);
+        WindowedCountMinSketch source = new WindowedCountMinSketch(spec);
+        source.tryAcquire("ip:1", 4);
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 2 * Long.BYTES);
+        source.writeCurrentWindow(buffer);
+
+        WindowedCountMinSketch stale = new WindowedCountMinSketch(spec);
+        buffer.flip();
+        assertFalse(stale.restoreWindow(source.getWindowIndex() - 1, buffer.duplicate()), "过期窗口的快照不应该恢复");
+        assertTrue(stale.tryAcquire("ip:1", 5), "未恢复时计数应该从零开始");
+
+        WindowedCountMinSketch restored = new WindowedCountMinSketch(spec);
+        assertTrue(restored.restoreWindow(source.getWindowIndex(), buffer.duplicate()));
+        assertTrue(restored.tryAcquire("ip:1", 1));
+        assertFalse(restored.tryAcquire("ip:1", 1), "恢复后应该沿用快照中的计数");
+    }
+
+    /**
+     * 距离窗口边界太近时等待进入下一个窗口，避免测试跨越窗口
+     */
+    private static void awayFromWindowBoundary(long windowMillis) {
+        long remaining = windowMillis - System.currentTimeMillis() % windowMillis;
+        if (remaining < 200) {
+            try {
+                Thread.sleep(remaining + 10);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package cn.springboot.starter.api_rate_limiter.core.snapshot;
+
+import cn.springboot.starter.api_rate_limiter.core.CountMinSketchMode;
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import cn.springboot.starter.api_rate_limiter.core.sketch.WindowedCountMinSketch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class LocalStateSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRoundTripRestoresCurrentWindow() throws IOException {
+        RateLimitSpec heapSpec = RateLimitSpec.countMinSketch(3, 3600, 256, 4, CountMinSketchMode.HEAP);
+        RateLimitSpec offHeapSpec = RateLimitSpec.countMinSketch(5, 3600, 128, 2, CountMinSketchMode.OFF_HEAP);
+        WindowedCountMinSketch heap = new WindowedCountMinSketch(heapSpec);
+        WindowedCountMinSketch offHeap = new WindowedCountMinSketch(offHeapSpec);
+        awayFromWindowBoundary(3_600_000);
+        assertTrue(heap.tryAcquire("ip:1", 3));
+        assertTrue(offHeap.tryAcquire("ip:2", 4));
+
+        Path path = tempDir.resolve("snapshot/rate-limiter.bin");
+        assertEquals(2, LocalStateSnapshot.write(path, List.of(heap, offHeap)));
+        assertFalse(Files.exists(path.resolveSibling("rate-limiter.bin.tmp")), "临时文件应该被原子替换");
+
+        Map<RateLimitSpec, WindowedCountMinSketch> restored = new HashMap<>();
+        assertEquals(2, LocalStateSnapshot.read(path, spec -> restored.computeIfAbsent(spec, WindowedCountMinSketch::new)));
+
+        WindowedCountMinSketch restoredHeap = restored.get(heapSpec);
+        WindowedCountMinSketch restoredOffHeap = restored.get(offHeapSpec);
+        assertFalse(restoredHeap.tryAcquire("ip:1", 1), "恢复后应该沿用快照中的计数");
+        assertTrue(restoredHeap.tryAcquire("ip:3", 1), "快照中没有计数的键不受影响");
+        assertTrue(restoredOffHeap.tryAcquire("ip:2", 1));
+        assertFalse(restoredOffHeap.tryAcquire("ip:2", 1));
+    }
+
+    @Test
+    public void testEntriesFromEndedWindowsAreSkipped() throws IOException, InterruptedException {
+        WindowedCountMinSketch sketch = new WindowedCountMinSketch(
+                RateLimitSpec.countMinSketch(2, 1, 64, 2, CountMinSketchMode.HEAP));
+        awayFromWindowBoundary(1000);
+        assertTrue(sketch.tryAcquire("ip:1", 2));
+        Path path = tempDir.resolve("rate-limiter.bin");
+        assertEquals(1, LocalStateSnapshot.write(path, List.of(sketch)));
+
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000 + 50);
+        assertEquals(0, LocalStateSnapshot.read(path, spec -> fail("窗口已经结束的条目不应该被恢复")));
+    }
+
+    @Test
+    public void testMissingOrIncompatibleFileRestoresNothing() throws IOException {
+        Path missing = tempDir.resolve("missing.bin");
+        assertEquals(0, LocalStateSnapshot.read(missing, spec -> fail("文件不存在时不应该恢复")));
+
+        Path corrupt = tempDir.resolve("corrupt.bin");
+        Files.write(corrupt, new byte[64]);
+        assertEquals(0, LocalStateSnapshot.read(corrupt, spec -> fail("魔数不匹配时不应该恢复")));
+    }
+
+    @Test
+    public void testTruncatedFileRestoresCompleteEntries() throws IOException {
+        RateLimitSpec first = RateLimitSpec.countMinSketch(3, 3600, 64, 2, CountMinSketchMode.HEAP);
+        RateLimitSpec second = RateLimitSpec.countMinSketch(4, 3600, 64, 2, CountMinSketchMode.HEAP);
+        awayFromWindowBoundary(3_600_000);
+        Path path = tempDir.resolve("rate-limiter.bin");
+        LocalStateSnapshot.write(path, List.of(new WindowedCountMinSketch(first), new WindowedCountMinSketch(second)));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 8));
+
+        Map<RateLimitSpec, WindowedCountMinSketch> restored = new HashMap<>();
+        assertEquals(1, LocalStateSnapshot.read(path, spec -> restored.computeIfAbsent(spec, WindowedCountMinSketch::new)));
+        assertTrue(restored.containsKey(first));
+        assertFalse(restored.containsKey(second), "不完整的条目应该被丢弃");
+    }
+
+    private static void awayFromWindowBoundary(long windowMillis) {
+        long remaining = windowMillis - System.currentTimeMillis() % windowMillis;
+        if (remaining < 200) {
+            try {
+                Thread.sleep(remaining + 10);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package cn.springboot.starter.api_rate_limiter.core.storage;
+
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.cluster.api.async.AsyncExecutions;
+import io.lettuce.core.cluster.api.async.AsyncNodeSelection;
+import io.lettuce.core.cluster.api.async.NodeSelectionAsyncCommands;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RedisRateLimitStorageTest {
+
+    private static final RedisScript<Long> SCRIPT = RedisScript.of("return 1", Long.class);
+
+    @SuppressWarnings("unchecked")
+    private final RedisAsyncCommands<byte[], byte[]> commands = mock(RedisAsyncCommands.class);
+
+    @Test
+    public void testExecuteAsyncFallsBackToEvalOnNoScript() throws Exception {
+        RedisFuture<Long> noScript = future(CompletableFuture.failedFuture(new RedisNoScriptException("NOSCRIPT No matching script")));
+        RedisFuture<Long> evaluated = future(CompletableFuture.completedFuture(1L));
+        when(commands.<Long>evalsha(anyString(), eq(ScriptOutputType.INTEGER), any(byte[][].class), any(byte[][].class)))
+                .thenReturn(noScript);
+        when(commands.<Long>eval(any(byte[].class), eq(ScriptOutputType.INTEGER), any(byte[][].class), any(byte[][].class)))
+                .thenReturn(evaluated);
+        RedisRateLimitStorage storage = new RedisRateLimitStorage(lettuceTemplate(), SCRIPT);
+
+        Long result = storage.executeAsync("key", List.of("1"), Runnable::run).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1L, result);
+        verify(commands).eval(any(byte[].class), eq(ScriptOutputType.INTEGER), any(byte[][].class), any(byte[][].class));
+    }
+
+    @Test
+    public void testExecuteAsyncPropagatesOtherErrors() {
+        RedisFuture<Long> failed = future(CompletableFuture.failedFuture(new IllegalStateException("ERR wrong number of arguments")));
+        when(commands.<Long>evalsha(anyString(), eq(ScriptOutputType.INTEGER), any(byte[][].class), any(byte[][].class)))
+                .thenReturn(failed);
+        RedisRateLimitStorage storage = new RedisRateLimitStorage(lettuceTemplate(), SCRIPT);
+
+        CompletableFuture<Long> result = storage.executeAsync("key", List.of("1"), Runnable::run);
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertEquals(IllegalStateException.class, ex.getCause().getClass());
+        verify(commands, never()).eval(any(byte[].class), any(ScriptOutputType.class), any(byte[][].class), any(byte[][].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLoadScriptRunsOnAllClusterPrimaries() {
+        RedisAdvancedClusterAsyncCommands<byte[], byte[]> cluster = mock(RedisAdvancedClusterAsyncCommands.class);
+        AsyncNodeSelection<byte[], byte[]> upstream = mock(AsyncNodeSelection.class);
+        NodeSelectionAsyncCommands<byte[], byte[]> upstreamCommands = mock(NodeSelectionAsyncCommands.class);
+        AsyncExecutions<String> executions = mock(AsyncExecutions.class);
+        when(executions.toCompletableFuture()).thenReturn(CompletableFuture.completedFuture(null));
+        when(upstreamCommands.scriptLoad(any(byte[].class))).thenReturn(executions);
+        when(upstream.commands()).thenReturn(upstreamCommands);
+        when(cluster.upstream()).thenReturn(upstream);
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.getNativeConnection()).thenReturn(cluster);
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        when(template.getStringSerializer()).thenReturn(RedisSerializer.string());
+        when(template.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection));
+
+        new RedisRateLimitStorage(template, SCRIPT).loadScript();
+
+        verify(upstreamCommands).scriptLoad("return 1".getBytes(StandardCharsets.UTF_8));
+        verify(connection, never()).scriptingCommands();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIsAllowedAllPipelinesEvalShaInKeyOrder() {
+        RedisScriptingCommands scripting = mock(RedisScriptingCommands.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.scriptingCommands()).thenReturn(scripting);
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        when(template.getStringSerializer()).thenReturn(RedisSerializer.string());
+        when(template.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+            return List.of(1L, 0L, 1L);
+        });
+        RedisRateLimitStorage storage = new RedisRateLimitStorage(template, SCRIPT);
+
+        List<Boolean> allowed = storage.isAllowedAll(List.of("a", "b", "c"),
+                List.of(List.of("1", "10"), List.of("2", "20"), List.of("3", "30")));
+
+        assertEquals(List.of(true, false, true), allowed);
+        assertEquals(List.of(List.of("a", "1", "10"), List.of("b", "2", "20"), List.of("c", "3", "30")), evalShaCalls(scripting),
+                "每个键应该按传入顺序以各自的参数发送一条 EVALSHA");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIsAllowedAllRetriesOnlyNoScriptKeys() {
+        RedisScriptingCommands scripting = mock(RedisScriptingCommands.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.scriptingCommands()).thenReturn(scripting);
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        when(template.getStringSerializer()).thenReturn(RedisSerializer.string());
+        when(template.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection));
+        RedisPipelineException noScript = new RedisPipelineException("pipeline failed",
+                List.of(1L, new RedisNoScriptException("NOSCRIPT No matching script"), 0L));
+        when(template.executePipelined(any(RedisCallback.class)))
+                .thenAnswer(invocation -> {
+                    invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+                    throw noScript;
+                })
+                .thenAnswer(invocation -> {
+                    invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+                    return List.of(1L);
+                });
+        RedisRateLimitStorage storage = new RedisRateLimitStorage(template, SCRIPT);
+
+        List<Boolean> allowed = storage.isAllowedAll(List.of("a", "b", "c"), List.of(List.of("1"), List.of("2"), List.of("3")));
+
+        assertEquals(List.of(true, true, false), allowed);
+        verify(scripting).scriptLoad(any(byte[].class));
+        assertEquals(List.of(List.of("a", "1"), List.of("b", "2"), List.of("c", "3"), List.of("b", "2")), evalShaCalls(scripting),
+                "只有返回 NOSCRIPT 的键应该在加载脚本后重试");
+    }
+
+    /**
+     * 按调用顺序读取 EVALSHA 的键与参数
+     */
+    private static List<List<String>> evalShaCalls(RedisScriptingCommands scripting) {
+        List<List<String>> calls = new ArrayList<>();
+        for (Invocation invocation : mockingDetails(scripting).getInvocations()) {
+            if (invocation.getMethod().getName().equals("evalSha")) {
+                List<String> call = new ArrayList<>();
+                for (byte[] value : (byte[][]) invocation.getRawArguments()[3]) {
+                    call.add(new String(value, StandardCharsets.UTF_8));
+                }
+                calls.add(call);
+            }
+        }
+        return calls;
+    }
+
+    @SuppressWarnings("unchecked")
+    private StringRedisTemplate lettuceTemplate() {
+        LettuceConnectionFactory connectionFactory = mock(LettuceConnectionFactory.class);
+        when(connectionFactory.getShareNativeConnection()).thenReturn(true);
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.getNativeConnection()).thenReturn(commands);
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        when(template.getConnectionFactory()).thenReturn(connectionFactory);
+        when(template.getStringSerializer()).thenReturn(RedisSerializer.string());
+        when(template.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection));
+        return template;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> RedisFuture<T> future(CompletableFuture<T> result) {
+        RedisFuture<T> future = mock(RedisFuture.class);
+        when(future.toCompletableFuture()).thenReturn(result);
+        return future;
+    }
+}
@@ -0,0 +1,155 @@
+package cn.springboot.starter.api_rate_limiter.core.storage.script;
+
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RateLimitFunctionLibraryTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisAsyncCommands<byte[], byte[]> commands = mock(RedisAsyncCommands.class);
+
+    private final RateLimitFunctionLibrary library = new RateLimitFunctionLibrary(scripts("return 1"));
+
+    @Test
+    public void testLibraryRegistersVersionedFunctions() {
+        String functionName = library.getFunctionName("fixed_window");
+
+        assertTrue(library.getLibraryName().startsWith(RateLimitFunctionLibrary.LIBRARY_PREFIX));
+        assertEquals(library.getLibraryName() + "_fixed_window", functionName);
+        assertTrue(library.getLibraryCode().startsWith("#!lua name=" + library.getLibraryName() + "\n"));
+        assertTrue(library.getLibraryCode().contains("redis.register_function('" + functionName + "', function(KEYS, ARGV)"));
+        assertNull(library.getFunctionName("unknown"));
+        assertNotEquals(library.getLibraryName(), new RateLimitFunctionLibrary(scripts("return 2")).getLibraryName(),
+                "脚本内容变化时函数库版本号应该随之变化");
+    }
+
+    @Test
+    public void testLoadReplacesLibrary() {
+        RedisFuture<String> loaded = future(CompletableFuture.completedFuture("ok"));
+        when(commands.functionLoad(anyString(), anyBoolean())).thenReturn(loaded);
+
+        library.load(template());
+
+        verify(commands).functionLoad(library.getLibraryCode(), true);
+    }
+
+    @Test
+    public void testCallAllReloadsAndRetriesOnlyMissingFunctionKeys() {
+        String functionName = library.getFunctionName("fixed_window");
+        RedisFuture<String> loaded = future(CompletableFuture.completedFuture("ok"));
+        when(commands.functionLoad(anyString(), anyBoolean())).thenReturn(loaded);
+        RedisFuture<Long> allowed = future(CompletableFuture.completedFuture(1L));
+        RedisFuture<Long> notFound = future(CompletableFuture.failedFuture(new RedisCommandExecutionException("ERR Function not found")));
+        RedisFuture<Long> rejected = future(CompletableFuture.completedFuture(0L));
+        when(commands.<Long>fcall(eq(functionName), eq(ScriptOutputType.INTEGER), any(byte[][].class), any(byte[][].class)))
+                .thenReturn(allowed, notFound, rejected, allowed);
+
+        List<Long> results = library.callAll(template(), functionName, List.of("a", "b", "c"),
+                List.of(List.of("1"), List.of("2"), List.of("3")));
+
+        assertEquals(List.of(1L, 1L, 0L), results);
+        verify(commands).functionLoad(library.getLibraryCode(), true);
+        assertEquals(List.of("a", "b", "c", "b"), fcallKeys(), "只有函数不存在的键应该在重新加载后重试");
+    }
+
+    @Test
+    public void testCallPropagatesOtherErrorsWithoutReload() {
+        String functionName = library.getFunctionName("fixed_window");
+        RedisFuture<Long> failed = future(CompletableFuture.failedFuture(new RedisCommandExecutionException("ERR wrong number of arguments")));
+        when(commands.<Long>fcall(eq(functionName), eq(ScriptOutputType.INTEGER), any(byte[][].class), any(byte[][].class)))
+                .thenReturn(failed);
+
+        assertThrows(RedisSystemException.class, () -> library.call(template(), functionName, "a", List.of("1")));
+        verify(commands, never()).functionLoad(anyString(), anyBoolean());
+    }
+
+    @Test
+    public void testCallAsyncReloadsAndRetriesOnce() throws Exception {
+        String functionName = library.getFunctionName("fixed_window");
+        RedisFuture<String> loaded = future(CompletableFuture.completedFuture("ok"));
+        when(commands.functionLoad(anyString(), anyBoolean())).thenReturn(loaded);
+        RedisFuture<Long> notFound = future(CompletableFuture.failedFuture(new RedisCommandExecutionException("ERR Function not found")));
+        RedisFuture<Long> allowed = future(CompletableFuture.completedFuture(1L));
+        when(commands.<Long>fcall(eq(functionName), eq(ScriptOutputType.INTEGER), any(byte[][].class), any(byte[][].class)))
+                .thenReturn(notFound, allowed);
+
+        Long result = library.callAsync(template(), functionName, "a", List.of("1")).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1L, result);
+        verify(commands).functionLoad(library.getLibraryCode(), true);
+        assertEquals(List.of("a", "a"), fcallKeys());
+    }
+
+    /**
+     * 按调用顺序读取 FCALL 的键
+     */
+    private List<String> fcallKeys() {
+        List<String> keys = new ArrayList<>();
+        for (Invocation invocation : mockingDetails(commands).getInvocations()) {
+            if (invocation.getMethod().getName().equals("fcall")) {
+                byte[][] keyBytes = (byte[][]) invocation.getRawArguments()[2];
+                keys.add(new String(keyBytes[0], StandardCharsets.UTF_8));
+            }
+        }
+        return keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    private StringRedisTemplate template() {
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.getNativeConnection()).thenReturn(commands);
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        when(template.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection));
+        return template;
+    }
+
+    private static Map<String, String> scripts(String script) {
+        Map<String, String> scripts = new LinkedHashMap<>();
+        scripts.put("fixed_window", script);
+        return scripts;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> RedisFuture<T> future(CompletableFuture<T> result) {
+        RedisFuture<T> future = mock(RedisFuture.class);
+        try {
+            when(future.get()).thenAnswer(invocation -> result.get());
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+        when(future.toCompletableFuture()).thenReturn(result);
+        return future;
+    }
+}
@@ -0,0 +1,137 @@
+package cn.springboot.starter.api_rate_limiter.core.sync;
+
+import cn.springboot.starter.api_rate_limiter.core.RateLimitSpec;
+import cn.springboot.starter.api_rate_limiter.core.storage.RedisRateLimitStorage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SyncedWindowCountersTest {
+
+    @Test
+    public void testInFlightDeltaIsCountedUntilReplyArrives() throws Exception {
+        RedisRateLimitStorage storage = mock(RedisRateLimitStorage.class);
+        CountDownLatch requestSent = new CountDownLatch(1);
+        CountDownLatch reply = new CountDownLatch(1);
+        when(storage.executeAll(anyList(), anyList())).thenAnswer(invocation -> {
+            requestSent.countDown();
+            reply.await(10, TimeUnit.SECONDS);
+            return List.of(5L);
+        });
+        SyncedWindowCounters counters = new SyncedWindowCounters(storage);
+        RateLimitSpec spec = RateLimitSpec.fixedWindow(5, 3600).withLocalSync();
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(counters.tryAcquire(spec, "key", 1));
+        }
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(counters::flush);
+        assertTrue(requestSent.await(10, TimeUnit.SECONDS));
+        assertFalse(counters.tryAcquire(spec, "key", 1), "正在同步的增量仍然应该计入判断");
+
+        reply.countDown();
+        flush.get(10, TimeUnit.SECONDS);
+        assertFalse(counters.tryAcquire(spec, "key", 1), "同步完成后依据全局计数判断");
+    }
+
+    @Test
+    public void testFailedFlushKeepsDelta() {
+        RedisRateLimitStorage storage = mock(RedisRateLimitStorage.class);
+        when(storage.executeAll(anyList(), anyList())).thenThrow(new IllegalStateException("Redis 不可用"));
+        SyncedWindowCounters counters = new SyncedWindowCounters(storage);
+        RateLimitSpec spec = RateLimitSpec.fixedWindow(3, 3600).withLocalSync();
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(counters.tryAcquire(spec, "key", 1));
+        }
+        counters.flush();
+        assertFalse(counters.tryAcquire(spec, "key", 1), "同步失败后增量应该保留");
+    }
+
+    @Test
+    public void testDifferentWindowSizesUseSeparateCounters() {
+        SyncedWindowCounters counters = new SyncedWindowCounters(mock(RedisRateLimitStorage.class));
+        RateLimitSpec minute = RateLimitSpec.fixedWindow(2, 60).withLocalSync();
+        RateLimitSpec hour = RateLimitSpec.fixedWindow(2, 3600).withLocalSync();
+
+        assertTrue(counters.tryAcquire(minute, "key", 2));
+        assertFalse(counters.tryAcquire(minute, "key", 1));
+        assertTrue(counters.tryAcquire(hour, "key", 2), "窗口大小不同的规格不应该共用计数器");
+    }
+
+    @Test
+    public void testEvictionDoesNotLoseConcurrentAcquire() throws Exception {
+        RedisRateLimitStorage storage = mock(RedisRateLimitStorage.class);
+        AtomicLong synced = new AtomicLong();
+        when(storage.executeAll(anyList(), anyList())).thenAnswer(invocation -> {
+            List<List<String>> args = invocation.getArgument(1);
+            List<Long> totals = new ArrayList<>(args.size());
+            for (List<String> arg : args) {
+                synced.addAndGet(Long.parseLong(arg.get(1)));
+                totals.add(0L);
+            }
+            return totals;
+        });
+        SyncedWindowCounters counters = new SyncedWindowCounters(storage);
+        RateLimitSpec spec = RateLimitSpec.fixedWindow(Integer.MAX_VALUE, 1).withLocalSync();
+        int keys = 5000;
+
+        for (int i = 0; i < keys; i++) {
+            assertTrue(counters.tryAcquire(spec, "key" + i, 1));
+        }
+        counters.flush();
+        // 等到所有计数器都满足清理条件，并从一个新窗口的开头开始，避免窗口滚动丢弃增量
+        Thread.sleep(2100);
+        while (System.currentTimeMillis() % 1000 > 50) {
+            Thread.sleep(1);
+        }
+
+        CompletableFuture<Void> acquire = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < keys; i++) {
+                assertTrue(counters.tryAcquire(spec, "key" + i, 1));
+            }
+        });
+        while (!acquire.isDone()) {
+            counters.flush();
+        }
+        acquire.get(10, TimeUnit.SECONDS);
+        counters.flush();
+
+        assertEquals(2L * keys, synced.get(), "与清理并发的增量不应该丢失");
+    }
+
+    @Test
+    public void testFlushSendsLocalWindowStartAndPhase() {
+        RedisRateLimitStorage storage = mock(RedisRateLimitStorage.class);
+        List<List<String>> sent = new ArrayList<>();
+        when(storage.executeAll(anyList(), anyList())).thenAnswer(invocation -> {
+            sent.addAll(invocation.getArgument(1));
+            return List.of(1L);
+        });
+        SyncedWindowCounters counters = new SyncedWindowCounters(storage);
+        RateLimitSpec spec = RateLimitSpec.fixedWindow(10, 60).withStaggeredWindow().withLocalSync();
+        long phase = spec.windowPhase("key");
+
+        assertTrue(counters.tryAcquire(spec, "key", 1));
+        long now = System.currentTimeMillis() / 1000;
+        counters.flush();
+
+        List<String> args = sent.get(0);
+        long windowStart = Long.parseLong(args.get(2));
+        assertEquals(List.of("60", "1"), args.subList(0, 2));
+        assertEquals(phase, Math.floorMod(windowStart, 60), "本地窗口起点应该与脚本一样偏移键的相位");
+        assertTrue(windowStart <= now && now < windowStart + 60);
+        assertEquals(String.valueOf(phase), args.get(3));
+    }
+}